@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.examples.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * This is a benchmark of saving documents with a growing number of indirect objects. It prints the time per object for
+ * each document size, which should stay roughly constant as long as saving scales linearly with the number of
+ * objects.
+ *
+ * <p>
+ * Usage: java org.apache.pdfbox.examples.util.SaveBenchmark [object count ...]
+ * </p>
+ * The default object counts are 10000, 50000, 250000 and 500000. The largest documents need a heap of about 1 GB.
+ */
+public final class SaveBenchmark
+{
+    private static final int[] DEFAULT_OBJECT_COUNTS = { 10000, 50000, 250000, 500000 };
+
+    // the number of measured runs per document, the fastest one is reported
+    private static final int RUNS = 3;
+
+    private SaveBenchmark()
+    {
+        // example class should not be instantiated
+    }
+
+    /**
+     * This will run the benchmark.
+     *
+     * @param args The command line arguments, the object counts of the documents to be saved.
+     *
+     * @throws IOException If there is an error saving a document.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int[] objectCounts = DEFAULT_OBJECT_COUNTS;
+        if (args.length > 0)
+        {
+            objectCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++)
+            {
+                try
+                {
+                    objectCounts[i] = Integer.parseInt(args[i]);
+                }
+                catch (NumberFormatException e)
+                {
+                    usage();
+                    return;
+                }
+            }
+        }
+
+        // warm up the JIT, so that the first document size isn't measured with interpreted code
+        for (int i = 0; i < RUNS; i++)
+        {
+            save(objectCounts[0], CompressParameters.DEFAULT_COMPRESSION);
+            save(objectCounts[0], CompressParameters.NO_COMPRESSION);
+        }
+
+        System.out.println(String.format(Locale.US, "%10s %12s %14s %12s %14s", "objects",
+                "xref ms", "xref ns/obj", "objstm ms", "objstm ns/obj"));
+        for (int objectCount : objectCounts)
+        {
+            long uncompressed = measure(objectCount, CompressParameters.NO_COMPRESSION);
+            long compressed = measure(objectCount, CompressParameters.DEFAULT_COMPRESSION);
+            System.out.println(String.format(Locale.US, "%10d %12.1f %14.1f %12.1f %14.1f",
+                    objectCount, uncompressed / 1e6, (double) uncompressed / objectCount,
+                    compressed / 1e6, (double) compressed / objectCount));
+        }
+    }
+
+    /**
+     * Returns the shortest time of several runs saving a document with the given number of objects.
+     */
+    private static long measure(int objectCount, CompressParameters compressParameters)
+            throws IOException
+    {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++)
+        {
+            best = Math.min(best, save(objectCount, compressParameters));
+        }
+        return best;
+    }
+
+    /**
+     * Saves a document with the given number of objects and returns the time spent in saving it.
+     */
+    private static long save(int objectCount, CompressParameters compressParameters)
+            throws IOException
+    {
+        try (PDDocument document = createDocument(objectCount))
+        {
+            long start = System.nanoTime();
+            document.save(new NullOutputStream(), compressParameters);
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Creates a document with a page and the given number of dictionaries, each of them written as an indirect
+     * object.
+     */
+    private static PDDocument createDocument(int objectCount)
+    {
+        PDDocument document = new PDDocument();
+        document.addPage(new PDPage());
+        COSArray array = new COSArray();
+        for (int i = 0; i < objectCount; i++)
+        {
+            COSDictionary dict = new COSDictionary();
+            dict.setInt(COSName.N, i);
+            dict.setString(COSName.T, "Object " + i);
+            array.add(dict);
+        }
+        document.getDocumentCatalog().getCOSObject().setItem(COSName.getPDFName("Objects"), array);
+        return document;
+    }
+
+    /**
+     * This will print the usage for this program.
+     */
+    private static void usage()
+    {
+        System.err.println("Usage: java " + SaveBenchmark.class.getName() + " [object count ...]");
+    }
+
+    /**
+     * An output stream discarding all data, so that the disk doesn't influence the results.
+     */
+    private static final class NullOutputStream extends OutputStream
+    {
+        @Override
+        public void write(int b)
+        {
+            // discard
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            // discard
+        }
+    }
+}
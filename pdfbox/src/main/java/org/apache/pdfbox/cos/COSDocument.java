@@ -19,11 +19,14 @@ package org.apache.pdfbox.cos;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -54,18 +57,17 @@ public class COSDocument extends COSBase implements Closeable
      * are also stored in COSDictionary objects that map a name to a specific object.
      */
     private final Map<COSObjectKey, COSObject> objectPool =
-        new HashMap<>();
+        new ConcurrentHashMap<>();
 
     /**
      * Maps object and generation id to object byte offsets.
      */
-    private final Map<COSObjectKey, Long> xrefTable =
-        new HashMap<>();
+    private final XrefTable xrefTable = new XrefTable();
 
     /**
-     * List containing all streams which are created when creating a new pdf. 
+     * Set containing all streams which are created when creating a new pdf. 
      */
-    private final List<COSStream> streams = new ArrayList<>();
+    private final Set<COSStream> streams = Collections.newSetFromMap(new IdentityHashMap<>());
     
     /**
      * Document trailer dictionary.
@@ -166,6 +168,32 @@ public class COSDocument extends COSBase implements Closeable
         return stream;
     }
 
+    /**
+     * Returns the scratch file used to buffer the data of the streams of this document. Buffers created by the caller
+     * should be closed by the caller, they are released when the document is closed at the latest.
+     *
+     * @return the scratch file
+     */
+    public ScratchFile getScratchFile()
+    {
+        return scratchFile;
+    }
+
+    /**
+     * Closes the given stream and releases it, so that it isn't kept until the document is closed. Does nothing if the
+     * stream wasn't created by {@link #createCOSStream()}. The data of the stream can't be read anymore afterwards.
+     *
+     * @param stream the stream to be closed
+     * @throws IOException if the stream couldn't be closed
+     */
+    public void closeCOSStream(COSStream stream) throws IOException
+    {
+        if (streams.remove(stream))
+        {
+            stream.close();
+        }
+    }
+
     /**
      * Creates a new COSStream using the current configuration for scratch files. Not for public use. Only COSParser should
      * call this method.
@@ -228,7 +256,9 @@ public class COSDocument extends COSBase implements Closeable
     }
 
     /**
-     * This will get all dictionaries objects by type.
+     * This will get all dictionaries objects by type. Only the objects of the xref table are considered, parts of the
+     * xref table deferred by the parser are resolved first, see {@link #resolveDeferredXrefTable()}. If they can't be
+     * resolved, the error is logged and only the objects of the available parts are returned.
      *
      * @param type1 The first possible type of the object, mandatory.
      * @param type2 The second possible type of the object, usually an abbreviation, optional.
@@ -237,8 +267,17 @@ public class COSDocument extends COSBase implements Closeable
      */
     public List<COSObject> getObjectsByType(COSName type1, COSName type2)
     {
+        try
+        {
+            resolveDeferredXrefTable();
+        }
+        catch (IOException exception)
+        {
+            LOG.error("Can't resolve the deferred parts of the xref table, objects may be missing",
+                    exception);
+        }
         List<COSObject> retval = new ArrayList<>();
-        for (COSObjectKey objectKey : xrefTable.keySet())
+        for (COSObjectKey objectKey : getXrefTable().keySet())
         {
             COSObject objectFromPool = getObjectFromPool(objectKey);
             COSBase realObject = objectFromPool.getObject();
@@ -490,14 +529,30 @@ public class COSDocument extends COSBase implements Closeable
 
     /**
      * Returns the xrefTable which is a mapping of ObjectKeys
-     * to byte offsets in the file.
+     * to byte offsets in the file. If the parser deferred parts of the xref table, e.g. the main xref section of a
+     * linearized file opened using its first-page xref section, these entries are missing until they are needed to
+     * dereference an object or until {@link #resolveDeferredXrefTable()} is called.
      * @return mapping of ObjectsKeys to byte offsets
      */
-    public Map<COSObjectKey, Long> getXrefTable()
+    public XrefTable getXrefTable()
     {
         return xrefTable;
     }
 
+    /**
+     * Parses the parts of the xref table which were deferred by the parser, so that the xref table contains all
+     * objects. Nothing happens if nothing was deferred.
+     *
+     * @throws IOException if the deferred parts of the xref table could not be parsed
+     */
+    public void resolveDeferredXrefTable() throws IOException
+    {
+        if (parser != null)
+        {
+            parser.resolveDeferredXrefTable();
+        }
+    }
+
     /**
      * This method set the startxref value of the document. This will only 
      * be needed for incremental updates.
@@ -75,13 +75,28 @@ public final class COSInputStream extends FilterInputStream
             {
                 throw new IOException("Duplicate");
             }
-            ByteArrayOutputStream output = new ByteArrayOutputStream();
-            // apply filters
+            // apply filters, chaining the filters which are able to decode the data while it is
+            // read so that the decoded data is buffered only for filters needing all of it
             for (int i = 0; i < filters.size(); i++)
             {
-                output.reset();
-                results.add(filters.get(i).decode(input, output, parameters, i, options));
-                input = new ByteArrayInputStream(output.toByteArray());
+                Filter filter = filters.get(i);
+                InputStream decodingInput = filter.createDecodingInputStream(input, parameters, i,
+                        options);
+                if (decodingInput != null)
+                {
+                    results.add(DecodeResult.DEFAULT);
+                    input = decodingInput;
+                }
+                else
+                {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    results.add(filter.decode(input, output, parameters, i, options));
+                    if (input != in)
+                    {
+                        input.close();
+                    }
+                    input = new ByteArrayInputStream(output.toByteArray());
+                }
             }
         }
         return new COSInputStream(input, results);
@@ -18,10 +18,13 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.pdfbox.util.Hex;
 
@@ -32,8 +35,13 @@ import org.apache.pdfbox.util.Hex;
  */
 public final class COSName extends COSBase implements Comparable<COSName>
 {
-    // using ConcurrentHashMap because this can be accessed by multiple threads
-    private static final Map<String, COSName> nameMap = new ConcurrentHashMap<>(8192);
+    // using ConcurrentHashMap because this can be accessed by multiple threads. Document specific
+    // names are only weakly referenced, so that they are garbage collected when no document uses
+    // them anymore and the map doesn't grow forever in long running processes.
+    private static final Map<String, NameReference> nameMap = new ConcurrentHashMap<>(8192);
+    private static final ReferenceQueue<COSName> collectedNames = new ReferenceQueue<>();
+    private static final LongAdder createdNameCount = new LongAdder();
+    private static final LongAdder collectedNameCount = new LongAdder();
 
     // all common COSName values are stored in this HashMap
     // they are already defined as static constants and don't need to be synchronized
@@ -669,15 +677,47 @@ public final class COSName extends COSBase implements Comparable<COSName>
             if (name == null)
             {
                 // It seems to be a document specific COSName
-                name = nameMap.get(aName);
-                if (name == null)
+                name = getDocumentName(aName);
+            }
+        }
+        return name;
+    }
+
+    private static COSName getDocumentName(String aName)
+    {
+        removeCollectedNames();
+        while (true)
+        {
+            NameReference reference = nameMap.get(aName);
+            if (reference != null)
+            {
+                COSName name = reference.get();
+                if (name != null)
                 {
-                    // name is added to the synchronized map in the constructor
-                    name = new COSName(aName, false);
+                    return name;
                 }
+                nameMap.remove(aName, reference);
+            }
+            COSName name = new COSName(aName, false);
+            if (nameMap.putIfAbsent(aName, new NameReference(name)) == null)
+            {
+                createdNameCount.increment();
+                return name;
+            }
+            // another thread added the name in the meantime
+        }
+    }
+
+    private static void removeCollectedNames()
+    {
+        NameReference reference;
+        while ((reference = (NameReference) collectedNames.poll()) != null)
+        {
+            if (nameMap.remove(reference.key, reference))
+            {
+                collectedNameCount.increment();
             }
         }
-        return name;
     }
 
     /**
@@ -695,10 +735,6 @@ public final class COSName extends COSBase implements Comparable<COSName>
         {
             commonNameMap.put(aName, this);
         }
-        else
-        {
-            nameMap.put(aName, this);
-        }
     }
 
     /**
@@ -805,4 +841,54 @@ public final class COSName extends COSBase implements Comparable<COSName>
         // Clear them all
         nameMap.clear();
     }
+
+    /**
+     * Returns the number of document specific names, i.e. names which aren't defined as constants
+     * of this class, which are currently interned. These names are only weakly referenced and
+     * removed when they are no longer used.
+     *
+     * @return the number of interned document specific names
+     */
+    public static int getDocumentNameCount()
+    {
+        removeCollectedNames();
+        return nameMap.size();
+    }
+
+    /**
+     * Returns the number of document specific names which were created since the class was
+     * loaded.
+     *
+     * @return the number of created document specific names
+     */
+    public static long getCreatedDocumentNameCount()
+    {
+        return createdNameCount.sum();
+    }
+
+    /**
+     * Returns the number of document specific names which were removed after they had been
+     * garbage collected.
+     *
+     * @return the number of collected document specific names
+     */
+    public static long getCollectedDocumentNameCount()
+    {
+        removeCollectedNames();
+        return collectedNameCount.sum();
+    }
+
+    /**
+     * A weak reference to a document specific name, which knows its key in the name map.
+     */
+    private static final class NameReference extends WeakReference<COSName>
+    {
+        private final String key;
+
+        private NameReference(COSName name)
+        {
+            super(name, collectedNames);
+            key = name.name;
+        }
+    }
 }
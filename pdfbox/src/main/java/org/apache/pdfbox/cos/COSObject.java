@@ -33,7 +33,7 @@ public class COSObject extends COSBase implements COSUpdateInfo
     private long objectNumber;
     private int generationNumber;
     private boolean needToBeUpdated;
-    private ICOSParser parser;
+    private volatile ICOSParser parser;
     private boolean isDereferenced = false;
 
     private static final Log LOG = LogFactory.getLog(COSObject.class);
@@ -106,13 +106,33 @@ public class COSObject extends COSBase implements COSUpdateInfo
      */
     public COSBase getObject()
     {
-        if (!isDereferenced && parser != null)
+        ICOSParser currentParser = parser;
+        if (currentParser != null && currentParser.isConcurrentDereferencingSupported())
+        {
+            // other threads have to wait until the object is dereferenced,
+            // recursive calls of the same thread pass the lock
+            synchronized (this)
+            {
+                dereference();
+            }
+        }
+        else
+        {
+            dereference();
+        }
+        return baseObject;
+    }
+
+    private void dereference()
+    {
+        ICOSParser currentParser = parser;
+        if (!isDereferenced && currentParser != null)
         {
             try
             {
                 // mark as dereferenced to avoid endless recursions
                 isDereferenced = true;
-                baseObject = parser.dereferenceCOSObject(this);
+                baseObject = currentParser.dereferenceCOSObject(this);
             }
             catch (IOException e)
             {
@@ -123,7 +143,25 @@ public class COSObject extends COSBase implements COSUpdateInfo
                 parser = null;
             }
         }
-        return baseObject;
+    }
+
+    /**
+     * Sets the referenced object if it wasn't dereferenced yet and removes the initially assigned parser, e.g. for an
+     * object which was parsed in advance.
+     *
+     * @param object the referenced object
+     * @return true if the referenced object was set, false if it was dereferenced already
+     */
+    public synchronized boolean setObjectIfNotDereferenced(COSBase object)
+    {
+        if (isDereferenced || baseObject != null)
+        {
+            return false;
+        }
+        isDereferenced = true;
+        baseObject = object;
+        parser = null;
+        return true;
     }
 
     /**
@@ -16,7 +16,6 @@
  */
 package org.apache.pdfbox.cos;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.FilterOutputStream;
@@ -24,9 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -61,6 +58,9 @@ public class COSStream extends COSDictionary implements Closeable
     private RandomAccessReadView randomAccessReadView;
     
     private static final Log LOG = LogFactory.getLog(COSStream.class);
+
+    // decoded data exceeding this size is written to the scratch file instead of the heap
+    private static final int MAX_HEAP_DECODED_SIZE = 1024 * 1024;
     
     /**
      * Creates a new stream with an empty dictionary.
@@ -198,24 +198,47 @@ public class COSStream extends COSDictionary implements Closeable
         }
         else
         {
-            Set<Filter> filterSet = new HashSet<>(filterList);
-            if (filterSet.size() != filterList.size())
+            try (InputStream input = createInputStream())
             {
-                throw new IOException("Duplicate");
+                return createDecodedView(input);
             }
-            InputStream input = createRawInputStream();
-            ByteArrayOutputStream output = new ByteArrayOutputStream();
-            // apply filters
-            for (int i = 0; i < filterList.size(); i++)
+        }
+    }
+
+    /**
+     * Reads the given decoded data into a RandomAccessRead. Small streams are kept on the heap,
+     * the data of larger ones is written to the scratch file of the document, so that the memory
+     * usage setting of the document is honored.
+     */
+    private RandomAccessRead createDecodedView(InputStream input) throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int bytesRead;
+        while (output.size() < MAX_HEAP_DECODED_SIZE && (bytesRead = input.read(buffer)) != -1)
+        {
+            output.write(buffer, 0, bytesRead);
+        }
+        if (output.size() < MAX_HEAP_DECODED_SIZE || scratchFile == null)
+        {
+            IOUtils.copy(input, output);
+            return new RandomAccessReadBuffer(output.toByteArray());
+        }
+        RandomAccess decoded = scratchFile.createBuffer();
+        try
+        {
+            decoded.write(output.toByteArray());
+            while ((bytesRead = input.read(buffer)) != -1)
             {
-                if (i > 0)
-                {
-                    input = new ByteArrayInputStream(output.toByteArray());
-                    output.reset();
-                }
-                filterList.get(i).decode(input, output, this, i, DecodeOptions.DEFAULT);
+                decoded.write(buffer, 0, bytesRead);
             }
-            return new RandomAccessReadBuffer(output.toByteArray());
+            decoded.seek(0);
+            return decoded;
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            decoded.close();
+            throw ex;
         }
     }
 
@@ -43,4 +43,25 @@ public interface ICOSParser
     RandomAccessReadView createRandomAccessReadView(long startPosition, long streamLength)
             throws IOException;
 
+    /**
+     * Indicates if objects may be dereferenced by several threads at the same time.
+     * 
+     * @return true if {@link #dereferenceCOSObject(COSObject)} may be called concurrently
+     */
+    default boolean isConcurrentDereferencingSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Parses the parts of the xref table which were deferred by the parser, so that the xref table of the document
+     * contains all objects.
+     * 
+     * @throws IOException if something went wrong when parsing the xref table
+     */
+    default void resolveDeferredXrefTable() throws IOException
+    {
+        // nothing is deferred by default
+    }
+
 }
@@ -0,0 +1,445 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A map of object keys to the offsets of the objects, or to the negated object number of the object stream
+ * containing a compressed object, as used by an xref table.
+ *
+ * The entries are stored in an array indexed by the object number, each one packing the generation number and the
+ * offset into a single long, so that neither the keys nor the offsets have to be allocated. Entries which don't fit,
+ * i.e. an object number far beyond the others, a second generation of the same object number or an offset out of the
+ * range of 48 bits, are kept in a hash map.
+ *
+ * The primitive methods {@link #getOffset(long, int)} and {@link #put(long, int, long)} should be used where
+ * possible, the {@link Map} methods create the key and value objects on the fly. This class isn't thread-safe.
+ */
+public final class XrefTable extends AbstractMap<COSObjectKey, Long>
+{
+    /**
+     * The value returned by {@link #getOffset(long, int)} if there is no entry for the given key.
+     */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int GENERATION_BITS = 16;
+    private static final int GENERATION_MASK = (1 << GENERATION_BITS) - 1;
+    // the lowest offset is excluded, as it is packed to the marker of an empty entry
+    private static final long MIN_PACKED_OFFSET = -(1L << (63 - GENERATION_BITS));
+    private static final long MAX_PACKED_OFFSET = (1L << (63 - GENERATION_BITS)) - 1;
+
+    // the array may always grow up to this length, beyond it only if it stays reasonably filled
+    private static final int MIN_DENSE_LENGTH = 1024;
+    private static final int MAX_DENSE_LENGTH = Integer.MAX_VALUE - 8;
+
+    private static final long[] EMPTY_ARRAY = {};
+
+    private long[] dense = EMPTY_ARRAY;
+    private int denseSize;
+    private Map<COSObjectKey, Long> sparse;
+    private Set<Map.Entry<COSObjectKey, Long>> entrySet;
+
+    /**
+     * Creates an empty table.
+     */
+    public XrefTable()
+    {
+    }
+
+    /**
+     * Creates a table containing the entries of the given map.
+     *
+     * @param entries the entries to be copied
+     */
+    public XrefTable(Map<COSObjectKey, Long> entries)
+    {
+        putAll(entries);
+    }
+
+    /**
+     * Returns the offset of the object with the given key.
+     *
+     * @param number the object number
+     * @param generation the generation number
+     * @return the offset, the negated object number of the containing object stream or {@link #NOT_FOUND}
+     */
+    public long getOffset(long number, int generation)
+    {
+        if (number >= 0 && number < dense.length)
+        {
+            long packed = dense[(int) number];
+            if (packed != EMPTY && generation(packed) == generation)
+            {
+                return offset(packed);
+            }
+        }
+        if (sparse != null)
+        {
+            Long offset = sparse.get(new COSObjectKey(number, generation));
+            if (offset != null)
+            {
+                return offset;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the offset of the object with the given key.
+     *
+     * @param key the object key
+     * @return the offset, the negated object number of the containing object stream or {@link #NOT_FOUND}
+     */
+    public long getOffset(COSObjectKey key)
+    {
+        return getOffset(key.getNumber(), key.getGeneration());
+    }
+
+    /**
+     * Sets the offset of the object with the given key.
+     *
+     * @param number the object number
+     * @param generation the generation number
+     * @param offset the offset or the negated object number of the containing object stream
+     * @return the previous offset or {@link #NOT_FOUND}
+     * @throws IllegalArgumentException if the offset is {@link #NOT_FOUND}
+     */
+    public long put(long number, int generation, long offset)
+    {
+        if (offset == NOT_FOUND)
+        {
+            throw new IllegalArgumentException("Invalid offset " + offset);
+        }
+        if (number >= 0 && (generation & ~GENERATION_MASK) == 0 && offset > MIN_PACKED_OFFSET
+                && offset <= MAX_PACKED_OFFSET && ensureDenseLength(number))
+        {
+            int index = (int) number;
+            long packed = dense[index];
+            if (packed == EMPTY)
+            {
+                // the key may be stored in the map if another generation was stored in the array before
+                long previous = removeSparse(number, generation);
+                dense[index] = pack(offset, generation);
+                denseSize++;
+                return previous;
+            }
+            if (generation(packed) == generation)
+            {
+                dense[index] = pack(offset, generation);
+                return offset(packed);
+            }
+        }
+        if (sparse == null)
+        {
+            sparse = new HashMap<>();
+        }
+        Long previous = sparse.put(new COSObjectKey(number, generation), offset);
+        return previous != null ? previous : NOT_FOUND;
+    }
+
+    /**
+     * Removes the entry with the given key.
+     *
+     * @param number the object number
+     * @param generation the generation number
+     * @return the removed offset or {@link #NOT_FOUND}
+     */
+    public long remove(long number, int generation)
+    {
+        if (number >= 0 && number < dense.length)
+        {
+            int index = (int) number;
+            long packed = dense[index];
+            if (packed != EMPTY && generation(packed) == generation)
+            {
+                dense[index] = EMPTY;
+                denseSize--;
+                return offset(packed);
+            }
+        }
+        return removeSparse(number, generation);
+    }
+
+    private long removeSparse(long number, int generation)
+    {
+        if (sparse == null)
+        {
+            return NOT_FOUND;
+        }
+        Long previous = sparse.remove(new COSObjectKey(number, generation));
+        return previous != null ? previous : NOT_FOUND;
+    }
+
+    /**
+     * Makes sure that the array can hold the given object number.
+     *
+     * @return false if the object number is too far beyond the others to be stored in the array
+     */
+    private boolean ensureDenseLength(long number)
+    {
+        if (number < dense.length)
+        {
+            return true;
+        }
+        long limit = Math.max(MIN_DENSE_LENGTH, 4L * (size() + 1));
+        if (number >= limit || number >= MAX_DENSE_LENGTH)
+        {
+            return false;
+        }
+        int length = (int) Math.min(Math.max(number + 1, dense.length * 3L / 2), MAX_DENSE_LENGTH);
+        int oldLength = dense.length;
+        dense = Arrays.copyOf(dense, length);
+        Arrays.fill(dense, oldLength, length, EMPTY);
+        return true;
+    }
+
+    private static long pack(long offset, int generation)
+    {
+        return offset << GENERATION_BITS | generation;
+    }
+
+    private static long offset(long packed)
+    {
+        return packed >> GENERATION_BITS;
+    }
+
+    private static int generation(long packed)
+    {
+        return (int) (packed & GENERATION_MASK);
+    }
+
+    @Override
+    public int size()
+    {
+        return denseSize + (sparse != null ? sparse.size() : 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key instanceof COSObjectKey && getOffset((COSObjectKey) key) != NOT_FOUND;
+    }
+
+    @Override
+    public Long get(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return null;
+        }
+        long offset = getOffset((COSObjectKey) key);
+        return offset != NOT_FOUND ? offset : null;
+    }
+
+    @Override
+    public Long put(COSObjectKey key, Long value)
+    {
+        Objects.requireNonNull(value, "value");
+        long previous = put(key.getNumber(), key.getGeneration(), value);
+        return previous != NOT_FOUND ? previous : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends COSObjectKey, ? extends Long> map)
+    {
+        if (map instanceof XrefTable)
+        {
+            XrefTable other = (XrefTable) map;
+            for (int i = 0; i < other.dense.length; i++)
+            {
+                long packed = other.dense[i];
+                if (packed != EMPTY)
+                {
+                    put(i, generation(packed), offset(packed));
+                }
+            }
+            if (other.sparse != null)
+            {
+                other.sparse.forEach(this::put);
+            }
+        }
+        else
+        {
+            map.forEach(this::put);
+        }
+    }
+
+    @Override
+    public Long remove(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return null;
+        }
+        COSObjectKey objectKey = (COSObjectKey) key;
+        long previous = remove(objectKey.getNumber(), objectKey.getGeneration());
+        return previous != NOT_FOUND ? previous : null;
+    }
+
+    @Override
+    public void clear()
+    {
+        dense = EMPTY_ARRAY;
+        denseSize = 0;
+        sparse = null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super COSObjectKey, ? super Long> action)
+    {
+        for (int i = 0; i < dense.length; i++)
+        {
+            long packed = dense[i];
+            if (packed != EMPTY)
+            {
+                action.accept(new COSObjectKey(i, generation(packed)), offset(packed));
+            }
+        }
+        if (sparse != null)
+        {
+            sparse.forEach((key, offset) -> action
+                    .accept(new COSObjectKey(key.getNumber(), key.getGeneration()), offset));
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<COSObjectKey, Long>> entrySet()
+    {
+        if (entrySet == null)
+        {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<COSObjectKey, Long>>
+    {
+        @Override
+        public Iterator<Map.Entry<COSObjectKey, Long>> iterator()
+        {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return XrefTable.this.size();
+        }
+
+        @Override
+        public void clear()
+        {
+            XrefTable.this.clear();
+        }
+    }
+
+    /**
+     * Iterates over the entries of the array in ascending order of the object numbers, followed by the entries of the
+     * map.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<COSObjectKey, Long>>
+    {
+        private int nextIndex = -1;
+        private int lastIndex = -1;
+        private Iterator<Map.Entry<COSObjectKey, Long>> sparseIterator;
+        private boolean lastFromSparse;
+
+        private EntryIterator()
+        {
+            advance();
+        }
+
+        private void advance()
+        {
+            do
+            {
+                nextIndex++;
+            }
+            while (nextIndex < dense.length && dense[nextIndex] == EMPTY);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (nextIndex < dense.length)
+            {
+                return true;
+            }
+            if (sparseIterator == null && sparse != null)
+            {
+                sparseIterator = sparse.entrySet().iterator();
+            }
+            return sparseIterator != null && sparseIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<COSObjectKey, Long> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (nextIndex < dense.length)
+            {
+                long packed = dense[nextIndex];
+                lastIndex = nextIndex;
+                lastFromSparse = false;
+                advance();
+                return new SimpleImmutableEntry<>(new COSObjectKey(lastIndex, generation(packed)),
+                        offset(packed));
+            }
+            lastIndex = -1;
+            lastFromSparse = true;
+            Map.Entry<COSObjectKey, Long> entry = sparseIterator.next();
+            // copy the key, as it may be modified by COSObjectKey#fixGeneration
+            COSObjectKey key = entry.getKey();
+            return new SimpleImmutableEntry<>(new COSObjectKey(key.getNumber(), key.getGeneration()),
+                    entry.getValue());
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastFromSparse)
+            {
+                sparseIterator.remove();
+                lastFromSparse = false;
+            }
+            else if (lastIndex >= 0)
+            {
+                dense[lastIndex] = EMPTY;
+                denseSize--;
+                lastIndex = -1;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+}
@@ -41,6 +41,35 @@ final class ASCII85Filter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index, DecodeOptions options) throws IOException
+    {
+        final ASCII85InputStream ascii85 = new ASCII85InputStream(encoded);
+        // the ASCII85InputStream doesn't support available()
+        return new DecodingInputStream(ascii85)
+        {
+            private final byte[] buffer = new byte[4096];
+
+            @Override
+            protected boolean decodeChunk() throws IOException
+            {
+                int read;
+                do
+                {
+                    read = ascii85.read(buffer, 0, buffer.length);
+                }
+                while (read == 0);
+                if (read == -1)
+                {
+                    return false;
+                }
+                setChunk(buffer, read);
+                return true;
+            }
+        };
+    }
+
     @Override
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
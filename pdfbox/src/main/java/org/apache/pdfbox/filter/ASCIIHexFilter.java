@@ -107,6 +107,60 @@ final class ASCIIHexFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index, DecodeOptions options) throws IOException
+    {
+        return new DecodingInputStream(encoded)
+        {
+            private final byte[] buffer = new byte[4096];
+            private boolean endOfData = false;
+
+            @Override
+            protected boolean decodeChunk() throws IOException
+            {
+                int length = 0;
+                int value, firstByte, secondByte;
+                while (!endOfData && length < buffer.length && (firstByte = in.read()) != -1)
+                {
+                    // always after first char
+                    while (isWhitespace(firstByte))
+                    {
+                        firstByte = in.read();
+                    }
+                    if (firstByte == -1 || isEOD(firstByte))
+                    {
+                        endOfData = true;
+                        break;
+                    }
+
+                    if (REVERSE_HEX[firstByte] == -1)
+                    {
+                        LOG.error("Invalid hex, int: " + firstByte + " char: " + (char)firstByte);
+                    }
+                    value = REVERSE_HEX[firstByte] * 16;
+                    secondByte = in.read();
+
+                    if (secondByte == -1 || isEOD(secondByte))
+                    {
+                        // second value behaves like 0 in case of EOD
+                        buffer[length++] = (byte) value;
+                        endOfData = true;
+                        break;
+                    }
+                    if (REVERSE_HEX[secondByte] == -1)
+                    {
+                        LOG.error("Invalid hex, int: " + secondByte + " char: " + (char)secondByte);
+                    }
+                    value += REVERSE_HEX[secondByte];
+                    buffer[length++] = (byte) value;
+                }
+                setChunk(buffer, length);
+                return length > 0;
+            }
+        };
+    }
+
     // whitespace
     //   0  0x00  Null (NUL)
     //   9  0x09  Tab (HT)
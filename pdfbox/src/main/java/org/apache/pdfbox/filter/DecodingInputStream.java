@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.filter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base class of the streams returned by {@link Filter#createDecodingInputStream}, which decode the encoded data while
+ * it is read. The data is decoded chunk by chunk, so that only a small part of it is held in memory.
+ *
+ * {@link #available()} decodes the next chunk if necessary and returns 0 only at the end of the data, as decoders
+ * reading from a chained stream rely on it.
+ */
+abstract class DecodingInputStream extends FilterInputStream
+{
+    private byte[] chunk;
+    private int position;
+    private int limit;
+    private boolean endOfData;
+
+    /**
+     * Constructor.
+     *
+     * @param encoded the encoded stream, which is closed when this stream is closed
+     */
+    DecodingInputStream(InputStream encoded)
+    {
+        super(encoded);
+    }
+
+    /**
+     * Decodes the next chunk of data and passes it to {@link #setChunk(byte[], int)}.
+     *
+     * @return false if the end of the data is reached
+     * @throws IOException if the data can't be decoded
+     */
+    protected abstract boolean decodeChunk() throws IOException;
+
+    /**
+     * Sets the decoded chunk to be read next. The array isn't copied and may be reused for the next chunk.
+     *
+     * @param data the decoded data
+     * @param length the number of decoded bytes
+     */
+    protected final void setChunk(byte[] data, int length)
+    {
+        chunk = data;
+        position = 0;
+        limit = length;
+    }
+
+    private boolean ensureData() throws IOException
+    {
+        while (position == limit)
+        {
+            if (endOfData || !decodeChunk())
+            {
+                endOfData = true;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return ensureData() ? chunk[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        if (!ensureData())
+        {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(chunk, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long skipped = 0;
+        while (skipped < n && ensureData())
+        {
+            int count = (int) Math.min(n - skipped, limit - position);
+            position += count;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return ensureData() ? limit - position : 0;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit)
+    {
+        // not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException
+    {
+        throw new IOException("mark/reset not supported");
+    }
+}
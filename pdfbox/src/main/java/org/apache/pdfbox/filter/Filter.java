@@ -87,6 +87,25 @@ public abstract class Filter
         return decode(encoded, decoded, parameters, index);
     }
 
+    /**
+     * Returns a stream which decodes the given encoded stream while it is read, so that the decoded data doesn't have
+     * to be held in memory. Filters which need all of the encoded data at once, e.g. the image filters, return null
+     * and have to be applied using
+     * {@link #decode(InputStream, OutputStream, COSDictionary, int, DecodeOptions)}.
+     *
+     * @param encoded the encoded byte stream, which is closed when the returned stream is closed
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @param options additional options for decoding
+     * @return the decoding stream, or null if the filter can't decode the data while it is read
+     * @throws IOException if the stream cannot be decoded
+     */
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index, DecodeOptions options) throws IOException
+    {
+        return null;
+    }
+
     /**
      * Encodes data.
      * @param input the byte stream to encode
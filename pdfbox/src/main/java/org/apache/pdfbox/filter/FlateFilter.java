@@ -60,6 +60,14 @@ final class FlateFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index, DecodeOptions options) throws IOException
+    {
+        return Predictor.wrapPredictor(new FlateInputStream(encoded),
+                getDecodeParams(parameters, index));
+    }
+
     // Use Inflater instead of InflateInputStream to avoid an EOFException due to a probably
     // missing Z_STREAM_END, see PDFBOX-1232 for details
     private void decompress(InputStream in, OutputStream out) throws IOException, DataFormatException 
@@ -143,4 +151,102 @@ final class FlateFilter extends Filter
         encoded.flush();
         deflater.end();
     }
+
+    /**
+     * Input stream inflating the data while it is read, the counterpart of
+     * {@link #decompress(InputStream, OutputStream)} with the same handling of corrupt streams.
+     */
+    private static final class FlateInputStream extends DecodingInputStream
+    {
+        private final byte[] buf = new byte[2048];
+        private final byte[] res = new byte[BUFFER_SIZE];
+        private Inflater inflater;
+        private boolean started = false;
+        private boolean dataWritten = false;
+
+        FlateInputStream(InputStream encoded)
+        {
+            super(encoded);
+        }
+
+        @Override
+        protected boolean decodeChunk() throws IOException
+        {
+            if (!started)
+            {
+                started = true;
+                // skip zlib header
+                in.read();
+                in.read();
+                int read = in.read(buf);
+                if (read <= 0)
+                {
+                    return false;
+                }
+                // use nowrap mode to bypass zlib-header and checksum to avoid a DataFormatException
+                inflater = new Inflater(true);
+                inflater.setInput(buf, 0, read);
+            }
+            if (inflater == null)
+            {
+                return false;
+            }
+            while (true)
+            {
+                int resRead;
+                try
+                {
+                    resRead = inflater.inflate(res);
+                }
+                catch (DataFormatException exception)
+                {
+                    if (dataWritten)
+                    {
+                        // some data could be read -> don't throw an exception
+                        LOG.warn("FlateFilter: premature end of stream due to a DataFormatException");
+                        end();
+                        return false;
+                    }
+                    // nothing could be read -> re-throw exception
+                    LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
+                    end();
+                    throw new IOException(exception);
+                }
+                if (resRead != 0)
+                {
+                    setChunk(res, resRead);
+                    dataWritten = true;
+                    return true;
+                }
+                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0)
+                {
+                    end();
+                    return false;
+                }
+                int read = in.read(buf);
+                if (read == -1)
+                {
+                    end();
+                    return false;
+                }
+                inflater.setInput(buf, 0, read);
+            }
+        }
+
+        private void end()
+        {
+            if (inflater != null)
+            {
+                inflater.end();
+                inflater = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            end();
+            super.close();
+        }
+    }
 }
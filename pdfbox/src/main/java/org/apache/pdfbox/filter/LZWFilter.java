@@ -77,6 +77,21 @@ public class LZWFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index, DecodeOptions options) throws IOException
+    {
+        COSDictionary decodeParams = getDecodeParams(parameters, index);
+        int earlyChange = decodeParams.getInt(COSName.EARLY_CHANGE, 1);
+
+        if (earlyChange != 0 && earlyChange != 1)
+        {
+            earlyChange = 1;
+        }
+
+        return Predictor.wrapPredictor(new LZWInputStream(encoded, earlyChange), decodeParams);
+    }
+
     private void doLZWDecode(InputStream encoded, OutputStream decoded, int earlyChange) throws IOException
     {
         List<byte[]> codeTable = new ArrayList<>();
@@ -133,7 +148,7 @@ public class LZWFilter extends Filter
         decoded.flush();
     }
 
-    private void checkIndexBounds(List<byte[]> codeTable, long index, MemoryCacheImageInputStream in)
+    private static void checkIndexBounds(List<byte[]> codeTable, long index, MemoryCacheImageInputStream in)
             throws IOException
     {
         if (index < 0)
@@ -267,7 +282,7 @@ public class LZWFilter extends Filter
      * Init the code table with 1 byte entries and the EOD and CLEAR_TABLE
      * markers.
      */
-    private List<byte[]> createCodeTable()
+    private static List<byte[]> createCodeTable()
     {
         List<byte[]> codeTable = new ArrayList<>(4096);
         for (int i = 0; i < 256; ++i)
@@ -287,7 +302,7 @@ public class LZWFilter extends Filter
      *
      * @return a value between 9 and 12
      */
-    private int calculateChunk(int tabSize, int earlyChange)
+    private static int calculateChunk(int tabSize, int earlyChange)
     {
         if (tabSize >= 2048 - earlyChange)
         {
@@ -303,4 +318,95 @@ public class LZWFilter extends Filter
         }
         return 9;
     }
+
+    /**
+     * Input stream decoding the data while it is read, the counterpart of
+     * {@link #doLZWDecode(InputStream, OutputStream, int)}.
+     */
+    private static final class LZWInputStream extends DecodingInputStream
+    {
+        // discard the cached encoded data after this number of codes
+        private static final int FLUSH_INTERVAL = 4096;
+
+        private final MemoryCacheImageInputStream imageInput;
+        private final int earlyChange;
+        private List<byte[]> codeTable = new ArrayList<>();
+        private int chunk = 9;
+        private long prevCommand = -1;
+        private int codesSinceFlush = 0;
+
+        LZWInputStream(InputStream encoded, int earlyChange)
+        {
+            super(encoded);
+            this.imageInput = new MemoryCacheImageInputStream(encoded);
+            this.earlyChange = earlyChange;
+        }
+
+        @Override
+        protected boolean decodeChunk() throws IOException
+        {
+            while (true)
+            {
+                long nextCommand;
+                try
+                {
+                    nextCommand = imageInput.readBits(chunk);
+                }
+                catch (EOFException ex)
+                {
+                    LOG.warn("Premature EOF in LZW stream, EOD code missing", ex);
+                    return false;
+                }
+                if (nextCommand == EOD)
+                {
+                    return false;
+                }
+                if (++codesSinceFlush == FLUSH_INTERVAL)
+                {
+                    imageInput.flushBefore(imageInput.getStreamPosition());
+                    codesSinceFlush = 0;
+                }
+                if (nextCommand == CLEAR_TABLE)
+                {
+                    chunk = 9;
+                    codeTable = createCodeTable();
+                    prevCommand = -1;
+                    continue;
+                }
+                byte[] data;
+                if (nextCommand < codeTable.size())
+                {
+                    data = codeTable.get((int) nextCommand);
+                    byte firstByte = data[0];
+                    if (prevCommand != -1)
+                    {
+                        checkIndexBounds(codeTable, prevCommand, imageInput);
+                        byte[] prevData = codeTable.get((int) prevCommand);
+                        byte[] newData = Arrays.copyOf(prevData, prevData.length + 1);
+                        newData[prevData.length] = firstByte;
+                        codeTable.add(newData);
+                    }
+                }
+                else
+                {
+                    checkIndexBounds(codeTable, prevCommand, imageInput);
+                    byte[] prevData = codeTable.get((int) prevCommand);
+                    data = Arrays.copyOf(prevData, prevData.length + 1);
+                    data[prevData.length] = prevData[0];
+                    codeTable.add(data);
+                }
+                chunk = calculateChunk(codeTable.size(), earlyChange);
+                prevCommand = nextCommand;
+                setChunk(data, data.length);
+                return true;
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            imageInput.close();
+            super.close();
+        }
+    }
 }
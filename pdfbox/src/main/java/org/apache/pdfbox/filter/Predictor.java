@@ -17,6 +17,7 @@ package org.apache.pdfbox.filter;
 
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 
@@ -249,6 +250,107 @@ public final class Predictor
         }
     }
 
+    /**
+     * Wraps an <code>InputStream</code> in a predictor decoding stream as necessary.
+     * If no predictor is specified by the parameters, the original stream is returned as is.
+     *
+     * @param in The stream from which the data to be decoded is read
+     * @param decodeParams Decode parameters for the stream
+     * @return An <code>InputStream</code> is returned, which will read decoded data
+     * from the given stream. If no predictor is specified, the original stream is returned.
+     */
+    static InputStream wrapPredictor(InputStream in, COSDictionary decodeParams)
+    {
+        int predictor = decodeParams.getInt(COSName.PREDICTOR);
+        if (predictor > 1)
+        {
+            int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
+            int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
+            int columns = decodeParams.getInt(COSName.COLUMNS, 1);
+
+            return new PredictorInputStream(in, predictor, colors, bitsPerPixel, columns);
+        }
+        else
+        {
+            return in;
+        }
+    }
+
+    /**
+     * Input stream that implements predictor decoding, the counterpart of
+     * {@link PredictorOutputStream}. Data is read row by row, each row is decoded
+     * using the previous row.
+     */
+    private static final class PredictorInputStream extends DecodingInputStream
+    {
+        // current predictor type
+        private int predictor;
+        // image decode parameters
+        private final int colors;
+        private final int bitsPerComponent;
+        private final int columns;
+        private final int rowLength;
+        // PNG predictor (predictor>=10) means every row has a (potentially different)
+        // predictor value
+        private final boolean predictorPerRow;
+
+        // data buffers
+        private byte[] currentRow;
+        private byte[] lastRow;
+
+        PredictorInputStream(InputStream in, int predictor, int colors, int bitsPerComponent, int columns)
+        {
+            super(in);
+            this.predictor = predictor;
+            this.colors = colors;
+            this.bitsPerComponent = bitsPerComponent;
+            this.columns = columns;
+            this.rowLength = calculateRowLength(colors, bitsPerComponent, columns);
+            this.predictorPerRow = predictor >= 10;
+            currentRow = new byte[rowLength];
+            lastRow = new byte[rowLength];
+        }
+
+        @Override
+        protected boolean decodeChunk() throws IOException
+        {
+            if (predictorPerRow)
+            {
+                // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
+                // read per line predictor, add 10 to tread value 0 as 10, 1 as 11, ...
+                int rowPredictor = in.read();
+                if (rowPredictor == -1)
+                {
+                    return false;
+                }
+                predictor = (byte) rowPredictor + 10;
+            }
+            int currentRowData = 0;
+            while (currentRowData < rowLength)
+            {
+                int read = in.read(currentRow, currentRowData, rowLength - currentRowData);
+                if (read == -1)
+                {
+                    break;
+                }
+                currentRowData += read;
+            }
+            if (currentRowData == 0)
+            {
+                return false;
+            }
+            // The last row is allowed to be incomplete, and should be completed with zeros.
+            Arrays.fill(currentRow, currentRowData, rowLength, (byte) 0);
+            decodePredictorRow(predictor, colors, bitsPerComponent, columns, currentRow, lastRow);
+            // flip the row buffers to avoid copying
+            byte[] temp = lastRow;
+            lastRow = currentRow;
+            currentRow = temp;
+            setChunk(lastRow, rowLength);
+            return true;
+        }
+    }
+
     /**
      * Output stream that implements predictor decoding. Data is buffered until a complete
      * row is available, which is then decoded and written to the underlying stream.
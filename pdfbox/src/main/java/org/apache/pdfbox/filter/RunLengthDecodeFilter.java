@@ -19,6 +19,7 @@ package org.apache.pdfbox.filter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 import org.apache.pdfbox.cos.COSDictionary;
 
@@ -74,6 +75,56 @@ final class RunLengthDecodeFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index, DecodeOptions options) throws IOException
+    {
+        return new DecodingInputStream(encoded)
+        {
+            private final byte[] buffer = new byte[128];
+
+            @Override
+            protected boolean decodeChunk() throws IOException
+            {
+                // each run is a chunk
+                int dupAmount = in.read();
+                if (dupAmount == -1 || dupAmount == RUN_LENGTH_EOD)
+                {
+                    return false;
+                }
+                if (dupAmount <= 127)
+                {
+                    int amountToCopy = dupAmount + 1;
+                    int length = 0;
+                    while (length < amountToCopy)
+                    {
+                        int compressedRead = in.read(buffer, length, amountToCopy - length);
+                        // EOF reached?
+                        if (compressedRead == -1)
+                        {
+                            break;
+                        }
+                        length += compressedRead;
+                    }
+                    setChunk(buffer, length);
+                }
+                else
+                {
+                    int dupByte = in.read();
+                    // EOF reached?
+                    if (dupByte == -1)
+                    {
+                        return false;
+                    }
+                    int length = 257 - dupAmount;
+                    Arrays.fill(buffer, 0, length, (byte) dupByte);
+                    setChunk(buffer, length);
+                }
+                return true;
+            }
+        };
+    }
+
     @Override
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
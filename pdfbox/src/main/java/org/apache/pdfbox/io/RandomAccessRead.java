@@ -157,4 +157,15 @@ public interface RandomAccessRead extends Closeable
      * 
      */
     RandomAccessReadView createView(long startPosition, long streamLength) throws IOException;
+
+    /**
+     * Tells whether {@link #createView(long, long)} may be called by several threads at the same time and returns
+     * cheap views, which don't copy the data and can be read independently of this instance and of each other.
+     * 
+     * @return true if views can be created and read concurrently
+     */
+    default boolean isConcurrentViewSupported()
+    {
+        return false;
+    }
 }
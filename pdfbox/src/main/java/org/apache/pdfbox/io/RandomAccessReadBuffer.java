@@ -365,4 +365,10 @@ public class RandomAccessReadBuffer implements RandomAccessRead
                 streamLength, true);
     }
 
+    @Override
+    public boolean isConcurrentViewSupported()
+    {
+        return true;
+    }
+
 }
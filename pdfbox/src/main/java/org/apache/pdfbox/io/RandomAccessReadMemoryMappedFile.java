@@ -22,18 +22,26 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
 import java.util.EnumSet;
-import java.util.Optional;
-import java.util.function.Consumer;
 
 /**
- * An implementation of the RandomAccess interface backed by a memory mapped file channel. The whole file is mapped to
- * memory and the max size is limited to Integer.MAX_VALUE.
+ * An implementation of the RandomAccess interface backed by a memory mapped file channel. The file is mapped to memory
+ * in segments of a configurable size, so that files bigger than Integer.MAX_VALUE are supported as well.
+ * 
+ * Views created by {@link #createView(long, long)} share the mapped segments of the parent. All segments are unmapped
+ * when the parent is closed, afterwards the views are considered to be closed as well.
  */
 public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
 {
+    /**
+     * Default size of a single mapped segment (1 GiB).
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    // the mapped segments, all but the last one have the size segmentSize
+    private ByteBuffer[] segments;
 
-    // mapped byte buffer
-    private ByteBuffer mappedByteBuffer;
+    // size of a single segment
+    private final int segmentSize;
 
     // size of the whole file
     private final long size;
@@ -41,8 +49,15 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     // file channel of the file to be read
     private FileChannel fileChannel;
 
-    // function to unmap the byte buffer
-    private Consumer<? super ByteBuffer> unmapper = IOUtils::unmap;
+    // the instance owning the mapped segments, null if this is the owner itself
+    private final RandomAccessReadMemoryMappedFile parent;
+
+    // current position within the file
+    private long position = 0;
+
+    // the current segment and its start position within the file
+    private ByteBuffer currentSegment;
+    private long currentSegmentStart = -1;
 
     /**
      * Default constructor.
@@ -57,26 +72,56 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
      */
     public RandomAccessReadMemoryMappedFile(File file) throws IOException
     {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructor using the given segment size.
+     * 
+     * @param file the file to be read
+     * @param segmentSize the size of a single mapped segment
+     * @throws IOException if the file could not be opened or mapped
+     */
+    public RandomAccessReadMemoryMappedFile(File file, int segmentSize) throws IOException
+    {
+        if (segmentSize <= 0)
+        {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.parent = null;
         fileChannel = FileChannel.open(file.toPath(), EnumSet.of(StandardOpenOption.READ));
         size = fileChannel.size();
-        // TODO only ints are allowed -> implement paging
-        if (size > Integer.MAX_VALUE)
+        int numberOfSegments = (int) ((size + segmentSize - 1) / segmentSize);
+        segments = new ByteBuffer[numberOfSegments];
+        try
         {
-            throw new IOException(getClass().getName()
-                    + " doesn't yet support files bigger than "
-                    + Integer.MAX_VALUE);
+            for (int i = 0; i < numberOfSegments; i++)
+            {
+                long segmentStart = (long) i * segmentSize;
+                segments[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                        Math.min(segmentSize, size - segmentStart));
+            }
+        }
+        catch (IOException e)
+        {
+            close();
+            throw e;
         }
-        // map the whole file to memory
-        mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
     }
 
     private RandomAccessReadMemoryMappedFile(RandomAccessReadMemoryMappedFile parent)
     {
-        mappedByteBuffer = parent.mappedByteBuffer.duplicate();
+        this.parent = parent;
+        segmentSize = parent.segmentSize;
         size = parent.size;
-        mappedByteBuffer.rewind();
         // unmap doesn't work on duplicate, see Unsafe#invokeCleaner
-        unmapper = null;
+        // the segments are unmapped when the parent is closed
+        segments = new ByteBuffer[parent.segments.length];
+        for (int i = 0; i < segments.length; i++)
+        {
+            segments[i] = parent.segments[i].duplicate();
+        }
     }
 
     /**
@@ -85,12 +130,28 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     @Override
     public void close() throws IOException
     {
+        if (segments == null)
+        {
+            return;
+        }
         if (fileChannel != null)
         {
             fileChannel.close();
+            fileChannel = null;
+        }
+        if (parent == null)
+        {
+            for (ByteBuffer segment : segments)
+            {
+                if (segment != null)
+                {
+                    IOUtils.unmap(segment);
+                }
+            }
         }
-        Optional.ofNullable(unmapper).ifPresent(u -> u.accept(mappedByteBuffer));
-        mappedByteBuffer = null;
+        segments = null;
+        currentSegment = null;
+        currentSegmentStart = -1;
     }
 
     /**
@@ -106,7 +167,7 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
         }
         // it is allowed to jump beyond the end of the file
         // jump to the end of the reader
-        mappedByteBuffer.position((int) Math.min(position, size));
+        this.position = Math.min(position, size);
     }
 
     /**
@@ -116,7 +177,7 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     public long getPosition() throws IOException
     {
        checkClosed();
-       return mappedByteBuffer.position();
+       return position;
     }
     
     /**
@@ -129,7 +190,10 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
         {
             return -1;
         }
-        return mappedByteBuffer.get() & 0xff;
+        ByteBuffer segment = selectSegment();
+        int value = segment.get((int) (position - currentSegmentStart)) & 0xff;
+        position++;
+        return value;
     }
 
     /**
@@ -142,9 +206,37 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
         {
             return -1;
         }
-        int remainingBytes = (int)size - mappedByteBuffer.position();
-        mappedByteBuffer.get(b, offset, Math.min(remainingBytes, length));
-        return Math.min(remainingBytes, length);
+        int bytesToRead = (int) Math.min(size - position, length);
+        int bytesRead = 0;
+        while (bytesRead < bytesToRead)
+        {
+            ByteBuffer segment = selectSegment();
+            int offsetWithinSegment = (int) (position - currentSegmentStart);
+            int chunkLength = Math.min(segment.limit() - offsetWithinSegment,
+                    bytesToRead - bytesRead);
+            segment.position(offsetWithinSegment);
+            segment.get(b, offset + bytesRead, chunkLength);
+            bytesRead += chunkLength;
+            position += chunkLength;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * Select the segment containing the current position.
+     * 
+     * @return the segment containing the current position
+     */
+    private ByteBuffer selectSegment()
+    {
+        if (currentSegment == null || position < currentSegmentStart
+                || position >= currentSegmentStart + currentSegment.limit())
+        {
+            int index = (int) (position / segmentSize);
+            currentSegment = segments[index];
+            currentSegmentStart = (long) index * segmentSize;
+        }
+        return currentSegment;
     }
 
     /**
@@ -176,7 +268,7 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     @Override
     public boolean isClosed()
     {
-        return mappedByteBuffer == null;
+        return segments == null || (parent != null && parent.isClosed());
     }
 
     /**
@@ -186,13 +278,20 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     public boolean isEOF() throws IOException
     {
         checkClosed();
-        return mappedByteBuffer.position() >= size;
+        return position >= size;
+    }
+
+    @Override
+    public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(new RandomAccessReadMemoryMappedFile(
+                parent != null ? parent : this), startPosition, streamLength, true);
     }
 
     @Override
-    public RandomAccessReadView createView(long startPosition, long streamLength)
+    public boolean isConcurrentViewSupported()
     {
-        return new RandomAccessReadView(new RandomAccessReadMemoryMappedFile(this), startPosition,
-                streamLength, true);
+        return true;
     }
 }
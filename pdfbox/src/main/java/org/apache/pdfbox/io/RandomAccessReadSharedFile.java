@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Provides random access to a file which can be shared between several threads.
+ *
+ * The file is read via positional reads of a {@link FileChannel}, so that there is no shared file pointer. The read
+ * pages are kept in a page cache which is split into several independently locked stripes. Each instance keeps its own
+ * position, so that a single instance must not be used by several threads at the same time, but each thread can use its
+ * own view created by {@link #createView(long, long)} or {@link #createIndependentCopy()}. Those views share the file
+ * channel and the page cache of this instance and don't block each other.
+ *
+ * Closing this instance closes the underlying file channel, all views are closed as well.
+ */
+public class RandomAccessReadSharedFile implements RandomAccessRead
+{
+    private static final int PAGE_SIZE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SIZE_SHIFT;
+    private static final int NUMBER_OF_STRIPES = 16;
+
+    /**
+     * Default number of pages which are held in the page cache.
+     */
+    public static final int DEFAULT_MAX_CACHED_PAGES = 1024;
+
+    private final SharedFile sharedFile;
+    private final boolean isOwner;
+
+    private long curPageIndex = -1;
+    private byte[] curPage;
+    private long fileOffset = 0;
+    private boolean isClosed;
+
+    /**
+     * Create a shared random access file instance for the file with the given name.
+     *
+     * @param filename the filename of the file to be read.
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadSharedFile(String filename) throws IOException
+    {
+        this(new File(filename));
+    }
+
+    /**
+     * Create a shared random access file instance for the given file.
+     *
+     * @param file the file to be read.
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadSharedFile(File file) throws IOException
+    {
+        this(file, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    /**
+     * Create a shared random access file instance for the given file.
+     *
+     * @param file the file to be read.
+     * @param maxCachedPages the maximum number of pages of 4096 bytes held in the page cache.
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadSharedFile(File file, int maxCachedPages) throws IOException
+    {
+        if (maxCachedPages < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of cached pages " + maxCachedPages);
+        }
+        sharedFile = new SharedFile(
+                FileChannel.open(file.toPath(), StandardOpenOption.READ), maxCachedPages);
+        isOwner = true;
+    }
+
+    private RandomAccessReadSharedFile(SharedFile sharedFile)
+    {
+        this.sharedFile = sharedFile;
+        isOwner = false;
+    }
+
+    /**
+     * Creates an independent copy of this instance sharing the file channel and the page cache. The copy has its own
+     * position and may be used by another thread. Closing the copy doesn't close the underlying file.
+     *
+     * @return the independent copy
+     * @throws IOException if this instance is already closed
+     */
+    public RandomAccessReadSharedFile createIndependentCopy() throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadSharedFile(sharedFile);
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return fileOffset;
+    }
+
+    @Override
+    public void seek(final long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        fileOffset = Math.min(position, sharedFile.fileLength);
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (fileOffset >= sharedFile.fileLength)
+        {
+            return -1;
+        }
+        byte[] page = selectPage();
+        return page[(int) (fileOffset++ - (curPageIndex << PAGE_SIZE_SHIFT))] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        checkClosed();
+        if (fileOffset >= sharedFile.fileLength)
+        {
+            return -1;
+        }
+        byte[] page = selectPage();
+        int offsetWithinPage = (int) (fileOffset - (curPageIndex << PAGE_SIZE_SHIFT));
+        int commonLen = Math.min(PAGE_SIZE - offsetWithinPage, len);
+        commonLen = (int) Math.min(commonLen, sharedFile.fileLength - fileOffset);
+        System.arraycopy(page, offsetWithinPage, b, off, commonLen);
+        fileOffset += commonLen;
+        return commonLen;
+    }
+
+    /**
+     * Returns the page containing the current position. The page is taken from the shared cache or read from the file.
+     */
+    private byte[] selectPage() throws IOException
+    {
+        long pageIndex = fileOffset >> PAGE_SIZE_SHIFT;
+        if (pageIndex != curPageIndex)
+        {
+            curPage = sharedFile.getPage(pageIndex);
+            curPageIndex = pageIndex;
+        }
+        return curPage;
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return sharedFile.fileLength;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (isOwner && !isClosed)
+        {
+            sharedFile.close();
+        }
+        curPage = null;
+        isClosed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed || sharedFile.isClosed;
+    }
+
+    /**
+     * Ensure that the RandomAccessReadSharedFile is not closed
+     *
+     * @throws IOException
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException(getClass().getName() + " already closed");
+        }
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return fileOffset >= sharedFile.fileLength;
+    }
+
+    @Override
+    public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException
+    {
+        return new RandomAccessReadView(createIndependentCopy(), startPosition, streamLength,
+                true);
+    }
+
+    @Override
+    public boolean isConcurrentViewSupported()
+    {
+        return true;
+    }
+
+    /**
+     * The state shared between all instances reading the same file.
+     */
+    private static final class SharedFile
+    {
+        private final FileChannel fileChannel;
+        private final long fileLength;
+        private final Map<Long, byte[]>[] stripes;
+        private volatile boolean isClosed;
+
+        @SuppressWarnings("unchecked")
+        SharedFile(FileChannel fileChannel, int maxCachedPages) throws IOException
+        {
+            this.fileChannel = fileChannel;
+            fileLength = fileChannel.size();
+            final int maxPagesPerStripe = Math.max(1, maxCachedPages / NUMBER_OF_STRIPES);
+            stripes = new Map[NUMBER_OF_STRIPES];
+            for (int i = 0; i < NUMBER_OF_STRIPES; i++)
+            {
+                // LRU cache of a single stripe
+                stripes[i] = new LinkedHashMap<Long, byte[]>(maxPagesPerStripe, 0.75f, true)
+                {
+                    private static final long serialVersionUID = 4012475227431578367L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest)
+                    {
+                        return size() > maxPagesPerStripe;
+                    }
+                };
+            }
+        }
+
+        byte[] getPage(long pageIndex) throws IOException
+        {
+            Map<Long, byte[]> stripe = stripes[(int) (pageIndex & (NUMBER_OF_STRIPES - 1))];
+            byte[] page;
+            synchronized (stripe)
+            {
+                page = stripe.get(pageIndex);
+            }
+            if (page != null)
+            {
+                return page;
+            }
+            // read the page without holding the lock, a concurrent read of the same page is harmless
+            page = new byte[PAGE_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(page);
+            long pageOffset = pageIndex << PAGE_SIZE_SHIFT;
+            while (buffer.hasRemaining())
+            {
+                int curBytesRead = fileChannel.read(buffer, pageOffset + buffer.position());
+                if (curBytesRead < 0)
+                {
+                    // EOF
+                    break;
+                }
+            }
+            synchronized (stripe)
+            {
+                byte[] cachedPage = stripe.putIfAbsent(pageIndex, page);
+                return cachedPage != null ? cachedPage : page;
+            }
+        }
+
+        void close() throws IOException
+        {
+            isClosed = true;
+            fileChannel.close();
+            for (Map<Long, byte[]> stripe : stripes)
+            {
+                synchronized (stripe)
+                {
+                    stripe.clear();
+                }
+            }
+        }
+    }
+}
@@ -23,6 +23,8 @@ import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
@@ -53,6 +55,8 @@ public abstract class BaseParser
 
     static final int MAX_LENGTH_LONG = Long.toString(Long.MAX_VALUE).length();
 
+    private static final int MAX_LENGTH_INT = Integer.toString(Integer.MAX_VALUE).length();
+
     private final CharsetDecoder utf8Decoder = StandardCharsets.UTF_8.newDecoder();
 
     /**
@@ -114,6 +118,17 @@ public abstract class BaseParser
     private static final byte ASCII_ZERO = 48;
     private static final byte ASCII_NINE = 57;
     private static final byte ASCII_SPACE = 32;
+
+    // maximum number of digits of an integer which can't overflow a long
+    private static final int MAX_SAFE_LONG_DIGITS = MAX_LENGTH_LONG - 1;
+
+    // lookup table of parsed names indexed by the hash of their bytes, so that the bytes of
+    // frequently used names don't have to be decoded to a string again
+    private static final int NAME_TABLE_SIZE = 4096;
+    private static final NameTableEntry[] NAME_TABLE = new NameTableEntry[NAME_TABLE_SIZE];
+
+    // buffer for the bytes of the number or name currently being read
+    private byte[] tokenBuffer = new byte[32];
     
     /**
      * This is the stream that will be read from.
@@ -696,7 +711,7 @@ public abstract class BaseParser
     protected COSName parseCOSName() throws IOException
     {
         readExpectedChar('/');
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int length = 0;
         int c = source.read();
         while (c != -1)
         {
@@ -713,15 +728,8 @@ public abstract class BaseParser
                 // valid hex digits.
                 if (isHexDigit((char)ch1) && isHexDigit((char)ch2))
                 {
-                    String hex = Character.toString((char) ch1) + (char) ch2;
-                    try
-                    {
-                        buffer.write(Integer.parseInt(hex, 16));
-                    }
-                    catch (NumberFormatException e)
-                    {
-                        throw new IOException("Error: expected hex digit, actual='" + hex + "'", e);
-                    }
+                    length = appendToToken(length,
+                            Character.digit(ch1, 16) * 16 + Character.digit(ch2, 16));
                     c = source.read();
                 }
                 else
@@ -735,7 +743,7 @@ public abstract class BaseParser
                     }
                     source.rewind(1);
                     c = ch1;
-                    buffer.write(ch);
+                    length = appendToToken(length, ch);
                 }
             }
             else if (isEndOfName(ch))
@@ -744,7 +752,7 @@ public abstract class BaseParser
             }
             else
             {
-                buffer.write(ch);
+                length = appendToToken(length, ch);
                 c = source.read();
             }
         }
@@ -752,19 +760,41 @@ public abstract class BaseParser
         {
             source.rewind(1);
         }
-        
-        byte[] bytes = buffer.toByteArray();
+        return getCOSName(tokenBuffer, length);
+    }
+
+    /**
+     * Returns the name with the given bytes, using the name table to avoid decoding the bytes if
+     * the name was parsed before.
+     */
+    private COSName getCOSName(byte[] bytes, int length)
+    {
+        int hash = 1;
+        for (int i = 0; i < length; i++)
+        {
+            hash = 31 * hash + bytes[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & (NAME_TABLE_SIZE - 1);
+        NameTableEntry entry = NAME_TABLE[index];
+        if (entry != null && entry.matches(bytes, length))
+        {
+            return entry.name;
+        }
+        byte[] nameBytes = Arrays.copyOf(bytes, length);
         String string;
-        if (isValidUTF8(bytes))
+        if (isValidUTF8(nameBytes))
         {
-            string = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+            string = new String(nameBytes, StandardCharsets.UTF_8);
         }
         else
         {
             // some malformed PDFs don't use UTF-8 see PDFBOX-3347
-            string = new String(buffer.toByteArray(), Charset.forName("Windows-1252"));
+            string = new String(nameBytes, Charset.forName("Windows-1252"));
         }
-        return COSName.getPDFName(string);
+        COSName name = COSName.getPDFName(string);
+        // entries are immutable, thus they can be shared by several threads without locking
+        NAME_TABLE[index] = new NameTableEntry(nameBytes, name);
+        return name;
     }
 
     /**
@@ -874,20 +904,63 @@ public abstract class BaseParser
 
     private COSNumber parseCOSNumber() throws IOException
     {
-        StringBuilder buf = new StringBuilder();
-        int ic = source.read();
-        char c = (char) ic;
-        while (Character.isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'E' || c == 'e')
+        int length = 0;
+        int c = source.read();
+        while (isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'E' || c == 'e')
         {
-            buf.append(c);
-            ic = source.read();
-            c = (char) ic;
+            length = appendToToken(length, c);
+            c = source.read();
         }
-        if (ic != -1)
+        if (c != -1)
         {
             source.rewind(1);
         }
-        return COSNumber.get(buf.toString());
+        return getCOSNumber(length);
+    }
+
+    /**
+     * Appends a byte to the token buffer which is used to read numbers and names without creating
+     * intermediate strings.
+     *
+     * @param length the current length of the token
+     * @param b the byte to be appended
+     * @return the new length of the token
+     */
+    protected final int appendToToken(int length, int b)
+    {
+        if (length == tokenBuffer.length)
+        {
+            tokenBuffer = Arrays.copyOf(tokenBuffer, length * 2);
+        }
+        tokenBuffer[length] = (byte) b;
+        return length + 1;
+    }
+
+    /**
+     * Returns the number of the token buffer. Integers are parsed directly from the bytes, other
+     * numbers are parsed by {@link COSNumber#get(String)}.
+     *
+     * @param length the length of the token
+     * @return the parsed number
+     * @throws IOException if the token isn't a number
+     */
+    protected final COSNumber getCOSNumber(int length) throws IOException
+    {
+        int start = length > 0 && (tokenBuffer[0] == '-' || tokenBuffer[0] == '+') ? 1 : 0;
+        if (length > start && length - start <= MAX_SAFE_LONG_DIGITS)
+        {
+            long value = 0;
+            int i = start;
+            while (i < length && isDigit(tokenBuffer[i]))
+            {
+                value = value * 10 + tokenBuffer[i++] - '0';
+            }
+            if (i == length)
+            {
+                return COSInteger.get(tokenBuffer[0] == '-' ? -value : value);
+            }
+        }
+        return COSNumber.get(new String(tokenBuffer, 0, length, StandardCharsets.ISO_8859_1));
     }
 
     /**
@@ -1235,22 +1308,23 @@ public abstract class BaseParser
     protected int readInt() throws IOException
     {
         skipSpaces();
-        int retval = 0;
-
-        StringBuilder intBuffer = readStringNumber();
-
+        int length = readDigits();
+        if (length > 0 && length < MAX_LENGTH_INT)
+        {
+            return (int) parseDigits(length);
+        }
+        String intString = new String(tokenBuffer, 0, length, StandardCharsets.ISO_8859_1);
         try
         {
-            retval = Integer.parseInt( intBuffer.toString() );
+            return Integer.parseInt(intString);
         }
         catch( NumberFormatException e )
         {
-            source.rewind(intBuffer.toString().getBytes(StandardCharsets.ISO_8859_1).length);
+            source.rewind(length);
             throw new IOException("Error: Expected an integer type at offset " +
                     source.getPosition() +
-                                  ", instead got '" + intBuffer + "'", e);
+                                  ", instead got '" + intString + "'", e);
         }
-        return retval;
     }
     
 
@@ -1264,21 +1338,61 @@ public abstract class BaseParser
     protected long readLong() throws IOException
     {
         skipSpaces();
-        long retval = 0;
-
-        StringBuilder longBuffer = readStringNumber();
-
+        int length = readDigits();
+        if (length > 0 && length <= MAX_SAFE_LONG_DIGITS)
+        {
+            return parseDigits(length);
+        }
+        String longString = new String(tokenBuffer, 0, length, StandardCharsets.ISO_8859_1);
         try
         {
-            retval = Long.parseLong( longBuffer.toString() );
+            return Long.parseLong(longString);
         }
         catch( NumberFormatException e )
         {
-            source.rewind(longBuffer.toString().getBytes(StandardCharsets.ISO_8859_1).length);
+            source.rewind(length);
             throw new IOException( "Error: Expected a long type at offset "
-                    + source.getPosition() + ", instead got '" + longBuffer + "'", e);
+                    + source.getPosition() + ", instead got '" + longString + "'", e);
         }
-        return retval;
+    }
+
+    /**
+     * Reads the digits of a number into the token buffer, like {@link #readStringNumber()}.
+     *
+     * @return the number of digits
+     */
+    private int readDigits() throws IOException
+    {
+        int lastByte;
+        int length = 0;
+        while ((lastByte = source.read()) >= '0' && lastByte <= '9')
+        {
+            length = appendToToken(length, lastByte);
+            if (length > MAX_LENGTH_LONG)
+            {
+                throw new IOException("Number '"
+                        + new String(tokenBuffer, 0, length, StandardCharsets.ISO_8859_1)
+                        + "' is getting too long, stop reading at offset " + source.getPosition());
+            }
+        }
+        if( lastByte != -1 )
+        {
+            source.rewind(1);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the value of the digits in the token buffer, which must not overflow a long.
+     */
+    private long parseDigits(int length)
+    {
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            value = value * 10 + tokenBuffer[i] - '0';
+        }
+        return value;
     }
 
     /**
@@ -1307,4 +1421,35 @@ public abstract class BaseParser
         }
         return buffer;
     }
+
+    /**
+     * An entry of the name table.
+     */
+    private static final class NameTableEntry
+    {
+        private final byte[] bytes;
+        private final COSName name;
+
+        private NameTableEntry(byte[] bytes, COSName name)
+        {
+            this.bytes = bytes;
+            this.name = name;
+        }
+
+        private boolean matches(byte[] other, int length)
+        {
+            if (bytes.length != length)
+            {
+                return false;
+            }
+            for (int i = 0; i < length; i++)
+            {
+                if (bytes[i] != other[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * Collects the positions of all markers used by the brute force search of a {@link COSParser} in a single pass over
+ * the file, so that the searches only have to check the found positions instead of reading the whole file byte by
+ * byte several times.
+ *
+ * The file is read in large blocks. If an executor is given and the source supports cheap concurrent views, the file is
+ * split into segments which are scanned in parallel using independent views of the source. The views are created on
+ * the calling thread. The segments overlap by the length of the longest marker, so that
+ * markers crossing a segment boundary are found as well.
+ */
+final class BruteForceScanner
+{
+    // size of the blocks read from the source
+    private static final int BLOCK_SIZE = 1024 * 1024;
+
+    // size of the segments scanned in parallel
+    private static final long SEGMENT_SIZE = 16L * 1024 * 1024;
+
+    private static final byte[] OBJ = { 'o', 'b', 'j' };
+    private static final byte[] ENDO = { 'e', 'n', 'd', 'o' };
+    private static final byte[] ENDOBJ = { 'e', 'n', 'd', 'o', 'b', 'j' };
+    private static final byte[] EOF = { '%', '%', 'E', 'O', 'F' };
+    private static final byte[] XREF_TABLE = { 'x', 'r', 'e', 'f' };
+    private static final byte[] XREF_STREAM = { '/', 'X', 'R', 'e', 'f' };
+    private static final byte[] OBJ_STREAM = { '/', 'O', 'b', 'j', 'S', 't', 'm' };
+    private static final byte[] TRAILER = { 't', 'r', 'a', 'i', 'l', 'e', 'r' };
+
+    // number of bytes following a position which are needed to check all markers
+    private static final int OVERLAP = 7;
+
+    private final List<Long> objectMarkers = new ArrayList<>();
+    private final List<Long> endObjectMarkers = new ArrayList<>();
+    private final List<Long> eofMarkers = new ArrayList<>();
+    private final List<Long> xrefTableMarkers = new ArrayList<>();
+    private final List<Long> xrefStreamMarkers = new ArrayList<>();
+    private final List<Long> objectStreamMarkers = new ArrayList<>();
+    private final List<Long> trailerMarkers = new ArrayList<>();
+
+    private BruteForceScanner()
+    {
+    }
+
+    /**
+     * Scans the given source from the given position up to its end.
+     *
+     * @param source the source to be scanned, its position is undefined afterwards
+     * @param start the position where the scan starts
+     * @param executor the executor used to scan segments of the source in parallel, or null to scan the whole source
+     * on the calling thread. It isn't used if the source doesn't support concurrent views.
+     * @return the found markers
+     * @throws IOException if the source could not be read
+     */
+    static BruteForceScanner scan(RandomAccessRead source, long start, Executor executor)
+            throws IOException
+    {
+        long length = source.length();
+        BruteForceScanner scanner = new BruteForceScanner();
+        if (executor == null || !source.isConcurrentViewSupported()
+                || length - start <= SEGMENT_SIZE)
+        {
+            scanner.scan(source, start, length, length);
+            return scanner;
+        }
+        List<RandomAccessRead> views = new ArrayList<>();
+        List<FutureTask<BruteForceScanner>> tasks = new ArrayList<>();
+        boolean scanned = false;
+        try
+        {
+            for (long segmentStart = start; segmentStart < length; segmentStart += SEGMENT_SIZE)
+            {
+                long segmentEnd = Math.min(segmentStart + SEGMENT_SIZE, length);
+                long viewStart = segmentStart;
+                long viewLength = Math.min(segmentEnd + OVERLAP, length) - segmentStart;
+                // the source itself is only accessed by the calling thread
+                RandomAccessRead view = source.createView(viewStart, viewLength);
+                views.add(view);
+                FutureTask<BruteForceScanner> task = new FutureTask<>(() ->
+                {
+                    BruteForceScanner segmentScanner = new BruteForceScanner();
+                    segmentScanner.scan(view, 0, segmentEnd - viewStart, length - viewStart);
+                    segmentScanner.offset(viewStart);
+                    return segmentScanner;
+                });
+                tasks.add(task);
+                executor.execute(task);
+            }
+            // merge the results in the order of the segments, so that the positions stay sorted
+            for (FutureTask<BruteForceScanner> task : tasks)
+            {
+                scanner.addAll(task.get());
+            }
+            scanned = true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Brute force search was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            if (!scanned)
+            {
+                tasks.forEach(task -> task.cancel(true));
+            }
+            for (RandomAccessRead view : views)
+            {
+                view.close();
+            }
+        }
+        return scanner;
+    }
+
+    /**
+     * Scans the markers starting in the range [start, end) of the given source.
+     *
+     * @param sourceLength the length of the file relative to the source, used to detect an "endo" marker which is cut
+     * off at the end of the file
+     */
+    private void scan(RandomAccessRead source, long start, long end, long sourceLength)
+            throws IOException
+    {
+        long available = source.length();
+        byte[] block = new byte[(int) Math.min(BLOCK_SIZE + OVERLAP, Math.max(available - start, 0))];
+        long blockStart = start;
+        while (blockStart < end)
+        {
+            int blockLength = (int) Math.min(block.length, available - blockStart);
+            source.seek(blockStart);
+            readFully(source, block, blockLength);
+            int scanLength = (int) Math.min(Math.min(BLOCK_SIZE, blockLength), end - blockStart);
+            scanBlock(block, blockLength, scanLength, blockStart, sourceLength);
+            blockStart += scanLength;
+        }
+    }
+
+    private static void readFully(RandomAccessRead source, byte[] block, int length)
+            throws IOException
+    {
+        int offset = 0;
+        while (offset < length)
+        {
+            int read = source.read(block, offset, length - offset);
+            if (read <= 0)
+            {
+                throw new IOException("Unexpected end of file at offset "
+                        + source.getPosition());
+            }
+            offset += read;
+        }
+    }
+
+    private void scanBlock(byte[] block, int blockLength, int scanLength, long blockStart,
+            long sourceLength)
+    {
+        for (int i = 0; i < scanLength; i++)
+        {
+            switch (block[i])
+            {
+            case '%':
+                add(eofMarkers, block, blockLength, i, EOF, blockStart);
+                break;
+            case 'x':
+                add(xrefTableMarkers, block, blockLength, i, XREF_TABLE, blockStart);
+                break;
+            case '/':
+                if (!add(xrefStreamMarkers, block, blockLength, i, XREF_STREAM, blockStart))
+                {
+                    add(objectStreamMarkers, block, blockLength, i, OBJ_STREAM, blockStart);
+                }
+                break;
+            case 't':
+                add(trailerMarkers, block, blockLength, i, TRAILER, blockStart);
+                break;
+            case 'e':
+                if (matches(block, blockLength, i, ENDOBJ)
+                        || blockStart + i + ENDO.length == sourceLength
+                        && matches(block, blockLength, i, ENDO))
+                {
+                    endObjectMarkers.add(blockStart + i);
+                }
+                break;
+            default:
+                // the position of the whitespace preceding the "obj" keyword
+                if (isWhitespace(block[i]) && matches(block, blockLength, i + 1, OBJ))
+                {
+                    objectMarkers.add(blockStart + i);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Tests for the same whitespace characters as {@link BaseParser#isWhitespace(int)}.
+     */
+    private static boolean isWhitespace(byte b)
+    {
+        return b == 0 || b == 9 || b == 12 || b == 10 || b == 13 || b == 32;
+    }
+
+    private static boolean add(List<Long> markers, byte[] block, int blockLength, int position,
+            byte[] marker, long blockStart)
+    {
+        if (matches(block, blockLength, position, marker))
+        {
+            markers.add(blockStart + position);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(byte[] block, int blockLength, int position, byte[] marker)
+    {
+        if (position + marker.length > blockLength)
+        {
+            return false;
+        }
+        for (int i = 0; i < marker.length; i++)
+        {
+            if (block[position + i] != marker[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void offset(long offset)
+    {
+        for (List<Long> markers : allMarkers())
+        {
+            markers.replaceAll(position -> position + offset);
+        }
+    }
+
+    private void addAll(BruteForceScanner other)
+    {
+        List<List<Long>> markers = allMarkers();
+        List<List<Long>> otherMarkers = other.allMarkers();
+        for (int i = 0; i < markers.size(); i++)
+        {
+            markers.get(i).addAll(otherMarkers.get(i));
+        }
+    }
+
+    private List<List<Long>> allMarkers()
+    {
+        List<List<Long>> markers = new ArrayList<>(7);
+        markers.add(objectMarkers);
+        markers.add(endObjectMarkers);
+        markers.add(eofMarkers);
+        markers.add(xrefTableMarkers);
+        markers.add(xrefStreamMarkers);
+        markers.add(objectStreamMarkers);
+        markers.add(trailerMarkers);
+        return markers;
+    }
+
+    /**
+     * Returns the positions of the whitespaces followed by the "obj" keyword, in ascending order.
+     */
+    List<Long> getObjectMarkers()
+    {
+        return objectMarkers;
+    }
+
+    /**
+     * Returns the positions of the "endobj" keywords, including an "endo" at the end of a cut off file, in ascending
+     * order.
+     */
+    List<Long> getEndObjectMarkers()
+    {
+        return endObjectMarkers;
+    }
+
+    /**
+     * Returns the positions of the "%%EOF" markers in ascending order.
+     */
+    List<Long> getEOFMarkers()
+    {
+        return eofMarkers;
+    }
+
+    /**
+     * Returns the positions of the "xref" keywords, including those of "startxref", in ascending order.
+     */
+    List<Long> getXRefTableMarkers()
+    {
+        return xrefTableMarkers;
+    }
+
+    /**
+     * Returns the positions of the "/XRef" names in ascending order.
+     */
+    List<Long> getXRefStreamMarkers()
+    {
+        return xrefStreamMarkers;
+    }
+
+    /**
+     * Returns the positions of the "/ObjStm" names in ascending order.
+     */
+    List<Long> getObjectStreamMarkers()
+    {
+        return objectStreamMarkers;
+    }
+
+    /**
+     * Returns the positions of the "trailer" keywords in ascending order.
+     */
+    List<Long> getTrailerMarkers()
+    {
+        return trailerMarkers;
+    }
+}
@@ -16,8 +16,10 @@
  */
 package org.apache.pdfbox.pdfparser;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
@@ -29,6 +31,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -43,6 +50,7 @@ import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.ICOSParser;
+import org.apache.pdfbox.cos.XrefTable;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.io.RandomAccessReadView;
@@ -71,7 +79,6 @@ public class COSParser extends BaseParser implements ICOSParser
     private static final String FDF_DEFAULT_VERSION = "1.0";
 
     private static final char[] XREF_TABLE = new char[] { 'x', 'r', 'e', 'f' };
-    private static final char[] XREF_STREAM = new char[] { '/', 'X', 'R', 'e', 'f' };
     private static final char[] STARTXREF = new char[] { 's','t','a','r','t','x','r','e','f' };
 
     private static final byte[] ENDSTREAM = new byte[] { E, N, D, S, T, R, E, A, M };
@@ -116,11 +123,6 @@ public class COSParser extends BaseParser implements ICOSParser
      */
     private static final char[] TRAILER_MARKER = new char[] { 't', 'r', 'a', 'i', 'l', 'e', 'r' };
 
-    /**
-     * ObjStream-marker.
-     */
-    private static final char[] OBJ_STREAM = new char[] { '/', 'O', 'b', 'j', 'S', 't', 'm' };
-
     /**
      * file length.
      */
@@ -134,10 +136,76 @@ public class COSParser extends BaseParser implements ICOSParser
     protected boolean initialParseDone = false;
 
     private boolean trailerWasRebuild = false;
+
+    /**
+     * Resolve objects concurrently after the initial parse if set to true.
+     */
+    private boolean concurrentObjectResolution = false;
+
+    /**
+     * The parser owning the document if this is a worker parser.
+     */
+    private COSParser ownerParser = null;
+
+    /**
+     * The worker parsers which aren't in use, they are reused to dereference objects concurrently.
+     */
+    private final ConcurrentLinkedQueue<COSParser> idleWorkerParsers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Cache of decoded object streams, null if disabled.
+     */
+    private ObjectStreamCache objectStreamCache = new ObjectStreamCache();
+
+    /**
+     * Parse all objects of all object streams during the initial parse if set to true.
+     */
+    private boolean eagerObjectStreamLoading = false;
+
+    /**
+     * The executor used to load the object streams in parallel, null to load them on the calling thread.
+     */
+    private Executor objectStreamLoadingExecutor = null;
+
+    /**
+     * The executor used to scan the file in parallel for a brute force search, null to scan it on the calling thread.
+     */
+    private Executor bruteForceSearchExecutor = null;
+
+    /**
+     * The markers found by a single scan of the file, shared by all brute force searches.
+     */
+    private BruteForceScanner bruteForceScanner = null;
+
+    /**
+     * Open linearized files using the first-page xref section only if set to true.
+     */
+    private boolean linearizedFirstPageOpen = false;
+
+    /**
+     * The linearization dictionary if the file was opened using its first-page xref section.
+     */
+    private COSDictionary linearizationDictionary = null;
+
+    /**
+     * The offset of the main xref section of a linearized file which wasn't parsed yet, -1 if there is none.
+     */
+    private volatile long deferredXrefOffset = -1;
+
+    /**
+     * The xref table of the document as long as the main xref section wasn't parsed yet.
+     */
+    private XrefTable firstPageXrefTable = null;
+
+    /**
+     * The sidecar file used to store the resolved xref table, null if no index is used.
+     */
+    private File xrefIndexFile = null;
+
     /**
      * Contains all found objects of a brute force search.
      */
-    private Map<COSObjectKey, Long> bfSearchCOSObjectKeyOffsets = null;
+    private XrefTable bfSearchCOSObjectKeyOffsets = null;
     boolean bruteForceSearchTriggered = false;
     private PDEncryption encryption = null;
 
@@ -225,6 +293,294 @@ public class COSParser extends BaseParser implements ICOSParser
      * @throws IOException if something went wrong
      */
     protected COSDictionary retrieveTrailer() throws IOException
+    {
+        if (linearizedFirstPageOpen)
+        {
+            COSDictionary trailer = parseFirstPageTrailer();
+            if (trailer != null)
+            {
+                return trailer;
+            }
+        }
+        byte[] fingerprint = null;
+        if (xrefIndexFile != null)
+        {
+            fingerprint = XrefIndex.fingerprint(source);
+            COSDictionary trailer = loadXrefIndex(fingerprint);
+            if (trailer != null)
+            {
+                return trailer;
+            }
+        }
+        COSDictionary trailer = resolveTrailer();
+        if (fingerprint != null)
+        {
+            storeXrefIndex(fingerprint);
+        }
+        return trailer;
+    }
+
+    /**
+     * Parses the first-page xref section and trailer of a linearized file, which follow the linearization dictionary
+     * at the beginning of the file. The main xref section is parsed when it is needed, see
+     * {@link #resolveDeferredXrefTable()}.
+     *
+     * @return the trailer or null if the file isn't linearized or was updated after its linearization
+     * @throws IOException if something went wrong
+     */
+    private COSDictionary parseFirstPageTrailer() throws IOException
+    {
+        COSDictionary linearized;
+        COSDictionary trailer;
+        long firstPageXrefOffset;
+        boolean isXRefStream;
+        try
+        {
+            // the linearization dictionary is the first object after the header
+            source.seek(0);
+            skipSpaces();
+            readObjectNumber();
+            readGenerationNumber();
+            readExpectedString(OBJ_MARKER, true);
+            linearized = parseCOSDictionary();
+            // an incremental update invalidates the linearization, which is detected by a different length
+            if (linearized.getItem(COSName.LINEARIZED) == null
+                    || linearized.getLong(COSName.L) != fileLen
+                    || linearized.getLong(COSName.O) <= 0)
+            {
+                return null;
+            }
+            readExpectedString(ENDOBJ_STRING.toCharArray(), true);
+            skipSpaces();
+            firstPageXrefOffset = source.getPosition();
+            isXRefStream = source.peek() != X;
+            if (isXRefStream)
+            {
+                parseXrefObjStream(firstPageXrefOffset, true);
+            }
+            else if (!parseXrefTable(firstPageXrefOffset) || !parseTrailer())
+            {
+                xrefTrailerResolver = new XrefTrailerResolver();
+                return null;
+            }
+            trailer = xrefTrailerResolver.getCurrentTrailer();
+        }
+        catch (IOException exception)
+        {
+            LOG.debug("No valid first-page xref section found, parsing the whole xref", exception);
+            xrefTrailerResolver = new XrefTrailerResolver();
+            return null;
+        }
+        if (trailer == null || trailer.getCOSObject(COSName.ROOT) == null
+                || trailer.containsKey(COSName.XREF_STM))
+        {
+            xrefTrailerResolver = new XrefTrailerResolver();
+            return null;
+        }
+        XrefTable xrefTable = document.getXrefTable();
+        xrefTable.putAll(xrefTrailerResolver.getCurrentXrefTable());
+        document.setStartXref(firstPageXrefOffset);
+        document.setIsXRefStream(isXRefStream);
+        document.setTrailer(trailer);
+        document.setHighestXRefObjectNumber(Math.max(trailer.getLong(COSName.SIZE) - 1,
+                getHighestObjectNumber(xrefTable)));
+        linearizationDictionary = linearized;
+        long mainXrefOffset = trailer.getLong(COSName.PREV);
+        if (mainXrefOffset > 0)
+        {
+            firstPageXrefTable = xrefTable;
+            deferredXrefOffset = mainXrefOffset;
+        }
+        prepareDecryption();
+        if (resetTrailerResolver())
+        {
+            xrefTrailerResolver.reset();
+            xrefTrailerResolver = null;
+        }
+        return trailer;
+    }
+
+    /**
+     * Parses the main xref section of a linearized file if it was deferred when opening the file using its first-page
+     * xref section. The entries are added to the xref table of the document, the trailer isn't changed.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Override
+    public void resolveDeferredXrefTable() throws IOException
+    {
+        if (deferredXrefOffset < 0)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            long mainXrefOffset = deferredXrefOffset;
+            if (mainXrefOffset < 0)
+            {
+                return;
+            }
+            XrefTable xrefTable = firstPageXrefTable;
+            deferredXrefOffset = -1;
+            firstPageXrefTable = null;
+            long originOffset = source.getPosition();
+            XrefTrailerResolver originTrailerResolver = xrefTrailerResolver;
+            xrefTrailerResolver = new XrefTrailerResolver();
+            try
+            {
+                parseXrefChain(mainXrefOffset);
+                xrefTrailerResolver.setStartxref(mainXrefOffset);
+                // the entries of the first-page section take precedence
+                xrefTrailerResolver.getXrefTable().forEach(xrefTable::putIfAbsent);
+                document.setHighestXRefObjectNumber(Math.max(document.getHighestXRefObjectNumber(),
+                        getHighestObjectNumber(xrefTable)));
+            }
+            catch (IOException exception)
+            {
+                if (!isLenient)
+                {
+                    throw exception;
+                }
+                // missing objects are searched for by a brute force search
+                LOG.error("Failed to parse the main xref section at offset " + mainXrefOffset,
+                        exception);
+            }
+            finally
+            {
+                xrefTrailerResolver = originTrailerResolver;
+                source.seek(originOffset);
+            }
+        }
+    }
+
+    /**
+     * Returns the linearization dictionary if the file was opened using its first-page xref section, see
+     * {@link #setLinearizedFirstPageOpen(boolean)}.
+     *
+     * @return the linearization dictionary or null if the whole xref was parsed
+     */
+    public COSDictionary getLinearizationDictionary()
+    {
+        return linearizationDictionary;
+    }
+
+    /**
+     * Tests if the main xref section of a linearized file wasn't parsed yet.
+     *
+     * @return true if the xref table of the document contains the entries of the first-page xref section only
+     */
+    public boolean isXrefTableDeferred()
+    {
+        return deferredXrefOffset >= 0;
+    }
+
+    private static long getHighestObjectNumber(XrefTable xrefTable)
+    {
+        return xrefTable.keySet().stream() //
+                .mapToLong(COSObjectKey::getNumber) //
+                .max().orElse(0);
+    }
+
+    /**
+     * Loads the xref table and the trailer from the index file if it belongs to the parsed file.
+     *
+     * @param fingerprint the fingerprint of the parsed file
+     * @return the trailer or null if the index can't be used
+     * @throws IOException if something went wrong
+     */
+    private COSDictionary loadXrefIndex(byte[] fingerprint) throws IOException
+    {
+        if (!xrefIndexFile.isFile())
+        {
+            return null;
+        }
+        XrefIndex index;
+        try
+        {
+            index = XrefIndex.read(xrefIndexFile, fileLen, fingerprint, document);
+        }
+        catch (IOException exception)
+        {
+            LOG.warn("Ignoring corrupt xref index " + xrefIndexFile, exception);
+            return null;
+        }
+        if (index == null)
+        {
+            LOG.debug("Ignoring stale xref index " + xrefIndexFile);
+            return null;
+        }
+        // the index is bound to the end of the file, check the root object to be sure it is up to date
+        COSBase root = index.getTrailer().getItem(COSName.ROOT);
+        if (!(root instanceof COSObject))
+        {
+            return null;
+        }
+        COSObjectKey rootKey = ((COSObject) root).getKey();
+        long rootOffset = index.getXrefTable().getOffset(rootKey);
+        if (rootOffset == XrefTable.NOT_FOUND
+                || rootOffset > 0 && !checkObjectKey(rootKey, rootOffset))
+        {
+            LOG.debug("Ignoring xref index " + xrefIndexFile + " not matching the root object");
+            return null;
+        }
+        document.setStartXref(index.getStartXref());
+        document.setIsXRefStream(index.isXRefStream());
+        document.setHighestXRefObjectNumber(index.getHighestXRefObjectNumber());
+        document.setTrailer(index.getTrailer());
+        document.addXRefTable(index.getXrefTable());
+        trailerWasRebuild = index.isTrailerWasRebuild();
+        prepareDecryption();
+        if (resetTrailerResolver())
+        {
+            xrefTrailerResolver.reset();
+            xrefTrailerResolver = null;
+        }
+        return index.getTrailer();
+    }
+
+    /**
+     * Stores the xref table and the trailer of the parsed file in the index file. Failures are logged only, as the
+     * index is an optimization. The outdated index file is deleted if it can't be replaced.
+     *
+     * @param fingerprint the fingerprint of the parsed file
+     */
+    private void storeXrefIndex(byte[] fingerprint)
+    {
+        XrefTable xrefTable = new XrefTable(document.getXrefTable());
+        if (bfSearchCOSObjectKeyOffsets != null)
+        {
+            // keep the objects found by a brute force search, so that it doesn't have to be repeated
+            bfSearchCOSObjectKeyOffsets.forEach(xrefTable::putIfAbsent);
+        }
+        XrefIndex index = new XrefIndex(document.getStartXref(), document.isXRefStream(),
+                document.getHighestXRefObjectNumber(), trailerWasRebuild, document.getTrailer(),
+                xrefTable);
+        boolean written = false;
+        try
+        {
+            written = index.write(xrefIndexFile, fileLen, fingerprint);
+            if (!written)
+            {
+                LOG.debug("The trailer can't be stored in the xref index " + xrefIndexFile);
+            }
+        }
+        catch (IOException exception)
+        {
+            LOG.warn("Could not write xref index " + xrefIndexFile, exception);
+        }
+        if (!written && !xrefIndexFile.delete() && xrefIndexFile.exists())
+        {
+            LOG.warn("Could not delete the outdated xref index " + xrefIndexFile);
+        }
+    }
+
+    /**
+     * Parses the xref chain or rebuilds the trailer if the xref chain is damaged.
+     *
+     * @return the trailer
+     * @throws IOException if something went wrong
+     */
+    private COSDictionary resolveTrailer() throws IOException
     {
         COSDictionary trailer = null;
         boolean rebuildTrailer = false;
@@ -308,7 +664,36 @@ public class COSParser extends BaseParser implements ICOSParser
             startXrefOffset = fixedOffset;
         }
         document.setStartXref(startXrefOffset);
+        parseXrefChain(startXrefOffset);
+        // ---- build valid xrefs out of the xref chain
+        xrefTrailerResolver.setStartxref(startXrefOffset);
+        COSDictionary trailer = xrefTrailerResolver.getTrailer();
+        document.setTrailer(trailer);
+        document.setIsXRefStream(XRefType.STREAM == xrefTrailerResolver.getXrefType());
+        // check the offsets of all referenced objects
+        checkXrefOffsets();
+        // copy xref table
+        document.addXRefTable(xrefTrailerResolver.getXrefTable());
+
+        // remember the highest XRef object number to avoid it being reused in incremental saving
+        Optional<Long> maxValue = document.getXrefTable().keySet().stream() //
+                .map(COSObjectKey::getNumber) //
+                .reduce(Long::max);
+        document.setHighestXRefObjectNumber(maxValue.isPresent() ? maxValue.get() : 0);
+
+        return trailer;
+    }
+
+    /**
+     * Parses the whole chain of xref tables and xref streams starting at the given offset using the /Prev entries.
+     *
+     * @param startXrefOffset the offset of the last xref section
+     * @throws IOException if something went wrong
+     */
+    private void parseXrefChain(long startXrefOffset) throws IOException
+    {
         long prev = startXrefOffset;
+        long fixedOffset;
         // ---- parse whole chain of xref tables/object streams using PREV reference
         Set<Long> prevSet = new HashSet<>();
         COSDictionary trailer = null;
@@ -398,23 +783,6 @@ public class COSParser extends BaseParser implements ICOSParser
             }
             prevSet.add(prev);
         }
-        // ---- build valid xrefs out of the xref chain
-        xrefTrailerResolver.setStartxref(startXrefOffset);
-        trailer = xrefTrailerResolver.getTrailer();
-        document.setTrailer(trailer);
-        document.setIsXRefStream(XRefType.STREAM == xrefTrailerResolver.getXrefType());
-        // check the offsets of all referenced objects
-        checkXrefOffsets();
-        // copy xref table
-        document.addXRefTable(xrefTrailerResolver.getXrefTable());
-
-        // remember the highest XRef object number to avoid it being reused in incremental saving
-        Optional<Long> maxValue = document.getXrefTable().keySet().stream() //
-                .map(COSObjectKey::getNumber) //
-                .reduce(Long::max);
-        document.setHighestXRefObjectNumber(maxValue.isPresent() ? maxValue.get() : 0);
-
-        return trailer;
     }
 
     /**
@@ -539,39 +907,263 @@ public class COSParser extends BaseParser implements ICOSParser
                 lookupCh = pattern[patOff];
             }
         }
-        return -1;
+        return -1;
+    }
+    
+    /**
+     * Return true if parser is lenient. Meaning auto healing capacity of the parser are used.
+     *
+     * @return true if parser is lenient
+     */
+    public boolean isLenient()
+    {
+        return isLenient;
+    }
+
+    /**
+     * Change the parser leniency flag.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param lenient try to handle malformed PDFs.
+     *
+     */
+    protected void setLenient(boolean lenient)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalArgumentException("Cannot change leniency after parsing");
+        }
+        this.isLenient = lenient;
+    }
+
+    /**
+     * Enables or disables the concurrent resolution of objects.
+     *
+     * If enabled all objects referenced after the initial parse are resolved by worker parsers, each of them reading an
+     * independent view of the source. Different objects are resolved in parallel by several threads, whereas concurrent
+     * requests for the same object wait until the object is parsed. Each worker parser reads a view of the whole source
+     * created by {@link RandomAccessRead#createView(long, long)}, so that the source has to provide cheap views which
+     * can be created concurrently, e.g. {@link org.apache.pdfbox.io.RandomAccessReadSharedFile} or
+     * {@link org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile}, see
+     * {@link RandomAccessRead#isConcurrentViewSupported()}. Otherwise the objects are resolved one after another.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param concurrentObjectResolution enable the concurrent resolution of objects if set to true
+     */
+    public void setConcurrentObjectResolution(boolean concurrentObjectResolution)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalArgumentException(
+                    "Cannot change concurrent object resolution after parsing");
+        }
+        this.concurrentObjectResolution = concurrentObjectResolution;
+    }
+
+    /**
+     * Indicates if objects are resolved concurrently.
+     *
+     * @return true if the concurrent resolution of objects is enabled
+     */
+    public boolean isConcurrentObjectResolution()
+    {
+        return concurrentObjectResolution;
+    }
+
+    /**
+     * Returns the cache of decoded object streams. Each object stream is decoded only once as long as it stays in the
+     * cache, instead of once for every contained object.
+     *
+     * @return the cache of decoded object streams or null if disabled
+     */
+    public ObjectStreamCache getObjectStreamCache()
+    {
+        return objectStreamCache;
+    }
+
+    /**
+     * Sets the cache of decoded object streams, e.g. to use a different memory limit.
+     *
+     * @param objectStreamCache the cache of decoded object streams, or null to decode an object stream whenever one of
+     * its objects is parsed
+     */
+    public void setObjectStreamCache(ObjectStreamCache objectStreamCache)
+    {
+        this.objectStreamCache = objectStreamCache;
+    }
+
+    /**
+     * Enables or disables the eager loading of object streams.
+     *
+     * If enabled all object streams are parsed during the initial parse, each of them in a single pass, instead of
+     * locating and parsing compressed objects one by one when they are dereferenced. This is faster if almost all
+     * objects of the document are used, e.g. when merging or saving it with compression, but keeps all compressed
+     * objects in memory.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param eagerObjectStreamLoading enable the eager loading of object streams if set to true
+     */
+    public void setEagerObjectStreamLoading(boolean eagerObjectStreamLoading)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalArgumentException(
+                    "Cannot change eager object stream loading after parsing");
+        }
+        this.eagerObjectStreamLoading = eagerObjectStreamLoading;
+    }
+
+    /**
+     * Indicates if object streams are loaded eagerly.
+     *
+     * @return true if the eager loading of object streams is enabled
+     */
+    public boolean isEagerObjectStreamLoading()
+    {
+        return eagerObjectStreamLoading;
+    }
+
+    /**
+     * Sets the executor used to load the object streams in parallel if eager loading is enabled, see
+     * {@link #setEagerObjectStreamLoading(boolean)}. Each object stream is loaded by a worker parser reading an
+     * independent view of the source, so that the object streams are loaded on the calling thread if the source
+     * doesn't provide cheap views, see {@link RandomAccessRead#isConcurrentViewSupported()}.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param objectStreamLoadingExecutor the executor used to load the object streams, or null to load them on the
+     * calling thread
+     */
+    public void setObjectStreamLoadingExecutor(Executor objectStreamLoadingExecutor)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalArgumentException(
+                    "Cannot change the object stream loading executor after parsing");
+        }
+        this.objectStreamLoadingExecutor = objectStreamLoadingExecutor;
+    }
+
+    /**
+     * Returns the executor used to load the object streams in parallel.
+     *
+     * @return the executor used to load the object streams, or null if they are loaded on the calling thread
+     */
+    public Executor getObjectStreamLoadingExecutor()
+    {
+        return objectStreamLoadingExecutor;
+    }
+
+    /**
+     * Sets the executor used to scan the file in parallel if a brute force search is needed to repair a damaged file.
+     * The file is split into segments, each one is scanned using an independent view of the source. The file is
+     * scanned on the calling thread if the source doesn't provide cheap views, see
+     * {@link RandomAccessRead#isConcurrentViewSupported()}.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param bruteForceSearchExecutor the executor used to scan the file, or null to scan it on the calling thread
+     */
+    public void setBruteForceSearchExecutor(Executor bruteForceSearchExecutor)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalArgumentException(
+                    "Cannot change the brute force search executor after parsing");
+        }
+        this.bruteForceSearchExecutor = bruteForceSearchExecutor;
+    }
+
+    /**
+     * Returns the executor used to scan the file in parallel for a brute force search.
+     *
+     * @return the executor used to scan the file, or null if it is scanned on the calling thread
+     */
+    public Executor getBruteForceSearchExecutor()
+    {
+        return bruteForceSearchExecutor;
+    }
+
+    /**
+     * Opens linearized files using the xref section of the first page only, which follows the linearization
+     * dictionary at the beginning of the file. The main xref section at the end of the file is parsed when an object
+     * is dereferenced which isn't part of the first-page section, or when the whole xref table of the document is
+     * requested. So the first page can be opened without reading the end of the file, see
+     * {@link PDFParser#getFirstPage()}.
+     *
+     * Files which aren't linearized, or which were updated after their linearization, are parsed as usual.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param linearizedFirstPageOpen true to open linearized files using their first-page xref section
+     */
+    public void setLinearizedFirstPageOpen(boolean linearizedFirstPageOpen)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalArgumentException(
+                    "Cannot change the linearized first page mode after parsing");
+        }
+        this.linearizedFirstPageOpen = linearizedFirstPageOpen;
     }
-    
+
     /**
-     * Return true if parser is lenient. Meaning auto healing capacity of the parser are used.
+     * Indicates if linearized files are opened using their first-page xref section.
      *
-     * @return true if parser is lenient
+     * @return true if linearized files are opened using their first-page xref section
      */
-    public boolean isLenient()
+    public boolean isLinearizedFirstPageOpen()
     {
-        return isLenient;
+        return linearizedFirstPageOpen;
     }
 
     /**
-     * Change the parser leniency flag.
+     * Sets a sidecar file used to store the resolved xref table and the trailer of the parsed file. If the file
+     * exists and belongs to the parsed file, which is checked using the file length and a hash of the trailer region,
+     * the xref table is loaded from it instead of parsing the xref chain or repeating a brute force search. Otherwise
+     * the file is (re)written after the xref table is resolved.
      *
      * This method can only be called before the parsing of the file.
      *
-     * @param lenient try to handle malformed PDFs.
-     *
+     * @param xrefIndexFile the index file, or null to parse the xref chain every time
      */
-    protected void setLenient(boolean lenient)
+    public void setXrefIndexFile(File xrefIndexFile)
     {
         if (initialParseDone)
         {
-            throw new IllegalArgumentException("Cannot change leniency after parsing");
+            throw new IllegalArgumentException("Cannot change the xref index file after parsing");
         }
-        this.isLenient = lenient;
+        this.xrefIndexFile = xrefIndexFile;
+    }
+
+    /**
+     * Returns the sidecar file used to store the resolved xref table.
+     *
+     * @return the index file, or null if none is used
+     */
+    public File getXrefIndexFile()
+    {
+        return xrefIndexFile;
+    }
+
+    @Override
+    public boolean isConcurrentDereferencingSupported()
+    {
+        return concurrentObjectResolution && initialParseDone && ownerParser == null
+                && source.isConcurrentViewSupported();
     }
 
     @Override
     public COSBase dereferenceCOSObject(COSObject obj) throws IOException
     {
+        if (isConcurrentDereferencingSupported())
+        {
+            return parseObjectConcurrently(
+                    new COSObjectKey(obj.getObjectNumber(), obj.getGenerationNumber()), false);
+        }
         long currentPos = source.getPosition();
         COSBase parsedObj = parseObjectDynamically(obj.getObjectNumber(), obj.getGenerationNumber(),
                 false);
@@ -602,18 +1194,108 @@ public class COSParser extends BaseParser implements ICOSParser
      * 
      * @throws IOException If an IO error occurs.
      */
-    protected synchronized COSBase parseObjectDynamically(long objNr, int objGenNr,
+    protected COSBase parseObjectDynamically(long objNr, int objGenNr,
             boolean requireExistingNotCompressedObj) throws IOException
     {
+        if (ownerParser != null)
+        {
+            // referenced objects are resolved by the parser owning the document
+            return ownerParser.parseObjectDynamically(objNr, objGenNr,
+                    requireExistingNotCompressedObj);
+        }
         final COSObjectKey objKey = new COSObjectKey(objNr, objGenNr);
+        if (isConcurrentDereferencingSupported())
+        {
+            return parseObjectConcurrently(objKey, requireExistingNotCompressedObj);
+        }
+        synchronized (this)
+        {
+            return parseObject(objKey, requireExistingNotCompressedObj);
+        }
+    }
+
+    /**
+     * Parse the object for the given key using a worker parser. The pooled object of the given key is used as lock, so
+     * that different objects are parsed in parallel but each object is parsed by one thread only.
+     * 
+     * @param objKey the key of the object to be parsed
+     * @param requireExistingNotCompressedObj see {@link #parseObjectDynamically(long, int, boolean)}
+     * @return the parsed object
+     * @throws IOException If an IO error occurs.
+     */
+    private COSBase parseObjectConcurrently(COSObjectKey objKey,
+            boolean requireExistingNotCompressedObj) throws IOException
+    {
+        COSObject pdfObject = document.getObjectFromPool(objKey);
+        if (requireExistingNotCompressedObj && pdfObject.isObjectNull())
+        {
+            // reject the object before locking it, the lock might be held by a thread waiting for the calling thread
+            getObjectOffset(objKey, true);
+        }
+        synchronized (pdfObject)
+        {
+            COSParser workerParser = acquireWorkerParser();
+            try
+            {
+                return workerParser.parseObject(objKey, requireExistingNotCompressedObj);
+            }
+            finally
+            {
+                idleWorkerParsers.add(workerParser);
+            }
+        }
+    }
+
+    /**
+     * Returns an idle worker parser or creates a new one. The worker parser has to be returned to
+     * {@link #idleWorkerParsers} when it isn't used any longer.
+     * 
+     * @return the worker parser
+     * @throws IOException if the view of the source could not be created
+     */
+    private COSParser acquireWorkerParser() throws IOException
+    {
+        COSParser workerParser = idleWorkerParsers.poll();
+        if (workerParser == null)
+        {
+            workerParser = createWorkerParser();
+        }
+        workerParser.isLenient = isLenient;
+        return workerParser;
+    }
+
+    /**
+     * Creates a worker parser reading an independent view of the source and sharing the document, the security
+     * handler and the cache of decoded object streams with this parser. The view is cheap as long as the source
+     * supports concurrent views.
+     * 
+     * @return the worker parser
+     * @throws IOException if the view of the source could not be created
+     */
+    private COSParser createWorkerParser() throws IOException
+    {
+        COSParser workerParser = new COSParser(source.createView(0, fileLen));
+        workerParser.ownerParser = this;
+        workerParser.document = document;
+        workerParser.securityHandler = securityHandler;
+        workerParser.isLenient = isLenient;
+        workerParser.initialParseDone = true;
+        // the cache of this parser is used instead
+        workerParser.objectStreamCache = null;
+        return workerParser;
+    }
+
+    private COSBase parseObject(COSObjectKey objKey, boolean requireExistingNotCompressedObj)
+            throws IOException
+    {
         COSObject pdfObject = document.getObjectFromPool(objKey);
         if (!pdfObject.isObjectNull())
         {
             return pdfObject.getObject();
         }
-        Long offsetOrObjstmObNr = getObjectOffset(objKey, requireExistingNotCompressedObj);
+        long offsetOrObjstmObNr = getObjectOffset(objKey, requireExistingNotCompressedObj);
         COSBase referencedObject = null;
-        if (offsetOrObjstmObNr != null)
+        if (offsetOrObjstmObNr != XrefTable.NOT_FOUND)
         {
 
             if (offsetOrObjstmObNr > 0)
@@ -637,27 +1319,42 @@ public class COSParser extends BaseParser implements ICOSParser
         return referencedObject;
     }
 
-    private Long getObjectOffset(COSObjectKey objKey, boolean requireExistingNotCompressedObj)
+    private long getObjectOffset(COSObjectKey objKey, boolean requireExistingNotCompressedObj)
             throws IOException
     {
+        if (ownerParser != null)
+        {
+            // the xref table may be updated by a brute force search of the owning parser
+            synchronized (ownerParser)
+            {
+                return ownerParser.getObjectOffset(objKey, requireExistingNotCompressedObj);
+            }
+        }
         // read offset or object stream object number from xref table
-        Long offsetOrObjstmObNr = document.getXrefTable().get(objKey);
+        XrefTable xrefTable = firstPageXrefTable != null ? firstPageXrefTable
+                : document.getXrefTable();
+        long offsetOrObjstmObNr = xrefTable.getOffset(objKey);
+
+        // the object may be part of the main xref section of a linearized file
+        if (offsetOrObjstmObNr == XrefTable.NOT_FOUND && isXrefTableDeferred())
+        {
+            resolveDeferredXrefTable();
+            offsetOrObjstmObNr = xrefTable.getOffset(objKey);
+        }
 
         // maybe something is wrong with the xref table -> perform brute force search for all objects
-        if (offsetOrObjstmObNr == null && isLenient)
+        if (offsetOrObjstmObNr == XrefTable.NOT_FOUND && isLenient)
         {
-            Map<COSObjectKey, Long> bfCOSObjectKeyOffsets = getBFCOSObjectOffsets();
-            offsetOrObjstmObNr = bfCOSObjectKeyOffsets.get(objKey);
-            if (offsetOrObjstmObNr != null)
+            offsetOrObjstmObNr = getBFCOSObjectOffsets().getOffset(objKey);
+            if (offsetOrObjstmObNr != XrefTable.NOT_FOUND)
             {
                 LOG.debug("Set missing offset " + offsetOrObjstmObNr + " for object " + objKey);
-                document.getXrefTable().put(objKey, offsetOrObjstmObNr);
+                xrefTable.put(objKey.getNumber(), objKey.getGeneration(), offsetOrObjstmObNr);
             }
         }
 
         // sanity test to circumvent loops with broken documents
-        if (requireExistingNotCompressedObj
-                && ((offsetOrObjstmObNr == null) || (offsetOrObjstmObNr <= 0)))
+        if (requireExistingNotCompressedObj && offsetOrObjstmObNr <= 0)
         {
             throw new IOException("Object must be defined and must not be compressed object: "
                     + objKey.getNumber() + ":" + objKey.getGeneration());
@@ -665,7 +1362,7 @@ public class COSParser extends BaseParser implements ICOSParser
         return offsetOrObjstmObNr;
     }
 
-    private COSBase parseFileObject(Long offsetOrObjstmObNr, final COSObjectKey objKey)
+    private COSBase parseFileObject(long offsetOrObjstmObNr, final COSObjectKey objKey)
             throws IOException
     {
         // ---- go to object start
@@ -697,7 +1394,11 @@ public class COSParser extends BaseParser implements ICOSParser
 
                 if (securityHandler != null)
                 {
-                    securityHandler.decryptStream(stream, objKey.getNumber(), objKey.getGeneration());
+                    synchronized (securityHandler)
+                    {
+                        securityHandler.decryptStream(stream, objKey.getNumber(),
+                                objKey.getGeneration());
+                    }
                 }
                 parsedObject = stream;
             }
@@ -726,7 +1427,10 @@ public class COSParser extends BaseParser implements ICOSParser
         }
         else if (securityHandler != null)
         {
-            securityHandler.decrypt(parsedObject, objKey.getNumber(), objKey.getGeneration());
+            synchronized (securityHandler)
+            {
+                securityHandler.decrypt(parsedObject, objKey.getNumber(), objKey.getGeneration());
+            }
         }
 
         if (!endObjectKey.startsWith(ENDOBJ_STRING))
@@ -747,6 +1451,142 @@ public class COSParser extends BaseParser implements ICOSParser
         return parsedObject;
     }
 
+    /**
+     * Parses all objects of all object streams if the eager loading of object streams is enabled. Has to be called
+     * after the xref tables are read.
+     *
+     * @throws IOException if an object stream could not be parsed and the parser isn't lenient
+     */
+    protected void loadObjectStreams() throws IOException
+    {
+        if (!eagerObjectStreamLoading)
+        {
+            return;
+        }
+        // collect the compressed objects by object stream, in the order of the object streams
+        Map<Long, List<COSObjectKey>> keysByObjectStream = new TreeMap<>();
+        for (Entry<COSObjectKey, Long> entry : document.getXrefTable().entrySet())
+        {
+            Long offsetOrObjstmObNr = entry.getValue();
+            if (offsetOrObjstmObNr != null && offsetOrObjstmObNr < 0)
+            {
+                keysByObjectStream
+                        .computeIfAbsent(-offsetOrObjstmObNr, k -> new ArrayList<>())
+                        .add(entry.getKey());
+            }
+        }
+        if (objectStreamLoadingExecutor == null || !source.isConcurrentViewSupported())
+        {
+            for (Entry<Long, List<COSObjectKey>> entry : keysByObjectStream.entrySet())
+            {
+                loadObjectStream(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        List<FutureTask<Void>> tasks = new ArrayList<>(keysByObjectStream.size());
+        boolean loaded = false;
+        try
+        {
+            for (Entry<Long, List<COSObjectKey>> entry : keysByObjectStream.entrySet())
+            {
+                FutureTask<Void> task = new FutureTask<>(() ->
+                {
+                    COSParser workerParser = acquireWorkerParser();
+                    try
+                    {
+                        workerParser.loadObjectStream(entry.getKey(), entry.getValue());
+                    }
+                    finally
+                    {
+                        idleWorkerParsers.add(workerParser);
+                    }
+                    return null;
+                });
+                tasks.add(task);
+                objectStreamLoadingExecutor.execute(task);
+            }
+            for (FutureTask<Void> task : tasks)
+            {
+                task.get();
+            }
+            loaded = true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Loading of object streams was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            if (!loaded)
+            {
+                // don't leave the remaining object streams to the executor after a failure
+                tasks.forEach(task -> task.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Parses all objects of the object stream with the given number, which are assigned to it by the xref table and
+     * haven't been parsed yet.
+     *
+     * @param objstmObjNr the number of the object stream
+     * @param keys the keys of the objects assigned to the object stream
+     * @throws IOException if the object stream could not be parsed and the parser isn't lenient
+     */
+    private void loadObjectStream(long objstmObjNr, List<COSObjectKey> keys) throws IOException
+    {
+        try
+        {
+            COSBase objstmBaseObj = parseObject(new COSObjectKey(objstmObjNr, 0), true);
+            if (!(objstmBaseObj instanceof COSStream))
+            {
+                return;
+            }
+            Map<Long, COSBase> objects = PDFObjectStreamParser.decode((COSStream) objstmBaseObj)
+                    .parseAllObjects(document);
+            for (COSObjectKey key : keys)
+            {
+                COSBase object = objects.get(key.getNumber());
+                // objects dereferenced in the meantime, e.g. the length of a stream, are kept
+                if (object != null && document.getObjectFromPool(key).setObjectIfNotDereferenced(object))
+                {
+                    object.setKey(key);
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            if (isLenient)
+            {
+                // the objects are parsed one by one when dereferenced
+                LOG.error("object stream " + objstmObjNr
+                        + " could not be loaded due to an exception", ex);
+            }
+            else
+            {
+                throw ex;
+            }
+        }
+    }
+
     /**
      * Parse the object with the given key from the object stream with the given number.
      * 
@@ -757,16 +1597,34 @@ public class COSParser extends BaseParser implements ICOSParser
      */
     protected COSBase parseObjectStreamObject(int objstmObjNr, COSObjectKey key) throws IOException
     {
-        final COSBase objstmBaseObj = parseObjectDynamically(objstmObjNr, 0, true);
+        // worker parsers share the cache of the owning parser
+        ObjectStreamCache cache = ownerParser != null ? ownerParser.objectStreamCache
+                : objectStreamCache;
+        DecodedObjectStream decodedObjectStream = cache != null ? cache.get(objstmObjNr) : null;
+        final COSBase objstmBaseObj = decodedObjectStream == null
+                ? parseObjectDynamically(objstmObjNr, 0, true) : null;
         COSBase objectStreamObject = null;
-        if (objstmBaseObj instanceof COSStream)
+        if (decodedObjectStream != null || objstmBaseObj instanceof COSStream)
         {
-            // parse object stream
-            PDFObjectStreamParser parser = null;
             try
             {
-                parser = new PDFObjectStreamParser((COSStream) objstmBaseObj, document);
-                objectStreamObject = parser.parseObject(key.getNumber());
+                if (decodedObjectStream == null && cache != null)
+                {
+                    decodedObjectStream = cache.put(objstmObjNr,
+                            PDFObjectStreamParser.decode((COSStream) objstmBaseObj));
+                }
+                if (decodedObjectStream != null)
+                {
+                    objectStreamObject = decodedObjectStream.parseObject(key.getNumber(),
+                            document);
+                }
+                else
+                {
+                    // parse object stream
+                    PDFObjectStreamParser parser = new PDFObjectStreamParser(
+                            (COSStream) objstmBaseObj, document);
+                    objectStreamObject = parser.parseObject(key.getNumber());
+                }
                 if (objectStreamObject != null)
                 {
                     objectStreamObject.setKey(key);
@@ -791,7 +1649,7 @@ public class COSParser extends BaseParser implements ICOSParser
     /** 
      * Returns length value referred to or defined in given object. 
      */
-    private COSNumber getLength(final COSBase lengthBaseObj) throws IOException
+    private COSNumber getLength(final COSBase lengthBaseObj, boolean objectStream) throws IOException
     {
         if (lengthBaseObj == null)
         {
@@ -806,7 +1664,16 @@ public class COSParser extends BaseParser implements ICOSParser
         if (lengthBaseObj instanceof COSObject)
         {
             COSObject lengthObj = (COSObject) lengthBaseObj;
-            COSBase length = lengthObj.getObject();
+            COSBase length = null;
+            if (ownerParser != null && ownerParser.isConcurrentDereferencingSupported()
+                    && lengthObj.isObjectNull())
+            {
+                length = parseLengthConcurrently(lengthObj, objectStream);
+            }
+            if (length == null)
+            {
+                length = lengthObj.getObject();
+            }
             if (length == null)
             {
                 throw new IOException("Length object content was not read.");
@@ -828,6 +1695,58 @@ public class COSParser extends BaseParser implements ICOSParser
                 "Wrong type of length object: " + lengthBaseObj.getClass().getSimpleName());
     }
     
+    /**
+     * Parses the referenced length of a stream without locking the length object, as it might be locked by a thread
+     * waiting for the stream being parsed. An uncompressed length object is parsed directly, the length of an object
+     * stream must not be stored in an object stream (see PDF 32000-1:2008, 7.5.7).
+     *
+     * @param lengthObj the length object
+     * @param objectStream true if the stream being parsed is an object stream
+     * @return the parsed length, or null if the length object is compressed and has to be dereferenced
+     * @throws IOException if the length of an object stream is compressed or the length object couldn't be parsed
+     */
+    private COSBase parseLengthConcurrently(COSObject lengthObj, boolean objectStream)
+            throws IOException
+    {
+        COSObjectKey key = new COSObjectKey(lengthObj.getObjectNumber(),
+                lengthObj.getGenerationNumber());
+        long offsetOrObjstmObNr = getObjectOffset(key, false);
+        if (offsetOrObjstmObNr == XrefTable.NOT_FOUND)
+        {
+            return COSNull.NULL;
+        }
+        if (offsetOrObjstmObNr <= 0)
+        {
+            if (objectStream)
+            {
+                throw new IOException("Length of object stream must not be a compressed object: "
+                        + key.getNumber() + ":" + key.getGeneration());
+            }
+            return null;
+        }
+        long currentPos = source.getPosition();
+        try
+        {
+            source.seek(offsetOrObjstmObNr);
+            long readObjNr = readObjectNumber();
+            int readObjGen = readGenerationNumber();
+            readExpectedString(OBJ_MARKER, true);
+            if (readObjNr != key.getNumber() || readObjGen != key.getGeneration())
+            {
+                throw new IOException("XREF for " + key.getNumber() + ":" + key.getGeneration()
+                        + " points to wrong object: " + readObjNr + ":" + readObjGen
+                        + " at offset " + offsetOrObjstmObNr);
+            }
+            skipSpaces();
+            // a stream isn't parsed, so that the length of its own stream isn't needed
+            return parseDirObject();
+        }
+        finally
+        {
+            source.seek(currentPos);
+        }
+    }
+
     /**
      * This will read a COSStream from the input stream using length attribute within dictionary. If
      * length attribute is a indirect reference it is first resolved to get the stream length. This
@@ -852,7 +1771,8 @@ public class COSParser extends BaseParser implements ICOSParser
         /*
          * This needs to be dic.getItem because when we are parsing, the underlying object might still be null.
          */
-        COSNumber streamLengthObj = getLength(dic.getItem(COSName.LENGTH));
+        COSNumber streamLengthObj = getLength(dic.getItem(COSName.LENGTH),
+                COSName.OBJ_STM.equals(dic.getCOSName(COSName.TYPE)));
         if (streamLengthObj == null)
         {
             if (isLenient)
@@ -1148,26 +2068,33 @@ public class COSParser extends BaseParser implements ICOSParser
         return 0;
     }
 
-    private boolean validateXrefOffsets(Map<COSObjectKey, Long> xrefOffset) throws IOException
+    private boolean validateXrefOffsets(XrefTable xrefOffset) throws IOException
     {
         if (xrefOffset == null)
         {
             return true;
         }
+        // the keys are created by the table, so that fixed generation numbers have to be stored explicitly
+        Map<COSObjectKey, COSObjectKey> fixedKeys = new HashMap<>();
         for (Entry<COSObjectKey, Long> objectEntry : xrefOffset.entrySet())
         {
             COSObjectKey objectKey = objectEntry.getKey();
-            Long objectOffset = objectEntry.getValue();
+            long objectOffset = objectEntry.getValue();
+            int generation = objectKey.getGeneration();
             // a negative offset number represents an object number itself
             // see type 2 entry in xref stream
-            if (objectOffset != null && objectOffset >= 0
-                    && !checkObjectKey(objectKey, objectOffset))
+            if (objectOffset >= 0 && !checkObjectKey(objectKey, objectOffset))
             {
                 LOG.debug("Stop checking xref offsets as at least one (" + objectKey
                         + ") couldn't be dereferenced");
                 return false;
             }
+            if (objectKey.getGeneration() != generation)
+            {
+                fixedKeys.put(new COSObjectKey(objectKey.getNumber(), generation), objectKey);
+            }
         }
+        fixedKeys.forEach((oldKey, newKey) -> xrefOffset.put(newKey, xrefOffset.remove(oldKey)));
         return true;
     }
 
@@ -1183,10 +2110,10 @@ public class COSParser extends BaseParser implements ICOSParser
         {
             return;
         }
-        Map<COSObjectKey, Long> xrefOffset = xrefTrailerResolver.getXrefTable();
+        XrefTable xrefOffset = xrefTrailerResolver.getXrefTable();
         if (!validateXrefOffsets(xrefOffset))
         {
-            Map<COSObjectKey, Long> bfCOSObjectKeyOffsets = getBFCOSObjectOffsets();
+            XrefTable bfCOSObjectKeyOffsets = getBFCOSObjectOffsets();
             if (!bfCOSObjectKeyOffsets.isEmpty())
             {
                 LOG.debug("Replaced read xref table with the results of a brute force search");
@@ -1243,7 +2170,7 @@ public class COSParser extends BaseParser implements ICOSParser
         return objectKeyFound;
     }
 
-    private Map<COSObjectKey, Long> getBFCOSObjectOffsets() throws IOException
+    private XrefTable getBFCOSObjectOffsets() throws IOException
     {
         if (bfSearchCOSObjectKeyOffsets == null)
         {
@@ -1258,95 +2185,104 @@ public class COSParser extends BaseParser implements ICOSParser
      *   
      * @throws IOException if something went wrong
      */
-    private Map<COSObjectKey, Long> bfSearchForObjects() throws IOException
+    private XrefTable bfSearchForObjects() throws IOException
     {
-        Map<COSObjectKey, Long> bfCOSObjectKeyOffsets = new HashMap<>();
+        XrefTable bfCOSObjectKeyOffsets = new XrefTable();
         long lastEOFMarker = bfSearchForLastEOFMarker();
+        BruteForceScanner scanner = getBruteForceScanner();
         long originOffset = source.getPosition();
-        long currentOffset = MINIMUM_SEARCH_OFFSET;
         long lastObjectId = Long.MIN_VALUE;
         int lastGenID = Integer.MIN_VALUE;
         long lastObjOffset = Long.MIN_VALUE;
-        char[] endobjString = "ndo".toCharArray();
-        char[] endobjRemainingString = "bj".toCharArray();
-        boolean endOfObjFound = false;
-        do
+        long lastObjMarker = Long.MIN_VALUE;
+        for (long objMarker : scanner.getObjectMarkers())
         {
-            source.seek(currentOffset);
-            int nextChar = source.read();
-            currentOffset++;
-            if (isWhitespace(nextChar) && isString(OBJ_MARKER))
+            if (objMarker >= lastEOFMarker)
+            {
+                break;
+            }
+            // objMarker is the position of the whitespace in front of the "obj" keyword
+            long tempOffset = objMarker - 1;
+            source.seek(tempOffset);
+            int genID = source.peek();
+            // is the next char a digit?
+            if (isDigit(genID))
             {
-                long tempOffset = currentOffset - 2;
+                genID -= 48;
+                tempOffset--;
                 source.seek(tempOffset);
-                int genID = source.peek();
-                // is the next char a digit?
-                if (isDigit(genID))
+                if (isWhitespace())
                 {
-                    genID -= 48;
-                    tempOffset--;
-                    source.seek(tempOffset);
-                    if (isWhitespace())
+                    while (tempOffset > MINIMUM_SEARCH_OFFSET && isWhitespace())
                     {
-                        while (tempOffset > MINIMUM_SEARCH_OFFSET && isWhitespace())
-                        {
-                            source.seek(--tempOffset);
-                        }
-                        boolean objectIDFound = false;
-                        while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                        {
-                            source.seek(--tempOffset);
-                            objectIDFound = true;
-                        }
-                        if (objectIDFound)
+                        source.seek(--tempOffset);
+                    }
+                    boolean objectIDFound = false;
+                    while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
+                    {
+                        source.seek(--tempOffset);
+                        objectIDFound = true;
+                    }
+                    if (objectIDFound)
+                    {
+                        source.read();
+                        long objectId = readObjectNumber();
+                        if (lastObjOffset > 0)
                         {
-                            source.read();
-                            long objectId = readObjectNumber();
-                            if (lastObjOffset > 0)
-                            {
-                                // add the former object ID only if there was a subsequent object ID
-                                bfCOSObjectKeyOffsets.put(
-                                        new COSObjectKey(lastObjectId, lastGenID), lastObjOffset);
-                            }
-                            lastObjectId = objectId;
-                            lastGenID = genID;
-                            lastObjOffset = tempOffset + 1;
-                            currentOffset += OBJ_MARKER.length - 1;
-                            endOfObjFound = false;
+                            // add the former object ID only if there was a subsequent object ID
+                            bfCOSObjectKeyOffsets.put(lastObjectId, lastGenID, lastObjOffset);
                         }
+                        lastObjectId = objectId;
+                        lastGenID = genID;
+                        lastObjOffset = tempOffset + 1;
+                        lastObjMarker = objMarker;
                     }
                 }
             }
-            // check for "endo" as abbreviation for "endobj", as the pdf may be cut off
-            // in the middle of the keyword, see PDFBOX-3936.
-            // We could possibly implement a more intelligent algorithm if necessary
-            else if (nextChar == 'e' && isString(endobjString))
+        }
+        // check for "endo" as abbreviation for "endobj" after the last object, as the pdf may be
+        // cut off in the middle of the keyword, see PDFBOX-3936.
+        boolean endOfObjFound = false;
+        for (long endObjMarker : scanner.getEndObjectMarkers())
+        {
+            if (endObjMarker >= lastEOFMarker)
             {
-                currentOffset += endobjString.length;
-                source.seek(currentOffset);
-                if (source.isEOF())
-                {
-                    endOfObjFound = true;
-                }
-                else if (isString(endobjRemainingString))
-                {
-                    currentOffset += endobjRemainingString.length;
-                    endOfObjFound = true;
-                }
+                break;
+            }
+            if (endObjMarker > lastObjMarker)
+            {
+                endOfObjFound = true;
+                break;
             }
-        } while (currentOffset < lastEOFMarker && !source.isEOF());
+        }
         if ((lastEOFMarker < Long.MAX_VALUE || endOfObjFound) && lastObjOffset > 0)
         {
             // if the pdf wasn't cut off in the middle or if the last object ends with a "endobj" marker
             // the last object id has to be added here so that it can't get lost as there isn't any subsequent object id
-            bfCOSObjectKeyOffsets.put(new COSObjectKey(lastObjectId, lastGenID),
-                    lastObjOffset);
+            bfCOSObjectKeyOffsets.put(lastObjectId, lastGenID, lastObjOffset);
         }
         // reestablish origin position
         source.seek(originOffset);
         return bfCOSObjectKeyOffsets;
     }
 
+    /**
+     * Returns the markers of a single scan of the whole file, which is done when it is needed for the first time.
+     *
+     * @throws IOException if the file could not be read
+     */
+    private BruteForceScanner getBruteForceScanner() throws IOException
+    {
+        if (bruteForceScanner == null)
+        {
+            long originOffset = source.getPosition();
+            bruteForceScanner = BruteForceScanner.scan(source, MINIMUM_SEARCH_OFFSET,
+                    bruteForceSearchExecutor);
+            source.seek(originOffset);
+        }
+        return bruteForceScanner;
+    }
+
     /**
      * Search for the offset of the given xref table/stream among those found by a brute force search.
      * 
@@ -1430,12 +2366,12 @@ public class COSParser extends BaseParser implements ICOSParser
     private boolean bfSearchForTrailer(COSDictionary trailer) throws IOException
     {
         Map<String, COSDictionary> trailerDicts = new HashMap<>();
+        List<Long> trailerMarkers = getBruteForceScanner().getTrailerMarkers();
         long originOffset = source.getPosition();
-        source.seek(MINIMUM_SEARCH_OFFSET);
         // search for trailer marker
-        long trailerOffset = findString(TRAILER_MARKER);
-        while (trailerOffset != -1)
+        for (long trailerOffset : trailerMarkers)
         {
+            source.seek(trailerOffset + TRAILER_MARKER.length);
             try
             {
                 boolean rootFound = false;
@@ -1471,7 +2407,6 @@ public class COSParser extends BaseParser implements ICOSParser
                 LOG.debug("An exception occurred during brute force search for trailer - ignoring",
                         exception);
             }
-            trailerOffset = findString(TRAILER_MARKER);
         }
         source.seek(originOffset);
         // eliminate double entries
@@ -1556,11 +2491,11 @@ public class COSParser extends BaseParser implements ICOSParser
     private long bfSearchForLastEOFMarker() throws IOException
     {
         long lastEOFMarker = -1;
+        List<Long> eofMarkers = getBruteForceScanner().getEOFMarkers();
         long originOffset = source.getPosition();
-        source.seek(MINIMUM_SEARCH_OFFSET);
-        long tempMarker = findString(EOF_MARKER);
-        while (tempMarker != -1)
+        for (long tempMarker : eofMarkers)
         {
+            source.seek(tempMarker + EOF_MARKER.length);
             try
             {
                 // check if the following data is some valid pdf content
@@ -1580,7 +2515,6 @@ public class COSParser extends BaseParser implements ICOSParser
                         exception);
                 lastEOFMarker = tempMarker;
             }
-            tempMarker = findString(EOF_MARKER);
         }
         source.seek(originOffset);
         // no EOF marker found
@@ -1602,7 +2536,7 @@ public class COSParser extends BaseParser implements ICOSParser
         long originOffset = source.getPosition();
 
         Map<Long, COSObjectKey> bfSearchForObjStreamOffsets = bfSearchForObjStreamOffsets();
-        Map<COSObjectKey, Long> bfCOSObjectOffsets = getBFCOSObjectOffsets();
+        XrefTable bfCOSObjectOffsets = getBFCOSObjectOffsets();
         // log warning about skipped stream
         bfSearchForObjStreamOffsets.entrySet().stream() //
                 .filter(o -> bfCOSObjectOffsets.get(o.getValue()) == null) //
@@ -1633,21 +2567,19 @@ public class COSParser extends BaseParser implements ICOSParser
                 }
                 PDFObjectStreamParser objStreamParser = new PDFObjectStreamParser(stream, document);
                 Map<Long, Integer> objectNumbers = objStreamParser.readObjectNumbers();
-                Map<COSObjectKey, Long> xrefOffset = xrefTrailerResolver.getXrefTable();
+                XrefTable xrefOffset = xrefTrailerResolver.getXrefTable();
                 for (Long objNumber : objectNumbers.keySet())
                 {
-                    COSObjectKey objKey = new COSObjectKey(objNumber, 0);
-                    Long existingOffset = bfCOSObjectOffsets.get(objKey);
-                    if (existingOffset != null && existingOffset < 0)
+                    long existingOffset = bfCOSObjectOffsets.getOffset(objNumber, 0);
+                    if (existingOffset != XrefTable.NOT_FOUND && existingOffset < 0)
                     {
                         // translate stream object key to its offset
-                        COSObjectKey objStmKey = new COSObjectKey(Math.abs(existingOffset), 0);
-                        existingOffset = bfCOSObjectOffsets.get(objStmKey);
+                        existingOffset = bfCOSObjectOffsets.getOffset(Math.abs(existingOffset), 0);
                     }
-                    if (existingOffset == null || offset > existingOffset)
+                    if (existingOffset == XrefTable.NOT_FOUND || offset > existingOffset)
                     {
-                        bfCOSObjectOffsets.put(objKey, -stmObjNumber);
-                        xrefOffset.put(objKey, -stmObjNumber);
+                        bfCOSObjectOffsets.put(objNumber, 0, -stmObjNumber);
+                        xrefOffset.put(objNumber, 0, -stmObjNumber);
                     }
                 }
             }
@@ -1677,11 +2609,9 @@ public class COSParser extends BaseParser implements ICOSParser
     private Map<Long, COSObjectKey> bfSearchForObjStreamOffsets() throws IOException
     {
         HashMap<Long, COSObjectKey> bfSearchObjStreamsOffsets = new HashMap<>();
-        source.seek(MINIMUM_SEARCH_OFFSET);
         char[] string = " obj".toCharArray();
         // search for object stream marker
-        long positionObjStream = findString(OBJ_STREAM);
-        while (positionObjStream != -1)
+        for (long positionObjStream : getBruteForceScanner().getObjectStreamMarkers())
         {
             // search backwards for the beginning of the object
             long newOffset = -1;
@@ -1737,8 +2667,6 @@ public class COSParser extends BaseParser implements ICOSParser
                     }
                 }
             }
-            source.seek(positionObjStream + OBJ_STREAM.length);
-            positionObjStream = findString(OBJ_STREAM);
         }
         return bfSearchObjStreamsOffsets;
     }
@@ -1752,10 +2680,7 @@ public class COSParser extends BaseParser implements ICOSParser
     {
         List<Long> bfSearchXRefTablesOffsets = new ArrayList<>();
         // a pdf may contain more than one xref entry
-        source.seek(MINIMUM_SEARCH_OFFSET);
-        // search for xref tables
-        long newOffset = findString(XREF_TABLE);
-        while (newOffset != -1)
+        for (long newOffset : getBruteForceScanner().getXRefTableMarkers())
         {
             source.seek(newOffset - 1);
             // ensure that we don't read "startxref" instead of "xref"
@@ -1763,8 +2688,6 @@ public class COSParser extends BaseParser implements ICOSParser
             {
                 bfSearchXRefTablesOffsets.add(newOffset);
             }
-            source.seek(newOffset + 4);
-            newOffset = findString(XREF_TABLE);
         }
         return bfSearchXRefTablesOffsets;
     }
@@ -1778,12 +2701,10 @@ public class COSParser extends BaseParser implements ICOSParser
     {
         List<Long> bfSearchXRefStreamsOffsets = new ArrayList<>();
         // a pdf may contain more than one /XRef entry
-        source.seek(MINIMUM_SEARCH_OFFSET);
-        // search for XRef streams
         String objString = " obj";
         char[] string = objString.toCharArray();
-        long xrefOffset = findString(XREF_STREAM);
-        while (xrefOffset != -1)
+        // search for XRef streams
+        for (long xrefOffset : getBruteForceScanner().getXRefStreamMarkers())
         {
             // search backwards for the beginning of the stream
             long newOffset = -1;
@@ -1839,8 +2760,6 @@ public class COSParser extends BaseParser implements ICOSParser
             {
                 bfSearchXRefStreamsOffsets.add(newOffset);
             }
-            source.seek(xrefOffset + 5);
-            xrefOffset = findString(XREF_STREAM);
         }
         return bfSearchXRefStreamsOffsets;
     }
@@ -1854,7 +2773,7 @@ public class COSParser extends BaseParser implements ICOSParser
      */
     private COSDictionary rebuildTrailer() throws IOException
     {
-        Map<COSObjectKey, Long> bfCOSObjectOffsets = getBFCOSObjectOffsets();
+        XrefTable bfCOSObjectOffsets = getBFCOSObjectOffsets();
         // reset trailer resolver
         xrefTrailerResolver.reset();
         // use the found objects to rebuild the trailer resolver
@@ -1936,7 +2855,16 @@ public class COSParser extends BaseParser implements ICOSParser
                 checkPagesDictionary(pages, new HashSet<>());
             }
         }
-        if (root.getCOSDictionary(COSName.PAGES) == null)
+        if (isXrefTableDeferred())
+        {
+            // the page tree root of a linearized file is usually stored in the main section, it is checked when
+            // the page tree is accessed
+            if (root.getItem(COSName.PAGES) == null)
+            {
+                throw new IOException("Page tree root must be a dictionary");
+            }
+        }
+        else if (root.getCOSDictionary(COSName.PAGES) == null)
         {
             throw new IOException("Page tree root must be a dictionary");
         }
@@ -2090,46 +3018,6 @@ public class COSParser extends BaseParser implements ICOSParser
         return bytesMatching;
     }
 
-    /**
-     * Search for the given string. The search starts at the current position and returns the start position if the
-     * string was found. -1 is returned if there isn't any further occurrence of the given string. After returning the
-     * current position is either the end of the string or the end of the input.
-     * 
-     * @param string the string to be searched
-     * @return the start position of the found string
-     * @throws IOException if something went wrong
-     */
-    private long findString(char[] string) throws IOException
-    {
-        long position = -1L;
-        int stringLength = string.length;
-        int counter = 0;
-        int readChar = source.read();
-        while (readChar != -1)
-        {
-            if (readChar == string[counter])
-            {
-                if (counter == 0)
-                {
-                    position = source.getPosition() - 1;
-                }
-                counter++;
-                if (counter == stringLength)
-                {
-                    return position;
-                }
-            }
-            else if (counter > 0)
-            {
-                counter = 0;
-                position = -1L;
-                continue;
-            }
-            readChar = source.read();
-        }
-        return position;
-    }
-
     /**
      * This will parse the trailer from the stream and add it to the state.
      *
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+
+/**
+ * The decoded data of an object stream and the offsets of the contained objects, so that the objects can be parsed
+ * without decoding the stream again. Instances are immutable and may be used by several threads.
+ */
+final class DecodedObjectStream
+{
+    // rough estimate of the memory used by the instance and a single offset entry
+    private static final int OVERHEAD = 128;
+    private static final int OFFSET_ENTRY_OVERHEAD = 64;
+
+    private final byte[] data;
+    private final long firstObjectPosition;
+    private final Map<Long, Integer> objectOffsets;
+
+    DecodedObjectStream(byte[] data, long firstObjectPosition, Map<Long, Integer> objectOffsets)
+    {
+        this.data = data;
+        this.firstObjectPosition = firstObjectPosition;
+        this.objectOffsets = Collections.unmodifiableMap(objectOffsets);
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the decoded object stream.
+     */
+    long getMemoryUsage()
+    {
+        return OVERHEAD + data.length + (long) objectOffsets.size() * OFFSET_ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Parses the object with the given object number.
+     *
+     * @param objectNumber the number of the object to be parsed
+     * @param document the document used to resolve references
+     * @return the parsed object or null if the object with the given number can't be found
+     * @throws IOException if there is an error while parsing the object
+     */
+    COSBase parseObject(long objectNumber, COSDocument document) throws IOException
+    {
+        Integer objectOffset = objectOffsets.get(objectNumber);
+        if (objectOffset == null)
+        {
+            return null;
+        }
+        try (ObjectParser parser = new ObjectParser(new RandomAccessReadBuffer(data), document))
+        {
+            return parser.parseObject(firstObjectPosition + objectOffset);
+        }
+    }
+
+    /**
+     * Parses all objects of the object stream in a single pass.
+     *
+     * @param document the document used to resolve references
+     * @return the parsed objects mapped by their object number
+     * @throws IOException if there is an error while parsing an object
+     */
+    Map<Long, COSBase> parseAllObjects(COSDocument document) throws IOException
+    {
+        // parse the objects in the order of their offsets
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(objectOffsets.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        Map<Long, COSBase> objects = new HashMap<>(entries.size() * 2);
+        try (ObjectParser parser = new ObjectParser(new RandomAccessReadBuffer(data), document))
+        {
+            for (Map.Entry<Long, Integer> entry : entries)
+            {
+                COSBase object = parser.parseObject(firstObjectPosition + entry.getValue());
+                if (object != null)
+                {
+                    objects.put(entry.getKey(), object);
+                }
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Parser of the objects of the decoded data.
+     */
+    private static final class ObjectParser extends BaseParser implements AutoCloseable
+    {
+        private ObjectParser(RandomAccessRead source, COSDocument document)
+        {
+            super(source);
+            this.document = document;
+        }
+
+        private COSBase parseObject(long position) throws IOException
+        {
+            source.seek(position);
+            return parseDirObject();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            source.close();
+            document = null;
+        }
+    }
+}
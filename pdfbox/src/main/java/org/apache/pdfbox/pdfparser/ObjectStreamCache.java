@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe cache of decoded object streams used by a {@link COSParser}, so that an object stream is decoded and
+ * its offset table is read only once instead of once per contained object.
+ *
+ * The cache uses at most the given number of bytes for the decoded streams, the least recently used ones are evicted
+ * first. A stream larger than the limit is still cached until another stream is added.
+ */
+public final class ObjectStreamCache
+{
+    /**
+     * Default maximum number of bytes used for the decoded object streams.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    private final long maxBytes;
+    private final Map<Long, DecodedObjectStream> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache using at most {@link #DEFAULT_MAX_BYTES} bytes.
+     */
+    public ObjectStreamCache()
+    {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a cache using at most the given number of bytes.
+     *
+     * @param maxBytes the maximum number of bytes used for the decoded object streams
+     */
+    public ObjectStreamCache(long maxBytes)
+    {
+        if (maxBytes < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of bytes " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the decoded object stream with the given object number.
+     *
+     * @param objectNumber the object number of the object stream
+     * @return the decoded object stream or null if it isn't cached
+     */
+    DecodedObjectStream get(long objectNumber)
+    {
+        DecodedObjectStream decoded;
+        synchronized (this)
+        {
+            decoded = entries.get(objectNumber);
+        }
+        if (decoded != null)
+        {
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+        }
+        return decoded;
+    }
+
+    /**
+     * Adds the decoded object stream with the given object number unless another thread added it in the meantime.
+     *
+     * @param objectNumber the object number of the object stream
+     * @param decoded the decoded object stream
+     * @return the cached decoded object stream
+     */
+    synchronized DecodedObjectStream put(long objectNumber, DecodedObjectStream decoded)
+    {
+        DecodedObjectStream cached = entries.putIfAbsent(objectNumber, decoded);
+        if (cached != null)
+        {
+            return cached;
+        }
+        bytes += decoded.getMemoryUsage();
+        Iterator<DecodedObjectStream> iterator = entries.values().iterator();
+        // keep the new entry even if it exceeds the limit on its own
+        while (bytes > maxBytes && entries.size() > 1)
+        {
+            bytes -= iterator.next().getMemoryUsage();
+            iterator.remove();
+            evictions.increment();
+        }
+        return decoded;
+    }
+
+    /**
+     * Returns the number of lookups which were served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to decode the object stream.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of decoded object streams which were evicted to stay within the memory limit.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of cached object streams.
+     *
+     * @return the number of cached object streams
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the cached object streams.
+     *
+     * @return the estimated memory usage in bytes
+     */
+    public synchronized long getMemoryUsage()
+    {
+        return bytes;
+    }
+
+    /**
+     * Removes all cached object streams and resets the counters.
+     */
+    public void clear()
+    {
+        synchronized (this)
+        {
+            entries.clear();
+            bytes = 0;
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+}
@@ -24,6 +24,8 @@ import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDocument;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 
 /**
  * This will parse a PDF 1.5 object stream and extract the object with given object number from the stream.
@@ -45,7 +47,13 @@ public class PDFObjectStreamParser extends BaseParser
      */
     public PDFObjectStreamParser(COSStream stream, COSDocument document) throws IOException
     {
-        super(stream.createView());
+        this(stream.createView(), stream, document);
+    }
+
+    private PDFObjectStreamParser(RandomAccessRead decodedStream, COSStream stream,
+            COSDocument document) throws IOException
+    {
+        super(decodedStream);
         this.document = document;
         // get mandatory number of objects
         numberOfObjects = stream.getInt(COSName.N);
@@ -85,14 +93,8 @@ public class PDFObjectStreamParser extends BaseParser
             Integer objectOffset = privateReadObjectNumbers().get(objectNumber);
             if (objectOffset != null) 
             {
-                // jump to the offset of the first object
-                long currentPosition = source.getPosition();
-                if (firstObject > 0 && currentPosition < firstObject)
-                {
-                    source.skip(firstObject - (int) currentPosition);
-                }
                 // jump to the offset of the object to be parsed
-                source.skip(objectOffset);
+                source.seek(getFirstObjectPosition() + objectOffset);
                 streamObject = parseDirObject();
             }
         }
@@ -104,6 +106,16 @@ public class PDFObjectStreamParser extends BaseParser
         return streamObject;
     }
 
+    /**
+     * Returns the position of the first object, the offsets of the objects are relative to it. Has to be called after
+     * reading the object numbers.
+     */
+    private long getFirstObjectPosition() throws IOException
+    {
+        long currentPosition = source.getPosition();
+        return firstObject > 0 && currentPosition < firstObject ? firstObject : currentPosition;
+    }
+
     private Map<Long, Integer> privateReadObjectNumbers() throws IOException
     {
         // don't initialize map using numberOfObjects as there might by less object numbers than expected
@@ -143,4 +155,47 @@ public class PDFObjectStreamParser extends BaseParser
         }
         return objectNumbers;
     }
+
+    /**
+     * Decodes the given object stream and reads all object numbers, so that the objects can be parsed later on without
+     * decoding the stream again.
+     *
+     * @param stream the object stream to be decoded
+     * @return the decoded object stream
+     * @throws IOException if there is an error while decoding or parsing the stream
+     */
+    static DecodedObjectStream decode(COSStream stream) throws IOException
+    {
+        byte[] data;
+        try (RandomAccessRead view = stream.createView())
+        {
+            long length = view.length();
+            if (length > Integer.MAX_VALUE)
+            {
+                throw new IOException("Object stream too large: " + length + " bytes");
+            }
+            data = new byte[(int) length];
+            int offset = 0;
+            while (offset < data.length)
+            {
+                int bytesRead = view.read(data, offset, data.length - offset);
+                if (bytesRead < 0)
+                {
+                    throw new IOException("Premature end of object stream");
+                }
+                offset += bytesRead;
+            }
+        }
+        PDFObjectStreamParser parser = new PDFObjectStreamParser(new RandomAccessReadBuffer(data),
+                stream, null);
+        try
+        {
+            Map<Long, Integer> objectNumbers = parser.privateReadObjectNumbers();
+            return new DecodedObjectStream(data, parser.getFirstObjectPosition(), objectNumbers);
+        }
+        finally
+        {
+            parser.source.close();
+        }
+    }
 }
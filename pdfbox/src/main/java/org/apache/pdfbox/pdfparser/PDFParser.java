@@ -23,13 +23,16 @@ import java.io.InputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSDocument;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
 
 public class PDFParser extends COSParser
@@ -125,7 +128,8 @@ public class PDFParser extends COSParser
     protected void initialParse() throws IOException
     {
         COSDictionary trailer = retrieveTrailer();
-    
+        loadObjectStreams();
+
         COSDictionary root = trailer.getCOSDictionary(COSName.ROOT);
         if (root == null)
         {
@@ -194,6 +198,36 @@ public class PDFParser extends COSParser
         }
     }
 
+    /**
+     * Returns the first page of a linearized file which was opened using its first-page xref section, see
+     * {@link #setLinearizedFirstPageOpen(boolean)}. The page is looked up using the linearization dictionary, so that
+     * neither the page tree nor the main xref section have to be read.
+     *
+     * @return the first page or null if the file wasn't opened using its first-page xref section
+     * @throws IOException if the method is called before parsing the document or the page can't be parsed
+     */
+    public PDPage getFirstPage() throws IOException
+    {
+        COSDictionary linearized = getLinearizationDictionary();
+        if (linearized == null)
+        {
+            return null;
+        }
+        if (document == null)
+        {
+            throw new IOException("You must parse the document first before calling getFirstPage()");
+        }
+        COSObjectKey key = new COSObjectKey(linearized.getLong(COSName.O), 0);
+        COSBase page = document.getObjectFromPool(key).getObject();
+        if (!(page instanceof COSDictionary)
+                || !COSName.PAGE.equals(((COSDictionary) page).getCOSName(COSName.TYPE)))
+        {
+            LOG.warn("The first page " + key + " of the linearization dictionary isn't a page");
+            return null;
+        }
+        return new PDPage((COSDictionary) page);
+    }
+
     /**
      * Create the resulting document. Maybe overwritten if the parser uses another class as document.
      * 
@@ -30,7 +30,6 @@ import org.apache.pdfbox.cos.COSBoolean;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNull;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 
 /**
@@ -173,8 +172,7 @@ public class PDFStreamParser extends BaseParser
             case '.':
                 /* We will be filling buf with the rest of the number.  Only
                  * allow 1 "." and "-" and "+" at start of number. */
-                StringBuilder buf = new StringBuilder();
-                buf.append( c );
+                int length = appendToToken(0, c);
                 source.read();
                 
                 // Ignore double negative (this is consistent with Adobe Reader)
@@ -190,7 +188,7 @@ public class PDFStreamParser extends BaseParser
                     if (c != '-')
                     {
                         // PDFBOX-4064: ignore "-" in the middle of a number
-                        buf.append(c);
+                        length = appendToToken(length, c);
                     }
                     source.read();
 
@@ -199,7 +197,7 @@ public class PDFStreamParser extends BaseParser
                         dotNotRead = false;
                     }
                 }
-                return COSNumber.get(buf.toString());
+                return getCOSNumber(length);
             case 'B':
                 String nextOperator = readString();
                 Operator beginImageOP = Operator.getOperator(nextOperator);
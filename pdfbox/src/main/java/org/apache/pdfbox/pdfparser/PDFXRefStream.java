@@ -18,12 +18,10 @@ package org.apache.pdfbox.pdfparser;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.UncheckedIOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
@@ -33,7 +31,9 @@ import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdfparser.xref.FreeXReference;
+import org.apache.pdfbox.pdfparser.xref.PackedXReferenceEntries;
 import org.apache.pdfbox.pdfparser.xref.XReferenceEntry;
+import org.apache.pdfbox.pdfparser.xref.XReferenceType;
 
 /**
  * @author Alexander Funk
@@ -41,9 +41,8 @@ import org.apache.pdfbox.pdfparser.xref.XReferenceEntry;
 public class PDFXRefStream
 {
 
-    private final List<XReferenceEntry> streamData = new ArrayList<>();
-
-    private final Set<Long> objectNumbers = new TreeSet<>();
+    // the entries are packed into a buffer of the scratch file of the document
+    private final PackedXReferenceEntries streamData;
 
     private final COSStream stream;
 
@@ -57,10 +56,11 @@ public class PDFXRefStream
     public PDFXRefStream(COSDocument cosDocument)
     {
         stream = cosDocument.createCOSStream();
+        streamData = new PackedXReferenceEntries(cosDocument.getScratchFile());
     }
 
     /**
-     * Returns the stream of the XRef.
+     * Returns the stream of the XRef. The entries are released afterwards.
      * @return the XRef stream
      * @throws IOException if something went wrong
      */
@@ -94,6 +94,10 @@ public class PDFXRefStream
             writeStreamData(outputStream, wEntry);
             outputStream.flush();
         }
+        finally
+        {
+            streamData.close();
+        }
     
         Set<COSName> keySet = this.stream.keySet();
         for ( COSName cosName : keySet )
@@ -133,18 +137,38 @@ public class PDFXRefStream
     }
 
     /**
-     * Add an new entry to the XRef stream.
+     * Add an new entry to the XRef stream. The entry is ignored if there is already an entry with the same object
+     * number.
      * 
      * @param entry new entry to be added
+     * @throws UncheckedIOException if the entry couldn't be buffered
      */
     public void addEntry(XReferenceEntry entry)
     {
-        if (objectNumbers.contains(entry.getReferencedKey().getNumber()))
+        try
+        {
+            streamData.add(entry);
+        }
+        catch (IOException e)
         {
-            return;
+            throw new UncheckedIOException(e);
         }
-        objectNumbers.add(entry.getReferencedKey().getNumber());
-        streamData.add(entry);
+    }
+
+    /**
+     * Add an new entry to the XRef stream using the values of its columns. The entry is ignored if there is already an
+     * entry with the same object number.
+     * 
+     * @param type the type of the entry
+     * @param number the object number
+     * @param secondColumnValue the value of the second column
+     * @param thirdColumnValue the value of the third column
+     * @throws IOException if the entry couldn't be buffered
+     */
+    public void addEntry(XReferenceType type, long number, long secondColumnValue,
+            long thirdColumnValue) throws IOException
+    {
+        streamData.add(type, number, secondColumnValue, thirdColumnValue);
     }
 
     /**
@@ -152,14 +176,15 @@ public class PDFXRefStream
      * 
      * @return the length information
      */
-    private int[] getWEntry()
+    private int[] getWEntry() throws IOException
     {
         long[] wMax = new long[3];
-        for (XReferenceEntry entry : streamData)
+        PackedXReferenceEntries.Cursor cursor = streamData.cursor();
+        while (cursor.next())
         {
-            wMax[0] = Math.max(wMax[0], entry.getFirstColumnValue());
-            wMax[1] = Math.max(wMax[1], entry.getSecondColumnValue());
-            wMax[2] = Math.max(wMax[2], entry.getThirdColumnValue());
+            wMax[0] = Math.max(wMax[0], cursor.getType().getNumericValue());
+            wMax[1] = Math.max(wMax[1], cursor.getSecondColumnValue());
+            wMax[2] = Math.max(wMax[2], cursor.getThirdColumnValue());
         }
         // find the max bytes needed to display that column
         int[] w = new int[3];
@@ -184,22 +209,16 @@ public class PDFXRefStream
         this.size = streamSize;
     }
 
-    private List<Long> getIndexEntry()
+    private List<Long> getIndexEntry() throws IOException
     {
         LinkedList<Long> linkedList = new LinkedList<>();
-        Long first = null;
-        Long length = null;
-        Set<Long> objNumbers = new TreeSet<>();
-        // add object number 0 to the set
-        objNumbers.add(0L);
-        objNumbers.addAll(objectNumbers);
-        for ( Long objNumber : objNumbers )
-        {
-            if (first == null)
-            {
-                first = objNumber;
-                length = 1L;
-            }
+        // object number 0 is always part of the index
+        long first = 0;
+        long length = 1;
+        PackedXReferenceEntries.Cursor cursor = streamData.cursor();
+        while (cursor.next())
+        {
+            long objNumber = cursor.getNumber();
             if (first + length == objNumber)
             {
                 length += 1;
@@ -235,17 +254,22 @@ public class PDFXRefStream
 
     private void writeStreamData(OutputStream os, int[] w) throws IOException
     {
-        Collections.sort(streamData);
-        FreeXReference nullEntry = FreeXReference.NULL_ENTRY;
-        writeNumber(os, nullEntry.getFirstColumnValue(), w[0]);
-        writeNumber(os, nullEntry.getSecondColumnValue(), w[1]);
-        writeNumber(os, nullEntry.getThirdColumnValue(), w[2]);
+        PackedXReferenceEntries.Cursor cursor = streamData.cursor();
+        boolean hasEntry = cursor.next();
+        if (!hasEntry || cursor.getNumber() != 0)
+        {
+            FreeXReference nullEntry = FreeXReference.NULL_ENTRY;
+            writeNumber(os, nullEntry.getFirstColumnValue(), w[0]);
+            writeNumber(os, nullEntry.getSecondColumnValue(), w[1]);
+            writeNumber(os, nullEntry.getThirdColumnValue(), w[2]);
+        }
         // iterate over all streamData and write it in the required format
-        for (XReferenceEntry entry : streamData)
+        while (hasEntry)
         {
-            writeNumber(os, entry.getFirstColumnValue(), w[0]);
-            writeNumber(os, entry.getSecondColumnValue(), w[1]);
-            writeNumber(os, entry.getThirdColumnValue(), w[2]);
+            writeNumber(os, cursor.getType().getNumericValue(), w[0]);
+            writeNumber(os, cursor.getSecondColumnValue(), w[1]);
+            writeNumber(os, cursor.getThirdColumnValue(), w[2]);
+            hasEntry = cursor.next();
         }
     }
 
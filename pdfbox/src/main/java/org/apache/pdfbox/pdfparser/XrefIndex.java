@@ -0,0 +1,438 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.cos.XrefTable;
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * The contents of a sidecar file holding the resolved xref table and the trailer of a PDF, so that a {@link COSParser} reopening the
+ * same file doesn't have to parse the xref chain or to repeat a brute force search.
+ *
+ * The index is bound to the PDF by the file length and a SHA-256 hash of the trailer region at the end of the file,
+ * which is where an incremental update or a rewrite of the file changes it. Compressed objects are stored like in
+ * the xref table of the document, i.e. with the negated number of their object stream as offset.
+ */
+final class XrefIndex
+{
+    private static final int MAGIC = 0x50425849; // "PBXI"
+    private static final int VERSION = 1;
+
+    // number of bytes at the end of the file used to identify it
+    private static final int TRAILER_REGION_LENGTH = 4096;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_BOOLEAN = 1;
+    private static final int TYPE_INTEGER = 2;
+    private static final int TYPE_FLOAT = 3;
+    private static final int TYPE_NAME = 4;
+    private static final int TYPE_STRING = 5;
+    private static final int TYPE_ARRAY = 6;
+    private static final int TYPE_DICTIONARY = 7;
+    private static final int TYPE_REFERENCE = 8;
+
+    private final long startXref;
+    private final boolean isXRefStream;
+    private final long highestXRefObjectNumber;
+    private final boolean trailerWasRebuild;
+    private final COSDictionary trailer;
+    private final XrefTable xrefTable;
+
+    /**
+     * Constructor.
+     *
+     * @param startXref the offset of the last xref section
+     * @param isXRefStream true if the last xref section is an xref stream
+     * @param highestXRefObjectNumber the highest object number of the xref table
+     * @param trailerWasRebuild true if the trailer was rebuilt by a brute force search
+     * @param trailer the resolved trailer
+     * @param xrefTable the resolved xref table
+     */
+    XrefIndex(long startXref, boolean isXRefStream, long highestXRefObjectNumber,
+            boolean trailerWasRebuild, COSDictionary trailer, XrefTable xrefTable)
+    {
+        this.startXref = startXref;
+        this.isXRefStream = isXRefStream;
+        this.highestXRefObjectNumber = highestXRefObjectNumber;
+        this.trailerWasRebuild = trailerWasRebuild;
+        this.trailer = trailer;
+        this.xrefTable = xrefTable;
+    }
+
+    long getStartXref()
+    {
+        return startXref;
+    }
+
+    boolean isXRefStream()
+    {
+        return isXRefStream;
+    }
+
+    long getHighestXRefObjectNumber()
+    {
+        return highestXRefObjectNumber;
+    }
+
+    boolean isTrailerWasRebuild()
+    {
+        return trailerWasRebuild;
+    }
+
+    COSDictionary getTrailer()
+    {
+        return trailer;
+    }
+
+    XrefTable getXrefTable()
+    {
+        return xrefTable;
+    }
+
+    /**
+     * Computes the fingerprint of the given source, i.e. the hash of its trailer region.
+     *
+     * @param source the source of the PDF, its position is restored afterwards
+     * @return the fingerprint
+     * @throws IOException if the source could not be read
+     */
+    static byte[] fingerprint(RandomAccessRead source) throws IOException
+    {
+        long originOffset = source.getPosition();
+        long length = source.length();
+        byte[] trailerRegion = new byte[(int) Math.min(length, TRAILER_REGION_LENGTH)];
+        source.seek(length - trailerRegion.length);
+        int offset = 0;
+        while (offset < trailerRegion.length)
+        {
+            int read = source.read(trailerRegion, offset, trailerRegion.length - offset);
+            if (read <= 0)
+            {
+                throw new IOException("Unexpected end of file at offset " + source.getPosition());
+            }
+            offset += read;
+        }
+        source.seek(originOffset);
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(trailerRegion);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen, every Java platform has to support SHA-256
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads an index.
+     *
+     * @param file the index file
+     * @param fileLength the length of the PDF
+     * @param fingerprint the fingerprint of the PDF
+     * @param document the document used to resolve the references of the trailer
+     * @return the index or null if it doesn't belong to the PDF
+     * @throws IOException if the index could not be read or is corrupt
+     */
+    static XrefIndex read(File file, long fileLength, byte[] fingerprint, COSDocument document)
+            throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file.toPath()))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != fileLength)
+            {
+                return null;
+            }
+            byte[] storedFingerprint = new byte[in.readUnsignedByte()];
+            in.readFully(storedFingerprint);
+            if (!Arrays.equals(fingerprint, storedFingerprint))
+            {
+                return null;
+            }
+            long startXref = in.readLong();
+            boolean isXRefStream = in.readBoolean();
+            long highestXRefObjectNumber = in.readLong();
+            boolean trailerWasRebuild = in.readBoolean();
+            COSBase trailer = readObject(in, document);
+            if (!(trailer instanceof COSDictionary))
+            {
+                throw new IOException("Invalid trailer in xref index " + file);
+            }
+            int size = readSize(in);
+            XrefTable xrefTable = new XrefTable();
+            for (int i = 0; i < size; i++)
+            {
+                long number = in.readLong();
+                int generation = in.readUnsignedShort();
+                xrefTable.put(number, generation, in.readLong());
+            }
+            return new XrefIndex(startXref, isXRefStream, highestXRefObjectNumber,
+                    trailerWasRebuild, (COSDictionary) trailer, xrefTable);
+        }
+    }
+
+    /**
+     * Writes the index. The file is replaced atomically, so that a concurrent reader doesn't see a partially written
+     * index.
+     *
+     * @param file the index file
+     * @param fileLength the length of the PDF
+     * @param fingerprint the fingerprint of the PDF
+     * @return false if the trailer contains objects which can't be stored in the index
+     * @throws IOException if the index could not be written
+     */
+    boolean write(File file, long fileLength, byte[] fingerprint) throws IOException
+    {
+        if (!isSupported(trailer))
+        {
+            return false;
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fileLength);
+                out.writeByte(fingerprint.length);
+                out.write(fingerprint);
+                out.writeLong(startXref);
+                out.writeBoolean(isXRefStream);
+                out.writeLong(highestXRefObjectNumber);
+                out.writeBoolean(trailerWasRebuild);
+                writeObject(out, trailer);
+                out.writeInt(xrefTable.size());
+                for (Map.Entry<COSObjectKey, Long> entry : xrefTable.entrySet())
+                {
+                    out.writeLong(entry.getKey().getNumber());
+                    out.writeShort(entry.getKey().getGeneration());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Tests if the given object can be stored in the index, i.e. it doesn't contain any stream.
+     */
+    private static boolean isSupported(COSBase object)
+    {
+        if (object instanceof COSStream)
+        {
+            return false;
+        }
+        if (object instanceof COSArray)
+        {
+            for (COSBase item : (COSArray) object)
+            {
+                if (!isSupported(item))
+                {
+                    return false;
+                }
+            }
+        }
+        else if (object instanceof COSDictionary)
+        {
+            for (COSBase value : ((COSDictionary) object).getValues())
+            {
+                if (!isSupported(value))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeObject(DataOutputStream out, COSBase object) throws IOException
+    {
+        if (object == null || object instanceof COSNull)
+        {
+            out.writeByte(TYPE_NULL);
+        }
+        else if (object instanceof COSObject)
+        {
+            COSObject reference = (COSObject) object;
+            out.writeByte(TYPE_REFERENCE);
+            out.writeLong(reference.getObjectNumber());
+            out.writeShort(reference.getGenerationNumber());
+        }
+        else if (object instanceof COSBoolean)
+        {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(((COSBoolean) object).getValue());
+        }
+        else if (object instanceof COSInteger)
+        {
+            out.writeByte(TYPE_INTEGER);
+            out.writeLong(((COSInteger) object).longValue());
+        }
+        else if (object instanceof COSFloat)
+        {
+            // keep the written representation, which may be more precise than the float value
+            ByteArrayOutputStream value = new ByteArrayOutputStream();
+            ((COSFloat) object).writePDF(value);
+            out.writeByte(TYPE_FLOAT);
+            out.writeUTF(value.toString("ISO-8859-1"));
+        }
+        else if (object instanceof COSName)
+        {
+            out.writeByte(TYPE_NAME);
+            out.writeUTF(((COSName) object).getName());
+        }
+        else if (object instanceof COSString)
+        {
+            COSString string = (COSString) object;
+            out.writeByte(TYPE_STRING);
+            out.writeBoolean(string.getForceHexForm());
+            writeBytes(out, string.getBytes());
+        }
+        else if (object instanceof COSArray)
+        {
+            COSArray array = (COSArray) object;
+            out.writeByte(TYPE_ARRAY);
+            out.writeInt(array.size());
+            for (int i = 0; i < array.size(); i++)
+            {
+                writeObject(out, array.get(i));
+            }
+        }
+        else if (object instanceof COSDictionary)
+        {
+            COSDictionary dictionary = (COSDictionary) object;
+            out.writeByte(TYPE_DICTIONARY);
+            out.writeInt(dictionary.size());
+            for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet())
+            {
+                out.writeUTF(entry.getKey().getName());
+                writeObject(out, entry.getValue());
+            }
+        }
+        else
+        {
+            throw new IOException("Unsupported object in trailer: " + object);
+        }
+    }
+
+    private static COSBase readObject(DataInputStream in, COSDocument document) throws IOException
+    {
+        int type = in.readUnsignedByte();
+        switch (type)
+        {
+        case TYPE_NULL:
+            return COSNull.NULL;
+        case TYPE_REFERENCE:
+            long number = in.readLong();
+            int generation = in.readUnsignedShort();
+            return document.getObjectFromPool(new COSObjectKey(number, generation));
+        case TYPE_BOOLEAN:
+            return COSBoolean.getBoolean(in.readBoolean());
+        case TYPE_INTEGER:
+            return COSInteger.get(in.readLong());
+        case TYPE_FLOAT:
+            return new COSFloat(in.readUTF());
+        case TYPE_NAME:
+            return COSName.getPDFName(in.readUTF());
+        case TYPE_STRING:
+            boolean forceHexForm = in.readBoolean();
+            COSString string = new COSString(readBytes(in));
+            string.setForceHexForm(forceHexForm);
+            return string;
+        case TYPE_ARRAY:
+            int arraySize = readSize(in);
+            COSArray array = new COSArray();
+            for (int i = 0; i < arraySize; i++)
+            {
+                array.add(readObject(in, document));
+            }
+            return array;
+        case TYPE_DICTIONARY:
+            int dictionarySize = readSize(in);
+            COSDictionary dictionary = new COSDictionary();
+            for (int i = 0; i < dictionarySize; i++)
+            {
+                COSName key = COSName.getPDFName(in.readUTF());
+                dictionary.setItem(key, readObject(in, document));
+            }
+            return dictionary;
+        default:
+            throw new IOException("Invalid object type " + type + " in xref index");
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[readSize(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static int readSize(DataInputStream in) throws IOException
+    {
+        int size = in.readInt();
+        // reject obviously corrupt sizes instead of allocating huge arrays
+        if (size < 0 || size > 64 * 1024 * 1024)
+        {
+            throw new IOException("Invalid size " + size + " in xref index");
+        }
+        return size;
+    }
+}
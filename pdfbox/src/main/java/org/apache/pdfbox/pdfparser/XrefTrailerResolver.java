@@ -31,6 +31,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.XrefTable;
 
 /**
  * This class will collect all XRef/trailer objects and creates correct
@@ -64,7 +65,7 @@ public class XrefTrailerResolver
 
         private XRefType xrefType;
 
-        private final Map<COSObjectKey, Long> xrefTable = new HashMap<>();
+        private final XrefTable xrefTable = new XrefTable();
         
         /**
          *  Default constructor.
@@ -182,9 +183,9 @@ public class XrefTrailerResolver
         }
         // PDFBOX-3506 check before adding to the map, to avoid entries from the table being 
         // overwritten by obsolete entries in hybrid files (/XRefStm entry)
-        if (!curXrefTrailerObj.xrefTable.containsKey(objKey) )
+        if (curXrefTrailerObj.xrefTable.getOffset(objKey) == XrefTable.NOT_FOUND)
         {
-            curXrefTrailerObj.xrefTable.put(objKey, offset);
+            curXrefTrailerObj.xrefTable.put(objKey.getNumber(), objKey.getGeneration(), offset);
         }
     }
 
@@ -215,6 +216,16 @@ public class XrefTrailerResolver
         return curXrefTrailerObj.trailer;
     }
 
+    /**
+     * Returns the xref table of the current XRef object, i.e. the entries of the last parsed xref section only.
+     * 
+     * @return the current xref table.
+     */
+    public XrefTable getCurrentXrefTable()
+    {
+        return curXrefTrailerObj.xrefTable;
+    }
+
     /**
      * Sets the byte position of the first XRef
      * (has to be called after very last startxref was read).
@@ -315,7 +326,7 @@ public class XrefTrailerResolver
      *
      * @return the xrefTable if available
      */
-    public Map<COSObjectKey, Long> getXrefTable()
+    public XrefTable getXrefTable()
     {
         return ( resolvedXrefTrailer == null ) ? null : resolvedXrefTrailer.xrefTable;
     }
@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser.xref;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.ScratchFile;
+
+/**
+ * Crossreference entries packed into records of a fixed size, which are kept in a buffer of a {@link ScratchFile}.
+ * Depending on the memory settings of the scratch file the records are kept in main memory or in a temporary file, so
+ * that the heap used for the entries doesn't depend on the number of objects of a document.
+ *
+ * The entries may be added in any order, they are sorted by their object number before they are read. Runs of
+ * ascending object numbers, which is the usual order when writing a document, are merged using a bounded number of
+ * small read buffers. If several entries have the same object number, the one added first is kept.
+ *
+ * @see org.apache.pdfbox.pdfparser.PDFXRefStream
+ */
+public final class PackedXReferenceEntries implements Closeable
+{
+    // the object number shifted left by two bits combined with the type, the second column and the third column
+    private static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    // the number of records read or written at once
+    private static final int CHUNK_RECORDS = 128;
+
+    // the maximum number of runs merged at once
+    private static final int MAX_MERGED_RUNS = 64;
+
+    private static final XReferenceType[] TYPES = new XReferenceType[4];
+
+    static
+    {
+        for (XReferenceType type : XReferenceType.values())
+        {
+            TYPES[type.getNumericValue()] = type;
+        }
+    }
+
+    private final ScratchFile scratchFile;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private RandomAccess buffer;
+    private long count = 0;
+    private long runs = 0;
+    private long lastNumber = -1;
+    private long highestNumber = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param scratchFile the scratch file providing the buffer for the entries
+     */
+    public PackedXReferenceEntries(ScratchFile scratchFile)
+    {
+        this.scratchFile = scratchFile;
+    }
+
+    /**
+     * Adds the given entry.
+     *
+     * @param entry the entry to be added
+     * @throws IOException if the entry couldn't be written to the buffer
+     */
+    public void add(XReferenceEntry entry) throws IOException
+    {
+        add(entry.getType(), entry.getReferencedKey().getNumber(), entry.getSecondColumnValue(),
+                entry.getThirdColumnValue());
+    }
+
+    /**
+     * Adds an entry using the values of the columns of a crossreference stream.
+     *
+     * @param type the type of the entry
+     * @param number the object number
+     * @param secondColumnValue the offset of the object, the object number of the object stream or the object number
+     * of the next free object
+     * @param thirdColumnValue the generation number or the index within the object stream
+     * @throws IOException if the entry couldn't be written to the buffer
+     * @throws IllegalArgumentException if the object number is negative or if the third column doesn't fit into an int
+     */
+    public void add(XReferenceType type, long number, long secondColumnValue, long thirdColumnValue)
+            throws IOException
+    {
+        if (number < 0 || number > Long.MAX_VALUE >> 2)
+        {
+            throw new IllegalArgumentException("Invalid object number " + number);
+        }
+        if (thirdColumnValue < 0 || thirdColumnValue > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Invalid third column value " + thirdColumnValue);
+        }
+        if (buffer == null)
+        {
+            buffer = scratchFile.createBuffer();
+        }
+        if (number <= lastNumber || count == 0)
+        {
+            runs++;
+        }
+        record.clear();
+        record.putLong(number << 2 | type.getNumericValue());
+        record.putLong(secondColumnValue);
+        record.putInt((int) thirdColumnValue);
+        buffer.seek(count * RECORD_SIZE);
+        buffer.write(record.array());
+        count++;
+        lastNumber = number;
+        highestNumber = Math.max(highestNumber, number);
+    }
+
+    /**
+     * Tells whether any entry was added.
+     *
+     * @return true if there aren't any entries
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Returns the highest object number of all entries.
+     *
+     * @return the highest object number or -1 if there aren't any entries
+     */
+    public long getHighestNumber()
+    {
+        return highestNumber;
+    }
+
+    /**
+     * Returns a cursor reading the entries in the order of their object numbers. The cursor must not be used after
+     * further entries were added.
+     *
+     * @return a cursor positioned before the first entry
+     * @throws IOException if the entries couldn't be sorted
+     */
+    public Cursor cursor() throws IOException
+    {
+        sort();
+        return new Cursor(0, count);
+    }
+
+    /**
+     * Passes all entries to the given visitor in the order of their object numbers.
+     *
+     * @param visitor the visitor
+     * @throws IOException if the entries couldn't be read or if the visitor throws it
+     */
+    public void forEach(Visitor visitor) throws IOException
+    {
+        Cursor cursor = cursor();
+        while (cursor.next())
+        {
+            visitor.visit(cursor.getType(), cursor.getNumber(), cursor.getSecondColumnValue(),
+                    cursor.getThirdColumnValue());
+        }
+    }
+
+    /**
+     * Removes all entries and releases the buffer.
+     *
+     * @throws IOException if the buffer couldn't be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (buffer != null)
+        {
+            buffer.close();
+            buffer = null;
+        }
+        count = 0;
+        runs = 0;
+        lastNumber = -1;
+        highestNumber = -1;
+    }
+
+    /**
+     * Merges groups of runs until there is a single run left. Duplicate object numbers are removed when merging.
+     */
+    private void sort() throws IOException
+    {
+        while (runs > 1)
+        {
+            RandomAccess merged = scratchFile.createBuffer();
+            try
+            {
+                ChunkWriter writer = new ChunkWriter(merged);
+                long start = 0;
+                while (start < count)
+                {
+                    start = mergeRuns(start, writer);
+                }
+                writer.flush();
+                buffer.close();
+                buffer = merged;
+                merged = null;
+                count = writer.written;
+                runs = writer.runs;
+                lastNumber = writer.lastNumber;
+            }
+            finally
+            {
+                if (merged != null)
+                {
+                    merged.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the runs starting at the given record into a single run.
+     *
+     * @return the index of the first record after the merged runs
+     */
+    private long mergeRuns(long start, ChunkWriter writer) throws IOException
+    {
+        List<Cursor> cursors = new ArrayList<>();
+        long end = start;
+        while (end < count && cursors.size() < MAX_MERGED_RUNS)
+        {
+            long runEnd = findRunEnd(end);
+            cursors.add(new Cursor(end, runEnd));
+            end = runEnd;
+        }
+        // the runs are ordered as they were added, so that the first entry of an object number wins
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(cursors.size(),
+                (c1, c2) -> c1.number != c2.number ? Long.compare(c1.number, c2.number)
+                        : Long.compare(c1.start, c2.start));
+        for (Cursor cursor : cursors)
+        {
+            if (cursor.next())
+            {
+                queue.add(cursor);
+            }
+        }
+        writer.startRun();
+        while (!queue.isEmpty())
+        {
+            Cursor cursor = queue.poll();
+            writer.write(cursor);
+            if (cursor.next())
+            {
+                queue.add(cursor);
+            }
+        }
+        return end;
+    }
+
+    private long findRunEnd(long start) throws IOException
+    {
+        Cursor cursor = new Cursor(start, count);
+        long previous = -1;
+        while (cursor.next())
+        {
+            if (cursor.number <= previous)
+            {
+                return cursor.position - 1;
+            }
+            previous = cursor.number;
+        }
+        return count;
+    }
+
+    private void read(long position, byte[] data, int length) throws IOException
+    {
+        buffer.seek(position * RECORD_SIZE);
+        int offset = 0;
+        while (offset < length)
+        {
+            int read = buffer.read(data, offset, length - offset);
+            if (read <= 0)
+            {
+                throw new EOFException("Unexpected end of crossreference entries");
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Receives the entries from {@link PackedXReferenceEntries#forEach(Visitor)}.
+     */
+    @FunctionalInterface
+    public interface Visitor
+    {
+        /**
+         * Visits an entry.
+         *
+         * @param type the type of the entry
+         * @param number the object number
+         * @param secondColumnValue the value of the second column of a crossreference stream
+         * @param thirdColumnValue the value of the third column of a crossreference stream
+         * @throws IOException if the entry couldn't be processed
+         */
+        void visit(XReferenceType type, long number, long secondColumnValue, long thirdColumnValue)
+                throws IOException;
+    }
+
+    /**
+     * Reads the entries sequentially. Several cursors may be used at the same time.
+     */
+    public final class Cursor
+    {
+        private final long start;
+        private final long end;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_SIZE);
+        private long chunkStart;
+        private int chunkRecords = 0;
+        private long position;
+
+        private XReferenceType type;
+        private long number = -1;
+        private long secondColumnValue;
+        private long thirdColumnValue;
+
+        private Cursor(long start, long end)
+        {
+            this.start = start;
+            this.end = end;
+            this.position = start;
+            this.chunkStart = start;
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return false if there isn't any entry left
+         * @throws IOException if the entry couldn't be read
+         */
+        public boolean next() throws IOException
+        {
+            if (position >= end)
+            {
+                return false;
+            }
+            if (position >= chunkStart + chunkRecords)
+            {
+                chunkStart = position;
+                chunkRecords = (int) Math.min(CHUNK_RECORDS, end - position);
+                read(chunkStart, chunk.array(), chunkRecords * RECORD_SIZE);
+            }
+            chunk.position((int) (position - chunkStart) * RECORD_SIZE);
+            long numberAndType = chunk.getLong();
+            number = numberAndType >>> 2;
+            type = TYPES[(int) (numberAndType & 3)];
+            secondColumnValue = chunk.getLong();
+            thirdColumnValue = chunk.getInt();
+            position++;
+            return true;
+        }
+
+        /**
+         * @return the type of the current entry
+         */
+        public XReferenceType getType()
+        {
+            return type;
+        }
+
+        /**
+         * @return the object number of the current entry
+         */
+        public long getNumber()
+        {
+            return number;
+        }
+
+        /**
+         * @return the value of the second column of the current entry
+         */
+        public long getSecondColumnValue()
+        {
+            return secondColumnValue;
+        }
+
+        /**
+         * @return the value of the third column of the current entry
+         */
+        public long getThirdColumnValue()
+        {
+            return thirdColumnValue;
+        }
+    }
+
+    /**
+     * Writes merged runs into a new buffer, dropping duplicate object numbers within each run.
+     */
+    private static final class ChunkWriter
+    {
+        private final RandomAccess output;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_SIZE);
+        private long written = 0;
+        private long runs = 0;
+        private long lastNumber = -1;
+
+        private ChunkWriter(RandomAccess output)
+        {
+            this.output = output;
+        }
+
+        private void startRun()
+        {
+            runs++;
+            lastNumber = -1;
+        }
+
+        private void write(Cursor cursor) throws IOException
+        {
+            if (cursor.number == lastNumber)
+            {
+                return;
+            }
+            if (!chunk.hasRemaining())
+            {
+                flush();
+            }
+            chunk.putLong(cursor.number << 2 | cursor.type.getNumericValue());
+            chunk.putLong(cursor.secondColumnValue);
+            chunk.putInt((int) cursor.thirdColumnValue);
+            written++;
+            lastNumber = cursor.number;
+        }
+
+        private void flush() throws IOException
+        {
+            output.write(chunk.array(), 0, chunk.position());
+            chunk.clear();
+        }
+    }
+}
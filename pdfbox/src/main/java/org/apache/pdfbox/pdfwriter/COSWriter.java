@@ -21,25 +21,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.FutureTask;
 
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
@@ -64,7 +66,9 @@ import org.apache.pdfbox.pdfparser.PDFXRefStream;
 import org.apache.pdfbox.pdfparser.xref.FreeXReference;
 import org.apache.pdfbox.pdfparser.xref.NormalXReference;
 import org.apache.pdfbox.pdfparser.xref.ObjectStreamXReference;
+import org.apache.pdfbox.pdfparser.xref.PackedXReferenceEntries;
 import org.apache.pdfbox.pdfparser.xref.XReferenceEntry;
+import org.apache.pdfbox.pdfparser.xref.XReferenceType;
 import org.apache.pdfbox.pdfwriter.compress.COSWriterCompressionPool;
 import org.apache.pdfbox.pdfwriter.compress.COSWriterObjectStream;
 import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
@@ -163,7 +167,11 @@ public class COSWriter implements ICOSVisitor
      * The close stream token.
      */
     public static final byte[] ENDSTREAM = "endstream".getBytes(StandardCharsets.US_ASCII);
-    
+
+    // the number of object streams encoded ahead of the one being written
+    private static final int OBJECT_STREAM_ENCODING_LOOKAHEAD =
+            2 * Runtime.getRuntime().availableProcessors();
+
     private final NumberFormat formatXrefOffset = new DecimalFormat("0000000000",
             DecimalFormatSymbols.getInstance(Locale.US));
 
@@ -185,21 +193,25 @@ public class COSWriter implements ICOSVisitor
 
     // maps the object to the keys generated in the writer
     // these are used for indirect references in other objects
-    //A hashtable is used on purpose over a hashmap
-    //so that null entries will not get added.
-    @SuppressWarnings({"squid:S1149"})
-    private final Map<COSBase,COSObjectKey> objectKeys = new Hashtable<>();
+    // the objects are compared by identity, as equal strings or numbers may be different objects
+    // like the other maps and sets of written objects below, it holds one entry per object until the whole document
+    // is written, as any object may be referenced again later on. Only the xref entries are kept outside of the
+    // heap, the maps are released page by page in streaming mode only, see StreamingPDFWriter
+    private final Map<COSBase,COSObjectKey> objectKeys = new IdentityHashMap<>();
 
     private final Map<COSObjectKey,COSBase> keyObject = new HashMap<>();
 
-    // the list of x ref entries to be made so far
-    private final List<XReferenceEntry> xRefEntries = new ArrayList<>();
+    // the x ref entries to be made so far, packed into a buffer of the scratch file of the document
+    private PackedXReferenceEntries xRefEntries;
 
     //A list of objects to write.
-    private final Deque<COSBase> objectsToWrite = new LinkedList<>();
+    private final Deque<COSBase> objectsToWrite = new ArrayDeque<>();
+
+    //the objects of the list above, to check for queued objects in constant time
+    private final Set<COSBase> objectsToWriteSet = newIdentitySet();
 
     //a list of objects already written
-    private final Set<COSBase> writtenObjects = new HashSet<>();
+    private final Set<COSBase> writtenObjects = newIdentitySet();
 
     //An 'actual' is any COSBase that is not a COSObject.
     //need to keep a list of the actuals that are added
@@ -207,7 +219,7 @@ public class COSWriter implements ICOSVisitor
     //when adding a COSObject and then later adding
     //the actual for that object, so we will track
     //actuals separately.
-    private final Set<COSBase> actualsAdded = new HashSet<>();
+    private final Set<COSBase> actualsAdded = newIdentitySet();
 
     private COSObjectKey currentObjectKey = null;
     private PDDocument pdDocument = null;
@@ -227,8 +239,15 @@ public class COSWriter implements ICOSVisitor
     private byte[] incrementPart;
     private COSArray byteRangeArray;
     private CompressParameters compressParameters = null;
+    private ParallelStreamEncoder streamEncoder = null;
     private boolean blockAddingObject = false;
 
+    // streaming, see StreamingPDFWriter. The keys of the released objects are only set in streaming mode.
+    private ReleasedObjectKeys releasedObjectKeys = null;
+    private final Set<COSBase> deferredObjects = newIdentitySet();
+    private final List<COSStream> writtenStreams = new ArrayList<>();
+    private COSDictionary currentPage = null;
+
     /**
      * COSWriter constructor.
      *
@@ -251,6 +270,10 @@ public class COSWriter implements ICOSVisitor
         setOutput(outputStream);
         setStandardOutput(new COSStandardOutputStream(output));
         this.compressParameters = compressParameters;
+        if (compressParameters != null && compressParameters.getEncodingExecutor() != null)
+        {
+            streamEncoder = new ParallelStreamEncoder(compressParameters);
+        }
     }
 
     /**
@@ -306,6 +329,12 @@ public class COSWriter implements ICOSVisitor
         // documentational purposes only.
         this(outputStream, inputData);
         this.objectsToWrite.addAll(objectsToWrite);
+        this.objectsToWriteSet.addAll(objectsToWrite);
+    }
+
+    private static Set<COSBase> newIdentitySet()
+    {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
     /**
@@ -340,10 +369,18 @@ public class COSWriter implements ICOSVisitor
      * add an entry in the x ref table for later dump.
      *
      * @param entry The new entry to add.
+     * @throws UncheckedIOException if the entry couldn't be buffered
      */
     protected void addXRefEntry(XReferenceEntry entry)
     {
-        getXRefEntries().add(entry);
+        try
+        {
+            xRefEntries.add(entry);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -376,13 +413,48 @@ public class COSWriter implements ICOSVisitor
         return startxref;
     }
     /**
-     * This will get the xref entries.
+     * This will get a snapshot of the xref entries added so far, sorted by their object numbers. Entries added later
+     * aren't part of the returned list, changing the list doesn't change the written xref. The entries don't reference
+     * the written objects.
      *
      * @return All available xref entries.
+     * @throws UncheckedIOException if the entries couldn't be read
      */
     protected List<XReferenceEntry> getXRefEntries()
     {
-        return xRefEntries;
+        List<XReferenceEntry> entries = new ArrayList<>();
+        if (xRefEntries != null)
+        {
+            try
+            {
+                xRefEntries.forEach((type, entryNumber, secondColumnValue, thirdColumnValue) ->
+                        entries.add(createXRefEntry(type, entryNumber, secondColumnValue,
+                                thirdColumnValue)));
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return entries;
+    }
+
+    private static XReferenceEntry createXRefEntry(XReferenceType type, long entryNumber,
+            long secondColumnValue, long thirdColumnValue)
+    {
+        switch (type)
+        {
+        case FREE:
+            return new FreeXReference(new COSObjectKey(entryNumber, (int) thirdColumnValue),
+                    secondColumnValue);
+        case OBJECT_STREAM_ENTRY:
+            return new ObjectStreamXReference((int) thirdColumnValue,
+                    new COSObjectKey(entryNumber, 0), null,
+                    new COSObjectKey(secondColumnValue, 0));
+        default:
+            return new NormalXReference(secondColumnValue,
+                    new COSObjectKey(entryNumber, (int) thirdColumnValue), null);
+        }
     }
 
     /**
@@ -479,6 +551,13 @@ public class COSWriter implements ICOSVisitor
                 objectKeys.put(object, key);
                 keyObject.put(key, object);
             }
+            if (streamEncoder != null)
+            {
+                for (COSObjectKey key : compressionPool.getTopLevelObjects())
+                {
+                    scheduleStreamEncoding(compressionPool.getObject(key));
+                }
+            }
             for (COSObjectKey key : compressionPool.getTopLevelObjects())
             {
                 currentObjectKey = key;
@@ -486,27 +565,63 @@ public class COSWriter implements ICOSVisitor
             }
             // Append object streams to document.
             number = compressionPool.getHighestXRefObjectNumber();
-            for (COSWriterObjectStream finalizedObjectStream : compressionPool
-                    .createObjectStreams())
+            List<COSWriterObjectStream> objectStreams = compressionPool.createObjectStreams();
+            List<FutureTask<?>> encodingTasks = new ArrayList<>();
+            boolean written = false;
+            try
+            {
+                for (int index = 0; index < objectStreams.size(); index++)
+                {
+                    COSWriterObjectStream finalizedObjectStream = objectStreams.get(index);
+                    if (streamEncoder != null)
+                    {
+                        // serialize and compress the following object streams in parallel, the
+                        // object streams are written in the same order as without an executor
+                        int limit = Math.min(objectStreams.size(),
+                                index + OBJECT_STREAM_ENCODING_LOOKAHEAD);
+                        for (int next = encodingTasks.size(); next < limit; next++)
+                        {
+                            COSWriterObjectStream nextObjectStream = objectStreams.get(next);
+                            FutureTask<?> task = new FutureTask<>(() ->
+                            {
+                                nextObjectStream.encode();
+                                return null;
+                            });
+                            encodingTasks.add(task);
+                            streamEncoder.execute(task);
+                        }
+                        ParallelStreamEncoder.getResult(encodingTasks.get(index));
+                        encodingTasks.set(index, null);
+                    }
+                    // Create new COSObject for object stream.
+                    COSStream stream = finalizedObjectStream
+                            .writeObjectsToStream(document.createCOSStream());
+                    // Determine key for object stream.
+                    COSObjectKey objectStreamKey = new COSObjectKey(++number, 0);
+                    // Create new COSObject for object stream.
+                    COSObject objectStream = new COSObject(stream, objectStreamKey);
+                    // Add object stream entries to xref - stream.
+                    int i = 0;
+                    for (COSObjectKey key : finalizedObjectStream.getPreparedKeys())
+                    {
+                        COSBase object = compressionPool.getObject(key);
+                        addXRefEntry(new ObjectStreamXReference(i, key, object, objectStreamKey));
+                        i++;
+                    }
+                    // Include object stream in document.
+                    currentObjectKey = objectStreamKey;
+                    doWriteObject(objectStreamKey, objectStream);
+                }
+                written = true;
+            }
+            finally
             {
-                // Create new COSObject for object stream.
-                COSStream stream = finalizedObjectStream
-                        .writeObjectsToStream(document.createCOSStream());
-                // Determine key for object stream.
-                COSObjectKey objectStreamKey = new COSObjectKey(++number, 0);
-                // Create new COSObject for object stream.
-                COSObject objectStream = new COSObject(stream, objectStreamKey);
-                // Add object stream entries to xref - stream.
-                int i = 0;
-                for (COSObjectKey key : finalizedObjectStream.getPreparedKeys())
+                if (!written)
                 {
-                    COSBase object = compressionPool.getObject(key);
-                    addXRefEntry(new ObjectStreamXReference(i, key, object, objectStreamKey));
-                    i++;
+                    // don't let the remaining tasks read from the document any longer
+                    encodingTasks.stream().filter(Objects::nonNull)
+                            .forEach(task -> task.cancel(true));
                 }
-                // Include object stream in document.
-                currentObjectKey = objectStreamKey;
-                doWriteObject(objectStreamKey, objectStream);
             }
             willEncrypt = false;
             if (encrypt != null)
@@ -527,13 +642,15 @@ public class COSWriter implements ICOSVisitor
     {
         while (!objectsToWrite.isEmpty())
         {
-            doWriteObject(objectsToWrite.removeFirst());
+            COSBase object = objectsToWrite.removeFirst();
+            objectsToWriteSet.remove(object);
+            doWriteObject(object);
         }
     }
 
-    private void addObjectToWrite( COSBase object )
+    private void addObjectToWrite( COSBase object ) throws IOException
     {
-        if (blockAddingObject)
+        if (blockAddingObject || object == null)
         {
             return;
         }
@@ -542,9 +659,27 @@ public class COSWriter implements ICOSVisitor
         {
             actual = ((COSObject)actual).getObject();
         }
+        if (releasedObjectKeys != null && (deferredObjects.contains(actual)
+                || releasedObjectKeys.get(object) != null || releasedObjectKeys.get(actual) != null))
+        {
+            return;
+        }
+        if (releasedObjectKeys != null && actual != currentPage && isPage(actual)
+                && !objectKeys.containsKey(actual))
+        {
+            if (((COSDictionary) actual).containsKey(COSName.PARENT))
+            {
+                // its key may have been released, it must not be written twice
+                throw new IOException(
+                        "A page which was written before or belongs to another document is referenced");
+            }
+            // e.g. the target of a link, the page is written when it is passed to writePage()
+            deferredObjects.add(actual);
+            return;
+        }
 
         if (!writtenObjects.contains(object) //
-                && !objectsToWrite.contains(object) //
+                && !objectsToWriteSet.contains(object) //
                 && !actualsAdded.contains(actual))
         {
             COSBase cosBase = null;
@@ -563,10 +698,21 @@ public class COSWriter implements ICOSVisitor
                 return;
             }
             objectsToWrite.add(object);
+            objectsToWriteSet.add(object);
             if (actual != null)
             {
                 actualsAdded.add(actual);
             }
+            scheduleStreamEncoding(actual);
+        }
+    }
+
+    private void scheduleStreamEncoding(COSBase object) throws IOException
+    {
+        COSBase actual = object instanceof COSObject ? ((COSObject) object).getObject() : object;
+        if (streamEncoder != null && actual instanceof COSStream)
+        {
+            streamEncoder.schedule((COSStream) actual);
         }
     }
 
@@ -678,10 +824,7 @@ public class COSWriter implements ICOSVisitor
         getStandardOutput().writeEOL();
 
         COSDictionary trailer = doc.getTrailer();
-        //sort xref, needed only if object keys not regenerated
-        Collections.sort(getXRefEntries());
-        XReferenceEntry lastEntry = getXRefEntries().get(getXRefEntries().size() - 1);
-        trailer.setLong(COSName.SIZE, lastEntry.getReferencedKey().getNumber() + 1);
+        trailer.setLong(COSName.SIZE, xRefEntries.getHighestNumber() + 1);
         // Only need to stay, if an incremental update will be performed
         if (!incrementalUpdate) 
         {
@@ -715,7 +858,7 @@ public class COSWriter implements ICOSVisitor
             PDFXRefStream pdfxRefStream = new PDFXRefStream(doc);
 
             // add all entries from the incremental update.
-            getXRefEntries().forEach(pdfxRefStream::addEntry);
+            xRefEntries.forEach(pdfxRefStream::addEntry);
 
             COSDictionary trailer = doc.getTrailer();
             if (incrementalUpdate)
@@ -755,94 +898,133 @@ public class COSWriter implements ICOSVisitor
     // writes the "xref" table
     private void doWriteXRefTable() throws IOException
     {
-        if (!incrementalUpdate)
-        {
-            // fill gaps with free entries
-            fillGapsWithFreeEntries();
-        }
-        else
+        if (incrementalUpdate)
         {
             // add free entry with object number 0
             addXRefEntry(FreeXReference.NULL_ENTRY);
         }
 
-        // Filter for NormalXReferences and FreeXReferences
-        // sort xref, needed only if object keys not regenerated
-        List<XReferenceEntry> tmpXRefEntries = getXRefEntries().stream() //
-                .filter(e -> e instanceof NormalXReference || e instanceof FreeXReference) //
-                .sorted() //
-                .collect(Collectors.toList());
-
         // remember the position where x ref was written
         setStartxref(getStandardOutput().getPos());
 
         getStandardOutput().write(XREF);
         getStandardOutput().writeEOL();
         // write start object number and object count for this x ref section
-        // we assume starting from scratch
+        // the entries are read from the buffer, a second cursor looks ahead
+        if (incrementalUpdate)
+        {
+            doWriteXRefSections();
+        }
+        else
+        {
+            doWriteXRefSectionWithFreeEntries();
+        }
+    }
 
-        Long[] xRefRanges = getXRefRanges(tmpXRefEntries);
-        int xRefLength = xRefRanges.length;
-        int x = 0;
-        int j = 0;
-        if ((xRefLength % 2) == 0)
+    /**
+     * Writes the entries as one section starting with object number 0, the gaps are filled with free entries. Each
+     * free entry references the next one, the last one references object number 0.
+     */
+    private void doWriteXRefSectionWithFreeEntries() throws IOException
+    {
+        long size = 0;
+        PackedXReferenceEntries.Cursor entries = xRefEntries.cursor();
+        while (entries.next())
         {
-            while (x < xRefLength)
+            if (entries.getType() == XReferenceType.NORMAL)
             {
-                writeXrefRange(xRefRanges[x], xRefRanges[x + 1]);
-
-                for (int i = 0; i < xRefRanges[x + 1]; ++i)
+                size = entries.getNumber() + 1;
+            }
+        }
+        // object number 0 is always free
+        size = Math.max(size, 1);
+        writeXrefRange(0, size);
+
+        entries = xRefEntries.cursor();
+        long nextUsed = nextNormalEntry(entries);
+        PackedXReferenceEntries.Cursor lookahead = xRefEntries.cursor();
+        long nextUsedAfterFree = nextNormalEntry(lookahead);
+        long nextFree = 0;
+        for (long nr = 0; nr < size; nr++)
+        {
+            if (nr == nextUsed)
+            {
+                writeXrefEntry(entries.getSecondColumnValue(), entries.getThirdColumnValue(), false);
+                nextUsed = nextNormalEntry(entries);
+                continue;
+            }
+            // find the next number which isn't used
+            nextFree = nr + 1;
+            while (nextFree < size && nextFree >= nextUsedAfterFree)
+            {
+                if (nextFree == nextUsedAfterFree)
                 {
-                    writeXrefEntry(tmpXRefEntries.get(j++));
+                    nextFree++;
                 }
-                x += 2;
+                nextUsedAfterFree = nextNormalEntry(lookahead);
             }
+            writeXrefEntry(nextFree < size ? nextFree : 0, 65535, true);
         }
     }
 
-    private void fillGapsWithFreeEntries()
+    /**
+     * Writes the normal and free entries, each run of consecutive object numbers as its own section.
+     */
+    private void doWriteXRefSections() throws IOException
     {
-        List<NormalXReference> normalXReferences = getXRefEntries().stream() //
-                .filter(e -> e instanceof NormalXReference) //
-                .map(NormalXReference.class::cast) //
-                .sorted() //
-                .collect(Collectors.toList());
-        long last = 0;
-        List<Long> freeNumbers = new ArrayList<>();
-        for (NormalXReference entry : normalXReferences)
+        PackedXReferenceEntries.Cursor entries = xRefEntries.cursor();
+        PackedXReferenceEntries.Cursor lookahead = xRefEntries.cursor();
+        boolean hasEntry = nextTableEntry(entries);
+        boolean hasLookahead = nextTableEntry(lookahead);
+        while (hasEntry)
         {
-            long nr = entry.getReferencedKey().getNumber();
-            if (nr != last)
+            long first = entries.getNumber();
+            long count = 0;
+            while (hasLookahead && lookahead.getNumber() == first + count)
             {
-                for (long i = last; i < nr; i++)
-                {
-                    freeNumbers.add(i);
-                }
+                count++;
+                hasLookahead = nextTableEntry(lookahead);
+            }
+            writeXrefRange(first, count);
+            for (long i = 0; i < count; i++)
+            {
+                writeXrefEntry(entries.getSecondColumnValue(), entries.getThirdColumnValue(),
+                        entries.getType() == XReferenceType.FREE);
+                hasEntry = nextTableEntry(entries);
             }
-            last = nr + 1;
-        }
-        int numberOfFreeNumbers = freeNumbers.size();
-        if (numberOfFreeNumbers == 0)
-        {
-            // no gaps found -> add free entry with object number 0
-            addXRefEntry(FreeXReference.NULL_ENTRY);
-            return;
         }
-        // add free entries for all but the last one
-        for (int i = 0; i < numberOfFreeNumbers - 1; i++)
+    }
+
+    /**
+     * Moves to the next normal entry.
+     *
+     * @return the object number of the entry or Long.MAX_VALUE if there isn't any entry left
+     */
+    private static long nextNormalEntry(PackedXReferenceEntries.Cursor cursor) throws IOException
+    {
+        while (cursor.next())
         {
-            addXRefEntry(new FreeXReference(new COSObjectKey(freeNumbers.get(i), 65535),
-                    freeNumbers.get(i + 1)));
+            if (cursor.getType() == XReferenceType.NORMAL)
+            {
+                return cursor.getNumber();
+            }
         }
-        // add free entry for the last one referencing object 0 as next free one
-        addXRefEntry(new FreeXReference(
-                new COSObjectKey(freeNumbers.get(numberOfFreeNumbers - 1), 65535), 0));
-        long firstObjectNumber = freeNumbers.get(0);
-        // add free entry for object number 0 if not already present
-        if (firstObjectNumber > 0)
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Moves to the next entry which is written to a table, i.e. which isn't within an object stream.
+     */
+    private static boolean nextTableEntry(PackedXReferenceEntries.Cursor cursor) throws IOException
+    {
+        while (cursor.next())
         {
-            addXRefEntry(new FreeXReference(new COSObjectKey(0, 65535), firstObjectNumber));
+            if (cursor.getType() != XReferenceType.OBJECT_STREAM_ENTRY)
+            {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -988,15 +1170,16 @@ public class COSWriter implements ICOSVisitor
         getStandardOutput().writeEOL();
     }
 
-    private void writeXrefEntry(XReferenceEntry entry) throws IOException
+    private void writeXrefEntry(long offsetValue, long generationValue, boolean free)
+            throws IOException
     {
-        String offset = formatXrefOffset.format(entry.getSecondColumnValue());
-        String generation = formatXrefGeneration.format(entry.getThirdColumnValue());
+        String offset = formatXrefOffset.format(offsetValue);
+        String generation = formatXrefGeneration.format(generationValue);
         getStandardOutput().write(offset.getBytes(StandardCharsets.ISO_8859_1));
         getStandardOutput().write(SPACE);
         getStandardOutput().write(generation.getBytes(StandardCharsets.ISO_8859_1));
         getStandardOutput().write(SPACE);
-        getStandardOutput().write(entry instanceof FreeXReference ? XREF_FREE : XREF_USED);
+        getStandardOutput().write(free ? XREF_FREE : XREF_USED);
         getStandardOutput().writeCRLF();
     }
 
@@ -1074,6 +1257,14 @@ public class COSWriter implements ICOSVisitor
         {
             key = objectKeys.get(actual);
         }
+        if (key == null && releasedObjectKeys != null)
+        {
+            key = releasedObjectKeys.get(obj);
+            if (key == null)
+            {
+                key = releasedObjectKeys.get(actual);
+            }
+        }
         if (key == null)
         {
             key = new COSObjectKey(++number, 0);
@@ -1272,6 +1463,20 @@ public class COSWriter implements ICOSVisitor
 
     @Override
     public Object visitFromDocument(COSDocument doc) throws IOException
+    {
+        xRefEntries = new PackedXReferenceEntries(doc.getScratchFile());
+        try
+        {
+            doWriteDocument(doc);
+        }
+        finally
+        {
+            xRefEntries.close();
+        }
+        return null;
+    }
+
+    private void doWriteDocument(COSDocument doc) throws IOException
     {
         if(!incrementalUpdate)
         {
@@ -1286,13 +1491,23 @@ public class COSWriter implements ICOSVisitor
             getStandardOutput().writeCRLF();
         }
 
-        if (isCompress())
+        try
         {
-            doWriteBodyCompressed(doc);
+            if (isCompress())
+            {
+                doWriteBodyCompressed(doc);
+            }
+            else
+            {
+                doWriteBody(doc);
+            }
         }
-        else
+        finally
         {
-            doWriteBody(doc);
+            if (streamEncoder != null)
+            {
+                streamEncoder.cancel();
+            }
         }
 
         // get the previous trailer
@@ -1314,13 +1529,7 @@ public class COSWriter implements ICOSVisitor
             doWriteTrailer(doc);
         }
 
-        // write endof
-        getStandardOutput().write(STARTXREF);
-        getStandardOutput().writeEOL();
-        getStandardOutput().write(String.valueOf(getStartxref()).getBytes(StandardCharsets.ISO_8859_1));
-        getStandardOutput().writeEOL();
-        getStandardOutput().write(EOF);
-        getStandardOutput().writeEOL();
+        doWriteEOF();
 
         if (incrementalUpdate)
         {
@@ -1333,8 +1542,6 @@ public class COSWriter implements ICOSVisitor
                 doWriteSignature();
             }
         }
-
-        return null;
     }
 
     @Override
@@ -1385,22 +1592,29 @@ public class COSWriter implements ICOSVisitor
     @Override
     public Object visitFromStream(COSStream obj) throws IOException
     {
-        if (willEncrypt)
+        if (releasedObjectKeys != null)
         {
-            pdDocument.getEncryption().getSecurityHandler()
-                .encryptStream(obj, currentObjectKey.getNumber(), currentObjectKey.getGeneration());
+            writtenStreams.add(obj);
         }
+        // the encoded data is written using a copy of the stream, which is encrypted instead of it
+        COSStream encodedStream = streamEncoder != null ? streamEncoder.apply(obj) : null;
+        COSStream stream = encodedStream != null ? encodedStream : obj;
 
         InputStream input = null;
         try
         {
+            if (willEncrypt)
+            {
+                pdDocument.getEncryption().getSecurityHandler().encryptStream(stream,
+                        currentObjectKey.getNumber(), currentObjectKey.getGeneration());
+            }
             // write the stream content
-            visitFromDictionary(obj);
+            visitFromDictionary(stream);
             getStandardOutput().write(STREAM);
             getStandardOutput().writeCRLF();
-            if (obj.hasData())
+            if (stream.hasData())
             {
-                input = obj.createRawInputStream();
+                input = stream.createRawInputStream();
                 IOUtils.copy(input, getStandardOutput());
             }
             getStandardOutput().writeCRLF();
@@ -1414,6 +1628,10 @@ public class COSWriter implements ICOSVisitor
             {
                 input.close();
             }
+            if (encodedStream != null)
+            {
+                encodedStream.close();
+            }
         }
     }
 
@@ -1431,6 +1649,17 @@ public class COSWriter implements ICOSVisitor
         return null;
     }
 
+    private void doWriteEOF() throws IOException
+    {
+        // write endof
+        getStandardOutput().write(STARTXREF);
+        getStandardOutput().writeEOL();
+        getStandardOutput().write(String.valueOf(getStartxref()).getBytes(StandardCharsets.ISO_8859_1));
+        getStandardOutput().writeEOL();
+        getStandardOutput().write(EOF);
+        getStandardOutput().writeEOL();
+    }
+
     /**
      * This will write the pdf document.
      *
@@ -1475,6 +1704,11 @@ public class COSWriter implements ICOSVisitor
 
         pdDocument = doc;
         signatureInterface = signInterface;
+        if (incrementalUpdate)
+        {
+            // the increment refers to the objects of the whole xref table
+            doc.getDocument().resolveDeferredXrefTable();
+        }
         number = pdDocument.getDocument().getHighestXRefObjectNumber();
 
         if(incrementalUpdate)
@@ -1515,6 +1749,15 @@ public class COSWriter implements ICOSVisitor
             }
         }
 
+        prepareDocumentId(idTime);
+        pdDocument.getDocument().accept(this);
+    }
+
+    /**
+     * Creates the ID of the document, if it doesn't have one or if it is updated incrementally.
+     */
+    private void prepareDocumentId(long idTime)
+    {
         COSDocument cosDoc = pdDocument.getDocument();
         COSDictionary trailer = cosDoc.getTrailer();
         COSArray idArray;
@@ -1566,7 +1809,6 @@ public class COSWriter implements ICOSVisitor
             idArray.add( secondID );
             trailer.setItem(COSName.ID, idArray);
         }
-        cosDoc.accept(this);
     }
 
     /**
@@ -1666,4 +1908,182 @@ public class COSWriter implements ICOSVisitor
             output.write('>');
         }
     }
+
+    /**
+     * Starts writing the given document in streaming mode by writing the header. The objects are written with
+     * {@link #writeObjectGraph(COSBase)} and released with {@link #releaseWrittenObjects()}, the document is finished
+     * with {@link #finishStreaming()}.
+     *
+     * @param doc the document to be written
+     * @throws IOException if the header couldn't be written or the document is encrypted
+     */
+    void startStreaming(PDDocument doc) throws IOException
+    {
+        if (doc.getEncryption() != null || doc.isAllSecurityToBeRemoved())
+        {
+            throw new IOException("Encrypted documents can't be written in streaming mode");
+        }
+        pdDocument = doc;
+        number = doc.getDocument().getHighestXRefObjectNumber();
+        releasedObjectKeys = new ReleasedObjectKeys();
+        xRefEntries = new PackedXReferenceEntries(doc.getDocument().getScratchFile());
+        doWriteHeader(doc.getDocument());
+    }
+
+    /**
+     * Defers writing the given object until {@link #writeDeferredObject(COSBase)} or {@link #finishStreaming()} is
+     * called. References to the object are written using a reserved key in the meantime.
+     *
+     * @param object the object to be deferred
+     */
+    void deferObject(COSBase object)
+    {
+        deferredObjects.add(object);
+    }
+
+    /**
+     * Writes the given deferred object, if any reference to it was written.
+     *
+     * @param object the deferred object
+     * @throws IOException if the object couldn't be written
+     */
+    void writeDeferredObject(COSBase object) throws IOException
+    {
+        deferredObjects.remove(object);
+        if (objectKeys.containsKey(object) || releasedObjectKeys.get(object) != null)
+        {
+            doWriteObject(object);
+            doWriteObjects();
+        }
+    }
+
+    /**
+     * Writes the given page and all objects reachable from it, which weren't written or deferred yet. Other pages
+     * referenced by these objects are deferred until they are passed to this method.
+     *
+     * @param page the page to be written
+     * @throws IOException if the objects couldn't be written
+     */
+    void writePage(COSDictionary page) throws IOException
+    {
+        currentPage = page;
+        try
+        {
+            // the page may have been referenced by a page written before
+            writeDeferredObject(page);
+            writeObjectGraph(page);
+        }
+        finally
+        {
+            currentPage = null;
+        }
+    }
+
+    private static boolean isPage(COSBase object)
+    {
+        return object instanceof COSDictionary
+                && COSName.PAGE.equals(((COSDictionary) object).getCOSName(COSName.TYPE));
+    }
+
+    /**
+     * Writes the given object and all objects reachable from it, which weren't written or deferred yet.
+     *
+     * @param object the object to be written
+     * @throws IOException if the objects couldn't be written
+     */
+    void writeObjectGraph(COSBase object) throws IOException
+    {
+        addObjectToWrite(object);
+        doWriteObjects();
+    }
+
+    /**
+     * Creates an object which is written as a reference to the given object. The reference doesn't keep the object
+     * in memory.
+     *
+     * @param object the referenced object
+     * @return the reference
+     */
+    COSObject createReference(COSBase object)
+    {
+        COSObjectKey key = getObjectKey(object);
+        COSObject reference = new COSObject(null);
+        writtenObjects.add(reference);
+        objectKeys.put(reference, key);
+        return reference;
+    }
+
+    /**
+     * Releases all objects written so far, only their keys are kept as long as the objects are reachable otherwise.
+     * The written streams, which were created by the document, are closed.
+     *
+     * @throws IOException if a stream couldn't be closed
+     */
+    void releaseWrittenObjects() throws IOException
+    {
+        objectKeys.forEach(releasedObjectKeys::put);
+        objectKeys.clear();
+        keyObject.clear();
+        writtenObjects.clear();
+        actualsAdded.clear();
+        COSDocument cosDoc = pdDocument.getDocument();
+        for (COSStream stream : writtenStreams)
+        {
+            cosDoc.closeCOSStream(stream);
+        }
+        writtenStreams.clear();
+    }
+
+    /**
+     * Writes the deferred objects, the document catalog, the document information, the xref table and the trailer.
+     *
+     * @throws IOException if the document couldn't be written
+     */
+    void finishStreaming() throws IOException
+    {
+        try
+        {
+            // write the referenced deferred objects in the order of their keys
+            List<COSBase> referenced = new ArrayList<>();
+            for (COSBase object : deferredObjects)
+            {
+                if (objectKeys.containsKey(object) || releasedObjectKeys.get(object) != null)
+                {
+                    if (isPage(object))
+                    {
+                        throw new IOException("A referenced page wasn't written");
+                    }
+                    referenced.add(object);
+                }
+            }
+            deferredObjects.clear();
+            referenced.sort(Comparator.comparing(this::getObjectKey));
+            for (COSBase object : referenced)
+            {
+                doWriteObject(object);
+                doWriteObjects();
+            }
+            COSDictionary trailer = pdDocument.getDocument().getTrailer();
+            COSBase root = trailer.getItem(COSName.ROOT);
+            if (root != null)
+            {
+                writeObjectGraph(root);
+            }
+            COSBase info = trailer.getItem(COSName.INFO);
+            if (info != null)
+            {
+                writeObjectGraph(info);
+            }
+            prepareDocumentId(pdDocument.getDocumentId() == null ? System.currentTimeMillis()
+                    : pdDocument.getDocumentId());
+            doWriteXRefTable();
+            doWriteTrailer(pdDocument.getDocument());
+            doWriteEOF();
+            getStandardOutput().flush();
+        }
+        finally
+        {
+            xRefEntries.close();
+        }
+    }
 }
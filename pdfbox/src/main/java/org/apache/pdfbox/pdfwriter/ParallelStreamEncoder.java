@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+
+/**
+ * Flate-encodes the data of the streams to be written by a {@link COSWriter} in parallel. The object streams are
+ * encoded using {@link #execute(FutureTask)} as well.
+ *
+ * The streams are scheduled in the order in which they are queued by the writer. The data of a scheduled stream is
+ * read on the writer thread, only the encoding runs on the executor, so that the sources of the streams are never
+ * accessed concurrently. The number of bytes read but not written yet is limited, further streams wait until the
+ * writer has written some of the pending ones. A stream exceeding the limit on its own is only read when no other
+ * stream is pending. When the writer reaches a stream, it waits for its encoded data and
+ * writes a copy of the stream holding the encoded data, so that the streams of the document are left as they are.
+ */
+final class ParallelStreamEncoder
+{
+    private final CompressParameters parameters;
+    private final Executor executor;
+    private final long maxPendingBytes;
+
+    private final Map<COSStream, PendingStream> pendingStreams = new IdentityHashMap<>();
+    private final Deque<PendingStream> waitingStreams = new ArrayDeque<>();
+    private long pendingBytes;
+
+    /**
+     * Constructor.
+     *
+     * @param parameters the parameters providing the executor, the maximum number of bytes read but not written yet
+     * and the deflater settings
+     */
+    ParallelStreamEncoder(CompressParameters parameters)
+    {
+        this.parameters = parameters;
+        this.executor = parameters.getEncodingExecutor();
+        this.maxPendingBytes = parameters.getMaxPendingEncodingBytes();
+    }
+
+    /**
+     * Schedules the given stream to be encoded, if it doesn't have any filter yet. Does nothing if the stream is
+     * already scheduled.
+     *
+     * @param stream the stream to be written
+     * @throws IOException if the data of the stream can't be read
+     */
+    void schedule(COSStream stream) throws IOException
+    {
+        if (pendingStreams.containsKey(stream) || !isEncodable(stream))
+        {
+            return;
+        }
+        PendingStream pending = new PendingStream(stream);
+        pendingStreams.put(stream, pending);
+        waitingStreams.add(pending);
+        submitWaitingStreams();
+    }
+
+    private boolean isEncodable(COSStream stream)
+    {
+        if (!stream.hasData() || stream.getFilters() != null
+                || stream.containsKey(COSName.DECODE_PARMS))
+        {
+            return false;
+        }
+        // metadata should stay readable without decoding it
+        COSName type = stream.getCOSName(COSName.TYPE);
+        if (COSName.METADATA.equals(type) || COSName.XREF.equals(type)
+                || COSName.OBJ_STM.equals(type))
+        {
+            return false;
+        }
+        // streams exceeding the limit are encoded on their own, see submitWaitingStreams()
+        return stream.getLength() > 0;
+    }
+
+    private void submitWaitingStreams() throws IOException
+    {
+        while (!waitingStreams.isEmpty())
+        {
+            PendingStream pending = waitingStreams.peekFirst();
+            // a single stream is always submitted, even if it exceeds the limit on its own
+            if (pendingBytes > 0 && pendingBytes + pending.stream.getLength() > maxPendingBytes)
+            {
+                return;
+            }
+            waitingStreams.removeFirst();
+            submit(pending);
+        }
+    }
+
+    private void submit(PendingStream pending) throws IOException
+    {
+        byte[] data;
+        try (InputStream input = pending.stream.createRawInputStream())
+        {
+            data = IOUtils.toByteArray(input);
+        }
+        pending.size = data.length;
+        pendingBytes += data.length;
+        pending.task = new FutureTask<>(() -> encode(data));
+        execute(pending.task);
+    }
+
+    /**
+     * Runs the given task on the executor, or on the calling thread if the executor rejects it.
+     *
+     * @param task the task to be run
+     */
+    void execute(FutureTask<?> task)
+    {
+        try
+        {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            task.run();
+        }
+    }
+
+    private byte[] encode(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(data.length / 2 + 64);
+        Deflater deflater = parameters.createDeflater();
+        try (OutputStream output = new DeflaterOutputStream(encoded, deflater))
+        {
+            output.write(data);
+        }
+        finally
+        {
+            deflater.end();
+        }
+        return encoded.toByteArray();
+    }
+
+    /**
+     * Returns a copy of the given stream holding its encoded data, if it was scheduled. Waits until the encoding is
+     * finished if necessary. The given stream is left as it is.
+     *
+     * @param stream the stream which is written next
+     * @return an in-memory copy of the stream to be written instead of it and to be closed by the caller, or null if
+     * the stream wasn't scheduled or if the encoded data isn't smaller
+     * @throws IOException if the stream couldn't be encoded
+     */
+    COSStream apply(COSStream stream) throws IOException
+    {
+        PendingStream pending = pendingStreams.remove(stream);
+        if (pending == null)
+        {
+            return null;
+        }
+        if (pending.task == null)
+        {
+            // the stream is written before the streams scheduled before it
+            waitingStreams.remove(pending);
+            submit(pending);
+        }
+        byte[] encoded;
+        try
+        {
+            encoded = getResult(pending.task);
+        }
+        finally
+        {
+            pendingBytes -= pending.size;
+        }
+        COSStream encodedStream = null;
+        if (encoded.length < pending.size)
+        {
+            encodedStream = new COSStream();
+            encodedStream.addAll(stream);
+            try (OutputStream output = encodedStream.createRawOutputStream())
+            {
+                output.write(encoded);
+            }
+            encodedStream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        }
+        submitWaitingStreams();
+        return encodedStream;
+    }
+
+    /**
+     * Waits for the given task and returns its result.
+     *
+     * @param task the task
+     * @return the result of the task
+     * @throws IOException if the task failed with an IOException or the calling thread was interrupted
+     */
+    static <T> T getResult(FutureTask<T> task) throws IOException
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Encoding of stream was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Cancels the encoding of all streams which weren't written.
+     */
+    void cancel()
+    {
+        pendingStreams.values().stream().filter(pending -> pending.task != null)
+                .forEach(pending -> pending.task.cancel(true));
+        pendingStreams.clear();
+        waitingStreams.clear();
+        pendingBytes = 0;
+    }
+
+    private static final class PendingStream
+    {
+        private final COSStream stream;
+        private FutureTask<byte[]> task;
+        private long size;
+
+        private PendingStream(COSStream stream)
+        {
+            this.stream = stream;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSObjectKey;
+
+/**
+ * The keys of the objects already written by a streaming {@link COSWriter}. The objects are compared by identity and
+ * are only weakly referenced, so that the writer doesn't keep them in memory. As long as the caller keeps an object,
+ * e.g. an image drawn on several pages, further references to it are written using the same key. Entries of objects
+ * which were garbage collected are removed on the next modification.
+ */
+final class ReleasedObjectKeys
+{
+    private final ReferenceQueue<COSBase> queue = new ReferenceQueue<>();
+    private final Map<IdentityReference, COSObjectKey> keys = new HashMap<>();
+
+    /**
+     * Returns the key of the given object.
+     *
+     * @param object the object, may be null
+     * @return the key or null if the object wasn't written
+     */
+    COSObjectKey get(COSBase object)
+    {
+        return object != null ? keys.get(new IdentityReference(object, null)) : null;
+    }
+
+    /**
+     * Stores the key of the given object.
+     *
+     * @param object the written object
+     * @param key the key of the object
+     */
+    void put(COSBase object, COSObjectKey key)
+    {
+        expungeStaleEntries();
+        keys.put(new IdentityReference(object, queue), key);
+    }
+
+    /**
+     * Returns the number of entries, including those of objects which were garbage collected recently.
+     */
+    int size()
+    {
+        return keys.size();
+    }
+
+    private void expungeStaleEntries()
+    {
+        Reference<? extends COSBase> reference;
+        while ((reference = queue.poll()) != null)
+        {
+            keys.remove(reference);
+        }
+    }
+
+    private static final class IdentityReference extends WeakReference<COSBase>
+    {
+        private final int hash;
+
+        private IdentityReference(COSBase object, ReferenceQueue<COSBase> queue)
+        {
+            super(object, queue);
+            hash = System.identityHashCode(object);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof IdentityReference))
+            {
+                return false;
+            }
+            COSBase object = get();
+            return object != null && object == ((IdentityReference) obj).get();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Writes a document page by page, so that only the page being created has to be kept in memory.
+ *
+ * Each page passed to {@link #writePage(PDPage)} is written immediately, together with all objects reachable from it,
+ * e.g. its content streams, images and fonts. Afterwards the written streams are closed and the writer keeps only the
+ * object numbers of the written objects. Objects which are used on several pages, e.g. an image or a font, are written
+ * once and referenced by the following pages, as long as the caller keeps them. Fonts which are subset are written when
+ * the writer is closed, as the subset isn't known before. The page tree, the document catalog, the document
+ * information, the xref table and the trailer are written when the writer is closed as well.
+ *
+ * The pages must not be added to the document, and objects must not be modified after they were written, as they
+ * aren't written again. A page may be referenced before it is written, e.g. by a link on a previous page, but every
+ * referenced page has to be passed to {@link #writePage(PDPage)}. Encryption and compression into object streams
+ * aren't supported.
+ *
+ * <pre>
+ * try (PDDocument document = new PDDocument();
+ *         StreamingPDFWriter writer = new StreamingPDFWriter(document, output))
+ * {
+ *     for (...)
+ *     {
+ *         PDPage page = new PDPage();
+ *         try (PDPageContentStream contents = new PDPageContentStream(document, page))
+ *         {
+ *             ...
+ *         }
+ *         writer.writePage(page);
+ *     }
+ * }
+ * </pre>
+ */
+public class StreamingPDFWriter implements Closeable
+{
+    // the maximum number of kids of a node of the page tree
+    private static final int PAGE_TREE_NODE_SIZE = 64;
+
+    private final PDDocument document;
+    private final COSWriter writer;
+
+    // the nodes of the page tree which aren't written yet, indexed by their level above the pages
+    private final List<COSDictionary> openNodes = new ArrayList<>();
+    private boolean closed = false;
+
+    /**
+     * Creates a writer for the given document and writes the header of the document.
+     *
+     * @param document the document, which must not contain any pages
+     * @param output the stream to write to, which isn't closed by this writer. It is recommended to wrap it in a
+     * {@link java.io.BufferedOutputStream}, unless it is already buffered.
+     * @throws IOException if the header couldn't be written or the document is encrypted
+     * @throws IllegalArgumentException if the document contains any pages
+     */
+    public StreamingPDFWriter(PDDocument document, OutputStream output) throws IOException
+    {
+        if (document.getNumberOfPages() > 0)
+        {
+            throw new IllegalArgumentException(
+                    "The document must not contain any pages, they have to be passed to writePage()");
+        }
+        this.document = document;
+        writer = new COSWriter(output);
+        writer.startStreaming(document);
+    }
+
+    /**
+     * Writes the given page and all objects reachable from it, except the fonts which will be subset. The written
+     * streams are closed afterwards.
+     *
+     * @param page the page to be written, which must not be part of a document
+     * @throws IOException if the page couldn't be written
+     * @throws IllegalArgumentException if the page was written before or is part of a document
+     */
+    public void writePage(PDPage page) throws IOException
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("The writer has been closed");
+        }
+        COSDictionary pageDictionary = page.getCOSObject();
+        if (pageDictionary.containsKey(COSName.PARENT))
+        {
+            throw new IllegalArgumentException(
+                    "The page was written before or is part of a document");
+        }
+        for (PDFont font : document.getFontsToSubset())
+        {
+            writer.deferObject(font.getCOSObject());
+        }
+        pageDictionary.setItem(COSName.PARENT, getOpenNode(0));
+        writer.writePage(pageDictionary);
+        addKid(0, pageDictionary, 1);
+        writer.releaseWrittenObjects();
+    }
+
+    private COSDictionary getOpenNode(int level)
+    {
+        while (openNodes.size() <= level)
+        {
+            openNodes.add(null);
+        }
+        COSDictionary node = openNodes.get(level);
+        if (node == null)
+        {
+            node = new COSDictionary();
+            node.setItem(COSName.TYPE, COSName.PAGES);
+            node.setItem(COSName.KIDS, new COSArray());
+            node.setInt(COSName.COUNT, 0);
+            // the node is written when it is full or when the writer is closed
+            writer.deferObject(node);
+            openNodes.set(level, node);
+        }
+        return node;
+    }
+
+    /**
+     * Adds the given kid to the open node of the given level. The node is written if it is full.
+     */
+    private void addKid(int level, COSDictionary kid, int pageCount) throws IOException
+    {
+        COSDictionary node = getOpenNode(level);
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        kids.add(writer.createReference(kid));
+        node.setInt(COSName.COUNT, node.getInt(COSName.COUNT) + pageCount);
+        if (kids.size() == PAGE_TREE_NODE_SIZE)
+        {
+            writeNode(level);
+        }
+    }
+
+    private void writeNode(int level) throws IOException
+    {
+        COSDictionary node = openNodes.get(level);
+        openNodes.set(level, null);
+        node.setItem(COSName.PARENT, getOpenNode(level + 1));
+        writer.writeDeferredObject(node);
+        addKid(level + 1, node, node.getInt(COSName.COUNT));
+    }
+
+    /**
+     * Writes the remaining nodes of the page tree, the fonts which were subset, the document catalog, the document
+     * information, the xref table and the trailer. The output stream is flushed, but not closed.
+     *
+     * @throws IOException if the document couldn't be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        COSDictionary catalog = document.getDocumentCatalog().getCOSObject();
+        COSBase pages = catalog.getItem(COSName.PAGES);
+        try
+        {
+            catalog.setItem(COSName.PAGES, writePageTree(catalog.getCOSDictionary(COSName.PAGES)));
+            document.subsetFonts();
+            writer.finishStreaming();
+        }
+        finally
+        {
+            // the written page tree only consists of references
+            catalog.setItem(COSName.PAGES, pages);
+        }
+    }
+
+    /**
+     * Writes the open nodes of the page tree bottom-up, except the topmost one, which becomes the root.
+     *
+     * @return the root of the page tree
+     */
+    private COSDictionary writePageTree(COSDictionary pageTreeRoot) throws IOException
+    {
+        for (int level = 0; level < openNodes.size() - 1; level++)
+        {
+            COSDictionary node = openNodes.get(level);
+            if (node != null)
+            {
+                writeNode(level);
+            }
+        }
+        COSDictionary root = getOpenNode(openNodes.isEmpty() ? 0 : openNodes.size() - 1);
+        if (pageTreeRoot != null)
+        {
+            // keep the inheritable attributes of the original root
+            for (Map.Entry<COSName, COSBase> entry : pageTreeRoot.entrySet())
+            {
+                if (!root.containsKey(entry.getKey()))
+                {
+                    root.setItem(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return root;
+    }
+}
@@ -176,7 +176,7 @@ public class COSWriterCompressionPool
         {
             if ((value instanceof COSDictionary || value instanceof COSObject
                     || value instanceof COSArray)
-                    && !traversedObject.getAllTraversedObjects().contains(value))
+                    && !traversedObject.isTraversed(value))
             {
                 addStructure(traversedObject.appendTraversedElement(value));
             }
@@ -191,7 +191,7 @@ public class COSWriterCompressionPool
             COSBase value = entry.getValue();
             if ((value instanceof COSDictionary || value instanceof COSObject
                     || value instanceof COSArray)
-                    && !traversedObject.getAllTraversedObjects().contains(value))
+                    && !traversedObject.isTraversed(value))
             {
                 addStructure(traversedObject.appendTraversedElement(value));
             }
@@ -209,6 +209,16 @@ public class COSWriterCompressionPool
         return topLevelObjects;
     }
 
+    /**
+     * Returns the configuration of the compression operations.
+     *
+     * @return The configuration of the compression operations.
+     */
+    CompressParameters getParameters()
+    {
+        return parameters;
+    }
+
     /**
      * Returns all {@link COSBase}s that can be appended to an object stream. This list is only provided to enable
      * reflections. Contained objects should indeed be added to a compressed document via an object stream, as can be
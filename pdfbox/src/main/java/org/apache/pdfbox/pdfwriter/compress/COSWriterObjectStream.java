@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * An instance of this class represents an object stream, that compresses a number of {@link COSObject}s in a stream. It
@@ -43,6 +45,8 @@ public class COSWriterObjectStream
     private final COSWriterCompressionPool compressionPool;
     private final List<COSObjectKey> preparedKeys = new ArrayList<>();
     private final List<COSBase> preparedObjects = new ArrayList<>();
+    private byte[] encodedData;
+    private int firstObjectOffset;
 
     /**
      * Creates an object stream for compressible objects from the given {@link COSWriterCompressionPool}. The objects
@@ -86,7 +90,8 @@ public class COSWriterObjectStream
     }
 
     /**
-     * Writes all prepared {@link COSObject}s to the given {@link COSStream}.
+     * Writes all prepared {@link COSObject}s to the given {@link COSStream}. The objects are serialized and compressed
+     * first, if {@link COSWriterObjectStream#encode()} wasn't called before.
      *
      * @param stream The stream for the compressed objects.
      * @return The given {@link COSStream} of this object stream.
@@ -94,9 +99,32 @@ public class COSWriterObjectStream
      */
     public COSStream writeObjectsToStream(COSStream stream) throws IOException
     {
-        int objectCount = preparedKeys.size();
+        if (encodedData == null)
+        {
+            encode();
+        }
         stream.setItem(COSName.TYPE, COSName.OBJ_STM);
-        stream.setInt(COSName.N, objectCount);
+        stream.setInt(COSName.N, preparedKeys.size());
+        stream.setInt(COSName.FIRST, firstObjectOffset);
+        try (OutputStream output = stream.createRawOutputStream())
+        {
+            output.write(encodedData);
+        }
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        encodedData = null;
+        return stream;
+    }
+
+    /**
+     * Serializes and compresses all prepared {@link COSObject}s in memory, using the deflater settings of the
+     * {@link CompressParameters} of the compression pool. This doesn't modify any shared state, so that several object
+     * streams of the same compression pool may be encoded concurrently.
+     *
+     * @throws IOException Shall be thrown, if serializing the objects failed.
+     */
+    public void encode() throws IOException
+    {
+        int objectCount = preparedKeys.size();
         // Prepare the compressible objects for writing.
         List<Long> objectNumbers = new ArrayList<>();
         List<byte[]> objectsBuffer = new ArrayList<>();
@@ -129,17 +157,23 @@ public class COSWriterObjectStream
             offsetsMapBuffer = partialOutput.toByteArray();
         }
 
-        // Write Flate compressed object stream data.
-        try (OutputStream output = stream.createOutputStream(COSName.FLATE_DECODE))
+        // Flate compress the object stream data.
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        Deflater deflater = compressionPool.getParameters().createDeflater();
+        try (OutputStream output = new DeflaterOutputStream(encoded, deflater))
         {
             output.write(offsetsMapBuffer);
-            stream.setInt(COSName.FIRST, offsetsMapBuffer.length);
             for (byte[] rawObject : objectsBuffer)
             {
                 output.write(rawObject);
             }
         }
-        return stream;
+        finally
+        {
+            deflater.end();
+        }
+        firstObjectOffset = offsetsMapBuffer.length;
+        encodedData = encoded.toByteArray();
     }
 
     /**
@@ -16,6 +16,11 @@
  */
 package org.apache.pdfbox.pdfwriter.compress;
 
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import org.apache.pdfbox.filter.Filter;
+
 /**
  * An instance of this class centralizes and provides the configuration for a PDF compression.
  * 
@@ -28,7 +33,13 @@ public class CompressParameters
 
     public static final int DEFAULT_OBJECT_STREAM_SIZE = 200;
 
+    public static final long DEFAULT_MAX_PENDING_ENCODING_BYTES = 64L * 1024 * 1024;
+
     private final int objectStreamSize;
+    private final Executor encodingExecutor;
+    private final long maxPendingEncodingBytes;
+    private final int deflateLevel;
+    private final int deflateStrategy;
 
     public CompressParameters()
     {
@@ -44,12 +55,72 @@ public class CompressParameters
      * 
      */
     public CompressParameters(int objectStreamSize)
+    {
+        this(objectStreamSize, null, DEFAULT_MAX_PENDING_ENCODING_BYTES);
+    }
+
+    /**
+     * Sets the number of objects, that can be contained in compressed object streams, and an executor used to encode
+     * streams in parallel while saving. If an executor is given, the data of streams without any filter is
+     * Flate-encoded on the executor before the streams are written and the object streams are serialized and encoded
+     * on the executor as well. The writer itself still writes the objects one by one in a deterministic order, so
+     * that the output is the same as without an executor. The streams of the document are left as they are.
+     *
+     * @param objectStreamSize The number of objects, that can be contained in compressed object streams. A value of 0
+     * disables the compression.
+     * @param encodingExecutor The executor used to encode the streams, or null to write the streams as they are.
+     * @param maxPendingEncodingBytes The maximum number of bytes of stream data held in memory while waiting to be
+     * written. A stream larger than this is encoded on its own, while no other stream is pending.
+     */
+    public CompressParameters(int objectStreamSize, Executor encodingExecutor,
+            long maxPendingEncodingBytes)
+    {
+        this(objectStreamSize, encodingExecutor, maxPendingEncodingBytes,
+                Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    /**
+     * Sets the number of objects, that can be contained in compressed object streams, an executor used to encode
+     * streams in parallel while saving and the level and strategy of the {@link Deflater} used to encode the object
+     * streams and the streams encoded while saving. A higher level results in smaller files at the expense of CPU
+     * time.
+     *
+     * @param objectStreamSize The number of objects, that can be contained in compressed object streams. A value of 0
+     * disables the compression.
+     * @param encodingExecutor The executor used to encode the streams, or null to write the streams as they are.
+     * @param maxPendingEncodingBytes The maximum number of bytes of stream data held in memory while waiting to be
+     * written. A stream larger than this is encoded on its own, while no other stream is pending.
+     * @param deflateLevel The compression level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION} to use the level
+     * of {@link Filter#getCompressionLevel()}.
+     * @param deflateStrategy The compression strategy, one of {@link Deflater#DEFAULT_STRATEGY},
+     * {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}.
+     */
+    public CompressParameters(int objectStreamSize, Executor encodingExecutor,
+            long maxPendingEncodingBytes, int deflateLevel, int deflateStrategy)
     {
         if (objectStreamSize < 0)
         {
             throw new IllegalArgumentException("Object stream size can't be a negative value");
         }
+        if (maxPendingEncodingBytes <= 0)
+        {
+            throw new IllegalArgumentException(
+                    "The maximum number of pending encoding bytes must be positive");
+        }
+        if (deflateLevel < Deflater.DEFAULT_COMPRESSION || deflateLevel > Deflater.BEST_COMPRESSION)
+        {
+            throw new IllegalArgumentException("Invalid deflate level " + deflateLevel);
+        }
+        if (deflateStrategy != Deflater.DEFAULT_STRATEGY && deflateStrategy != Deflater.FILTERED
+                && deflateStrategy != Deflater.HUFFMAN_ONLY)
+        {
+            throw new IllegalArgumentException("Invalid deflate strategy " + deflateStrategy);
+        }
         this.objectStreamSize = objectStreamSize;
+        this.encodingExecutor = encodingExecutor;
+        this.maxPendingEncodingBytes = maxPendingEncodingBytes;
+        this.deflateLevel = deflateLevel;
+        this.deflateStrategy = deflateStrategy;
     }
 
     /**
@@ -64,6 +135,62 @@ public class CompressParameters
         return objectStreamSize;
     }
 
+    /**
+     * Returns the executor used to encode streams in parallel while saving.
+     *
+     * @return the executor, or null if the streams are written as they are.
+     */
+    public Executor getEncodingExecutor()
+    {
+        return encodingExecutor;
+    }
+
+    /**
+     * Returns the maximum number of bytes of stream data held in memory while waiting to be written.
+     *
+     * @return the maximum number of pending bytes.
+     */
+    public long getMaxPendingEncodingBytes()
+    {
+        return maxPendingEncodingBytes;
+    }
+
+    /**
+     * Returns the compression level of the {@link Deflater} used to encode the object streams.
+     *
+     * @return the compression level, or {@link Deflater#DEFAULT_COMPRESSION} if the level of
+     * {@link Filter#getCompressionLevel()} is used.
+     */
+    public int getDeflateLevel()
+    {
+        return deflateLevel;
+    }
+
+    /**
+     * Returns the compression strategy of the {@link Deflater} used to encode the object streams.
+     *
+     * @return the compression strategy.
+     */
+    public int getDeflateStrategy()
+    {
+        return deflateStrategy;
+    }
+
+    /**
+     * Creates a new {@link Deflater} using the configured level and strategy. The deflater has to be ended by the
+     * caller.
+     *
+     * @return a new deflater.
+     */
+    public Deflater createDeflater()
+    {
+        int level = deflateLevel == Deflater.DEFAULT_COMPRESSION ? Filter.getCompressionLevel()
+                : deflateLevel;
+        Deflater deflater = new Deflater(level);
+        deflater.setStrategy(deflateStrategy);
+        return deflater;
+    }
+
     /**
      * Indicates whether the creation of compressed object streams is enabled or not.
      * 
@@ -21,7 +21,10 @@ import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSStream;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * An instance of this class represents a traversed element of a COS tree. It allows to determine the position of a
@@ -38,6 +41,8 @@ public class TraversedCOSElement
     private final List<TraversedCOSElement> traversedChildren = new ArrayList<>();
     private boolean partOfStreamDictionary = false;
     private final List<COSBase> allObjects;
+    // the objects of the list above, to check for traversed objects in constant time
+    private final Set<COSBase> allObjectsSet;
 
     /**
      * Construct a fresh entrypoint for the traversal of a hierarchical COS structure, beginning with the given
@@ -47,7 +52,8 @@ public class TraversedCOSElement
      */
     public TraversedCOSElement(COSBase currentObject)
     {
-        this(new ArrayList<>(), null, currentObject);
+        this(new ArrayList<>(), Collections.newSetFromMap(new IdentityHashMap<>()), null,
+                currentObject);
     }
 
     /**
@@ -55,15 +61,17 @@ public class TraversedCOSElement
      * {@link COSBase}, preceded by this given list of ancestors and contained in the given parent structure.
      *
      * @param allObjects The list of nodes, that have been traversed to reach the current object.
+     * @param allObjectsSet The nodes of the list above.
      * @param parent The parent node, that does contain this node.
      * @param currentObject The initial {@link COSBase}, with which the structure traversal shall begin.
      */
-    private TraversedCOSElement(List<COSBase> allObjects, TraversedCOSElement parent,
-            COSBase currentObject)
+    private TraversedCOSElement(List<COSBase> allObjects, Set<COSBase> allObjectsSet,
+            TraversedCOSElement parent, COSBase currentObject)
     {
         this.parent = parent;
         this.currentObject = currentObject;
         this.allObjects = allObjects;
+        this.allObjectsSet = allObjectsSet;
     }
 
     /**
@@ -79,7 +87,9 @@ public class TraversedCOSElement
             return this;
         }
         allObjects.add(element);
-        TraversedCOSElement traversedElement = new TraversedCOSElement(allObjects, this, element);
+        allObjectsSet.add(element);
+        TraversedCOSElement traversedElement = new TraversedCOSElement(allObjects, allObjectsSet,
+                this, element);
         traversedElement.setPartOfStreamDictionary(
                 isPartOfStreamDictionary() || getCurrentBaseObject() instanceof COSStream);
         this.traversedChildren.add(traversedElement);
@@ -164,6 +174,18 @@ public class TraversedCOSElement
         return allObjects;
     }
 
+    /**
+     * Returns true, if the given object has been traversed in the created traversal tree. The objects are compared by
+     * identity.
+     *
+     * @param object The {@link COSBase}, that shall be checked.
+     * @return True, if the given object has been traversed in the created traversal tree.
+     */
+    public boolean isTraversed(COSBase object)
+    {
+        return allObjectsSet.contains(object);
+    }
+
     /**
      * Returns true, if the given traversal node has been marked as a part of a {@link COSStream}.
      *
@@ -19,8 +19,8 @@ package org.apache.pdfbox.pdmodel;
 
 import java.io.IOException;
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
 import org.apache.pdfbox.pdmodel.font.PDFont;
@@ -39,25 +39,25 @@ import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 public class DefaultResourceCache implements ResourceCache
 {
     private final Map<COSObject, SoftReference<PDFont>> fonts =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
     
     private final Map<COSObject, SoftReference<PDColorSpace>> colorSpaces =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     private final Map<COSObject, SoftReference<PDXObject>> xobjects =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     private final Map<COSObject, SoftReference<PDExtendedGraphicsState>> extGStates =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     private final Map<COSObject, SoftReference<PDShading>> shadings =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     private final Map<COSObject, SoftReference<PDAbstractPattern>> patterns =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     private final Map<COSObject, SoftReference<PDPropertyList>> properties =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     @Override
     public PDFont getFont(COSObject indirect) throws IOException
@@ -73,7 +73,7 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDFont font) throws IOException
     {
-        fonts.put(indirect, new SoftReference<>(font));
+        put(fonts, indirect, font);
     }
 
     @Override
@@ -90,7 +90,7 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDColorSpace colorSpace) throws IOException
     {
-        colorSpaces.put(indirect, new SoftReference<>(colorSpace));
+        put(colorSpaces, indirect, colorSpace);
     }
 
     @Override
@@ -107,7 +107,7 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDExtendedGraphicsState extGState)
     {
-        extGStates.put(indirect, new SoftReference<>(extGState));
+        put(extGStates, indirect, extGState);
     }
 
     @Override
@@ -124,7 +124,7 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDShading shading) throws IOException
     {
-        shadings.put(indirect, new SoftReference<>(shading));
+        put(shadings, indirect, shading);
     }
 
     @Override
@@ -141,7 +141,7 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDAbstractPattern pattern) throws IOException
     {
-        patterns.put(indirect, new SoftReference<>(pattern));
+        put(patterns, indirect, pattern);
     }
     
     @Override
@@ -158,7 +158,7 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDPropertyList propertyList)
     {
-        properties.put(indirect, new SoftReference<>(propertyList));
+        put(properties, indirect, propertyList);
     }
 
     @Override
@@ -175,6 +175,15 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObject indirect, PDXObject xobject) throws IOException
     {
-        xobjects.put(indirect, new SoftReference<>(xobject));
+        put(xobjects, indirect, xobject);
+    }
+
+    private static <T> void put(Map<COSObject, SoftReference<T>> map, COSObject indirect, T value)
+    {
+        // direct objects aren't cached, the cache may be accessed concurrently when rendering
+        if (indirect != null)
+        {
+            map.put(indirect, new SoftReference<>(value));
+        }
     }
 }
@@ -181,7 +181,7 @@ abstract class PDAbstractContentStream implements Closeable
         {
             if (document != null)
             {
-                document.getFontsToSubset().add(font);
+                document.addFontToSubset(font);
             }
             else
             {
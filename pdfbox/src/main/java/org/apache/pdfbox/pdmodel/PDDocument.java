@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -871,11 +872,37 @@ public class PDDocument implements Closeable
     }
 
     /**
-     * Returns the list of fonts which will be subset before the document is saved.
+     * Returns the fonts which will be subset before the document is saved. Experts only, this is used by writers which
+     * have to subset the fonts themselves, see {@link #subsetFonts()}.
+     *
+     * @return an unmodifiable view of the fonts which will be subset
+     */
+    public Set<PDFont> getFontsToSubset()
+    {
+        return Collections.unmodifiableSet(fontsToSubset);
+    }
+
+    /**
+     * Adds a font which will be subset before the document is saved.
+     */
+    void addFontToSubset(PDFont font)
+    {
+        fontsToSubset.add(font);
+    }
+
+    /**
+     * Subsets the fonts returned by {@link #getFontsToSubset()}, which are removed afterwards. This is done when the
+     * document is saved. Experts only, this is used by writers which have to subset the fonts themselves.
+     *
+     * @throws IOException if a font couldn't be subset
      */
-    Set<PDFont> getFontsToSubset()
+    public void subsetFonts() throws IOException
     {
-        return fontsToSubset;
+        for (PDFont font : fontsToSubset)
+        {
+            font.subset();
+        }
+        fontsToSubset.clear();
     }
     
     /**
@@ -999,11 +1026,7 @@ public class PDDocument implements Closeable
         document.setIsXRefStream(compressParameters != null //
                 && CompressParameters.NO_COMPRESSION != compressParameters);
         // subset designated fonts
-        for (PDFont font : fontsToSubset)
-        {
-            font.subset();
-        }
-        fontsToSubset.clear();
+        subsetFonts();
 
         // save PDF
         COSWriter writer = new COSWriter(output, compressParameters);
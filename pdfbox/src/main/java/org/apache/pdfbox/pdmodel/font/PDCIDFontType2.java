@@ -19,8 +19,8 @@ package org.apache.pdfbox.pdmodel.font;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -53,7 +53,7 @@ public class PDCIDFontType2 extends PDCIDFont
     private final CmapLookup cmap; // may be null
     private Matrix fontMatrix;
     private BoundingBox fontBBox;
-    private final Set<Integer> noMapping = new HashSet<>();
+    private final Set<Integer> noMapping = ConcurrentHashMap.newKeySet();
 
     /**
      * Constructor.
@@ -256,10 +256,9 @@ public class PDCIDFontType2 extends PDCIDFont
                 String unicode = parent.toUnicode(code);
                 if (unicode == null)
                 {
-                    if (!noMapping.contains(code))
+                    // we keep track of which warnings have been issued, so we don't log multiple times
+                    if (noMapping.add(code))
                     {
-                        // we keep track of which warnings have been issued, so we don't log multiple times
-                        noMapping.add(code);
                         LOG.warn("Failed to find a character mapping for " + code + " in " + getName());
                     }
                     // Acrobat is willing to use the CID as a GID, even when the font isn't embedded
@@ -104,7 +104,8 @@ public abstract class PDFont implements COSObjectable, PDFontLike
     protected PDFont(COSDictionary fontDictionary)
     {
         dict = fontDictionary;
-        codeToWidthMap = new HashMap<>();
+        // fonts may be shared between threads rendering pages of the same document
+        codeToWidthMap = new ConcurrentHashMap<>();
 
         // standard 14 fonts use an AFM
         afmStandard14 = Standard14Fonts.getAFM(getName()); // may be null (it usually is)
@@ -18,9 +18,9 @@ package org.apache.pdfbox.pdmodel.font;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.FontBoxFont;
@@ -47,7 +47,8 @@ public abstract class PDSimpleFont extends PDFont
     protected Encoding encoding;
     protected GlyphList glyphList;
     private Boolean isSymbolic;
-    private final Set<Integer> noUnicode = new HashSet<>(); // for logging
+    // for logging, the font may be used by several threads
+    private final Set<Integer> noUnicode = ConcurrentHashMap.newKeySet();
 
     /**
      * Constructor for embedding.
@@ -293,10 +294,9 @@ public abstract class PDSimpleFont extends PDFont
         }
 
         // if no value has been produced, there is no way to obtain Unicode for the character.
-        if (LOG.isWarnEnabled() && !noUnicode.contains(code))
+        // we keep track of which warnings have been issued, so we don't log multiple times
+        if (LOG.isWarnEnabled() && noUnicode.add(code))
         {
-            // we keep track of which warnings have been issued, so we don't log multiple times
-            noUnicode.add(code);
             if (name != null)
             {
                 LOG.warn("No Unicode mapping for " + name + " (" + code + ") in font " +
@@ -20,8 +20,8 @@ import java.awt.geom.GeneralPath;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -49,7 +49,7 @@ public class PDType0Font extends PDFont implements PDVectorFont
     private static final Log LOG = LogFactory.getLog(PDType0Font.class);
 
     private final PDCIDFont descendantFont;
-    private final Set<Integer> noUnicode = new HashSet<>(); 
+    private final Set<Integer> noUnicode = ConcurrentHashMap.newKeySet();
     private final GsubData gsubData;
     private final CmapLookup cmapLookup;
     private CMap cMap, cMapUCS2;
@@ -522,13 +522,12 @@ public class PDType0Font extends PDFont implements PDVectorFont
         }
         else
         {
-            if (LOG.isWarnEnabled() && !noUnicode.contains(code))
+            // we keep track of which warnings have been issued, so we don't log multiple times
+            if (LOG.isWarnEnabled() && noUnicode.add(code))
             {
                 // if no value has been produced, there is no way to obtain Unicode for the character.
                 String cid = "CID+" + codeToCID(code);
                 LOG.warn("No Unicode mapping for " + cid + " (" + code + ") in font " + getName());
-                // we keep track of which warnings have been issued, so we don't log multiple times
-                noUnicode.add(code);
             }
             return null;
         }
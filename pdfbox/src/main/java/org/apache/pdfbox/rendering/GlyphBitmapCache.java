@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * A thread-safe cache of rasterized glyphs, used to speed up rendering of small text at low
+ * resolutions, e.g. thumbnails and previews.
+ *
+ * A glyph is rasterized once for a given font, character code, device scale, subpixel offset and
+ * color, later occurrences are drawn as an image. The subpixel offset is quantized to a quarter of
+ * a pixel, so that the glyphs may be placed slightly different than when filling their outlines.
+ * Glyphs are only cached if they are filled with a plain color, not rotated or skewed and not
+ * larger than {@link #MAX_GLYPH_SIZE} pixels.
+ *
+ * The cache uses at most the given number of bytes for the glyph images, the least recently used
+ * ones are evicted first.
+ */
+public final class GlyphBitmapCache
+{
+    /**
+     * Default maximum number of bytes used for the cached glyph images.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Maximum width and height in pixels of a cached glyph.
+     */
+    public static final int MAX_GLYPH_SIZE = 128;
+
+    private static final int SUBPIXELS = 4;
+    private static final int NUMBER_OF_STRIPES = 16;
+    // rough estimate of the memory used by a cache entry without its pixels
+    private static final int ENTRY_OVERHEAD = 256;
+
+    // marker of glyphs which are too large to be cached
+    private static final GlyphBitmap TOO_LARGE = new GlyphBitmap(null, 0, 0);
+
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache using at most {@link #DEFAULT_MAX_BYTES} bytes.
+     */
+    public GlyphBitmapCache()
+    {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a cache using at most the given number of bytes.
+     *
+     * @param maxBytes the maximum number of bytes used for the cached glyph images
+     */
+    public GlyphBitmapCache(long maxBytes)
+    {
+        if (maxBytes < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of bytes " + maxBytes);
+        }
+        stripes = new Stripe[NUMBER_OF_STRIPES];
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++)
+        {
+            stripes[i] = new Stripe(Math.max(1, maxBytes / NUMBER_OF_STRIPES));
+        }
+    }
+
+    /**
+     * Returns the rasterized glyph for the given device transform. The glyph is rasterized if it
+     * isn't cached yet.
+     *
+     * @param font the font of the glyph
+     * @param code the character code of the glyph
+     * @param path the glyph outline
+     * @param deviceTransform the transformation from glyph space to device space
+     * @param color the fill color
+     * @param renderingHints the rendering hints used to rasterize the glyph
+     * @return the rasterized glyph, or null if the glyph can't be cached because of its transform
+     * or size
+     */
+    GlyphBitmap getBitmap(PDFont font, int code, GeneralPath path,
+            AffineTransform deviceTransform, Color color, RenderingHints renderingHints)
+    {
+        if (deviceTransform.getShearX() != 0 || deviceTransform.getShearY() != 0)
+        {
+            return null;
+        }
+        double x = deviceTransform.getTranslateX();
+        double y = deviceTransform.getTranslateY();
+        double originX = Math.floor(x);
+        double originY = Math.floor(y);
+        int subpixelX = (int) ((x - originX) * SUBPIXELS);
+        int subpixelY = (int) ((y - originY) * SUBPIXELS);
+        boolean antialias = RenderingHints.VALUE_ANTIALIAS_ON
+                .equals(renderingHints.get(RenderingHints.KEY_ANTIALIASING));
+        GlyphKey key = new GlyphKey(font, code, deviceTransform.getScaleX(),
+                deviceTransform.getScaleY(), subpixelX, subpixelY, color.getRGB(), antialias);
+        Stripe stripe = stripes[key.hashCode() & (NUMBER_OF_STRIPES - 1)];
+        GlyphBitmap bitmap = stripe.get(key);
+        if (bitmap == TOO_LARGE)
+        {
+            return null;
+        }
+        if (bitmap != null)
+        {
+            hits.increment();
+            return bitmap.translate((int) originX, (int) originY);
+        }
+        misses.increment();
+
+        // rasterize the glyph without holding the lock, a concurrent rasterization is harmless
+        AffineTransform at = AffineTransform.getTranslateInstance(
+                (double) subpixelX / SUBPIXELS, (double) subpixelY / SUBPIXELS);
+        at.scale(deviceTransform.getScaleX(), deviceTransform.getScaleY());
+        Shape glyph = at.createTransformedShape(path);
+        Rectangle bounds = glyph.getBounds();
+        if (bounds.width > MAX_GLYPH_SIZE || bounds.height > MAX_GLYPH_SIZE)
+        {
+            stripe.put(key, TOO_LARGE);
+            return null;
+        }
+        BufferedImage image = null;
+        if (!bounds.isEmpty())
+        {
+            image = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHints(renderingHints);
+            g.setColor(color);
+            g.translate(-bounds.x, -bounds.y);
+            g.fill(glyph);
+            g.dispose();
+        }
+        bitmap = stripe.put(key, new GlyphBitmap(image, bounds.x, bounds.y));
+        return bitmap.translate((int) originX, (int) originY);
+    }
+
+    /**
+     * Returns the number of lookups which were served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to rasterize the glyph.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the cached glyphs.
+     *
+     * @return the estimated memory usage in bytes
+     */
+    public long getMemoryUsage()
+    {
+        long bytes = 0;
+        for (Stripe stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                bytes += stripe.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Removes all cached glyphs and resets the counters.
+     */
+    public void clear()
+    {
+        for (Stripe stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                stripe.entries.clear();
+                stripe.bytes = 0;
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * A rasterized glyph and the device space position of its upper left corner.
+     */
+    static final class GlyphBitmap
+    {
+        private final BufferedImage image;
+        private final int x;
+        private final int y;
+
+        private GlyphBitmap(BufferedImage image, int x, int y)
+        {
+            this.image = image;
+            this.x = x;
+            this.y = y;
+        }
+
+        private GlyphBitmap translate(int dx, int dy)
+        {
+            return new GlyphBitmap(image, x + dx, y + dy);
+        }
+
+        private int getBytes()
+        {
+            return image == null ? ENTRY_OVERHEAD
+                    : ENTRY_OVERHEAD + image.getWidth() * image.getHeight() * 4;
+        }
+
+        /**
+         * Returns the image of the glyph, or null if the glyph doesn't cover any pixel.
+         */
+        BufferedImage getImage()
+        {
+            return image;
+        }
+
+        int getX()
+        {
+            return x;
+        }
+
+        int getY()
+        {
+            return y;
+        }
+    }
+
+    /**
+     * LRU cache of a single stripe, limited by the memory used by its entries.
+     */
+    private static final class Stripe
+    {
+        private final long maxBytes;
+        private final Map<GlyphKey, GlyphBitmap> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        private Stripe(long maxBytes)
+        {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized GlyphBitmap get(GlyphKey key)
+        {
+            return entries.get(key);
+        }
+
+        synchronized GlyphBitmap put(GlyphKey key, GlyphBitmap bitmap)
+        {
+            GlyphBitmap cachedBitmap = entries.putIfAbsent(key, bitmap);
+            if (cachedBitmap != null)
+            {
+                return cachedBitmap;
+            }
+            bytes += bitmap.getBytes();
+            Iterator<GlyphBitmap> iterator = entries.values().iterator();
+            // keep the new entry even if it exceeds the limit on its own
+            while (bytes > maxBytes && entries.size() > 1)
+            {
+                bytes -= iterator.next().getBytes();
+                iterator.remove();
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Key of a cached glyph, fonts are compared by identity.
+     */
+    private static final class GlyphKey
+    {
+        private final PDFont font;
+        private final int code;
+        private final double scaleX;
+        private final double scaleY;
+        private final int subpixels;
+        private final int rgb;
+        private final boolean antialias;
+        private final int hash;
+
+        private GlyphKey(PDFont font, int code, double scaleX, double scaleY, int subpixelX,
+                int subpixelY, int rgb, boolean antialias)
+        {
+            this.font = font;
+            this.code = code;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.subpixels = subpixelX * SUBPIXELS + subpixelY;
+            this.rgb = rgb;
+            this.antialias = antialias;
+            int h = System.identityHashCode(font);
+            h = 31 * h + code;
+            h = 31 * h + Double.hashCode(scaleX);
+            h = 31 * h + Double.hashCode(scaleY);
+            h = 31 * h + subpixels;
+            h = 31 * h + rgb;
+            // spread the bits as the low bits select the stripe
+            hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof GlyphKey))
+            {
+                return false;
+            }
+            GlyphKey other = (GlyphKey) obj;
+            return font == other.font && code == other.code
+                    && Double.compare(scaleX, other.scaleX) == 0
+                    && Double.compare(scaleY, other.scaleY) == 0
+                    && subpixels == other.subpixels && rgb == other.rgb
+                    && antialias == other.antialias;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.geom.GeneralPath;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * A thread-safe glyph outline cache shared by all pages rendered by a {@link PDFRenderer}, so that
+ * the outline of a glyph used on several pages is computed only once.
+ *
+ * The cache holds at most the given number of glyph outlines, the least recently used ones are
+ * evicted first. The cache is split into several independently locked stripes so that threads
+ * rendering pages in parallel don't block each other. Note that the cached entries hold strong
+ * references to their fonts.
+ */
+public final class GlyphOutlineCache
+{
+    /**
+     * Default maximum number of cached glyph outlines.
+     */
+    public static final int DEFAULT_MAX_GLYPHS = 10000;
+
+    private static final int NUMBER_OF_STRIPES = 16;
+
+    private final Map<GlyphKey, GeneralPath>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache holding at most {@link #DEFAULT_MAX_GLYPHS} glyph outlines.
+     */
+    public GlyphOutlineCache()
+    {
+        this(DEFAULT_MAX_GLYPHS);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of glyph outlines.
+     *
+     * @param maxGlyphs the maximum number of cached glyph outlines
+     */
+    @SuppressWarnings("unchecked")
+    public GlyphOutlineCache(int maxGlyphs)
+    {
+        if (maxGlyphs < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of glyphs " + maxGlyphs);
+        }
+        final int maxGlyphsPerStripe = Math.max(1, maxGlyphs / NUMBER_OF_STRIPES);
+        stripes = new Map[NUMBER_OF_STRIPES];
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++)
+        {
+            // LRU cache of a single stripe
+            stripes[i] = new LinkedHashMap<GlyphKey, GeneralPath>(16, 0.75f, true)
+            {
+                private static final long serialVersionUID = -4576612376426372924L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<GlyphKey, GeneralPath> eldest)
+                {
+                    return size() > maxGlyphsPerStripe;
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns the glyph outline of the given character code. The outline is computed by the given
+     * function if it isn't cached yet. The returned path must not be modified.
+     *
+     * @param font the font of the glyph
+     * @param code the character code of the glyph
+     * @param pathFunction the function computing the glyph outline for a character code
+     * @return the glyph outline
+     */
+    GeneralPath getPath(PDFont font, int code, IntFunction<GeneralPath> pathFunction)
+    {
+        GlyphKey key = new GlyphKey(font, code);
+        Map<GlyphKey, GeneralPath> stripe = stripes[key.hashCode() & (NUMBER_OF_STRIPES - 1)];
+        GeneralPath path;
+        synchronized (stripe)
+        {
+            path = stripe.get(key);
+        }
+        if (path != null)
+        {
+            hits.increment();
+            return path;
+        }
+        misses.increment();
+        // compute the path without holding the lock, a concurrent computation is harmless
+        path = pathFunction.apply(code);
+        if (path != null)
+        {
+            synchronized (stripe)
+            {
+                GeneralPath cachedPath = stripe.putIfAbsent(key, path);
+                if (cachedPath != null)
+                {
+                    path = cachedPath;
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of lookups which were served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to compute the glyph outline.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cached glyph outlines.
+     *
+     * @return the number of cached glyph outlines
+     */
+    public int size()
+    {
+        int size = 0;
+        for (Map<GlyphKey, GeneralPath> stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all cached glyph outlines and resets the counters.
+     */
+    public void clear()
+    {
+        for (Map<GlyphKey, GeneralPath> stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                stripe.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Key of a cached glyph, fonts are compared by identity.
+     */
+    private static final class GlyphKey
+    {
+        private final PDFont font;
+        private final int code;
+        private final int hash;
+
+        private GlyphKey(PDFont font, int code)
+        {
+            this.font = font;
+            this.code = code;
+            int h = System.identityHashCode(font) * 31 + code;
+            // spread the bits as the low bits select the stripe
+            hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof GlyphKey))
+            {
+                return false;
+            }
+            GlyphKey other = (GlyphKey) obj;
+            return font == other.font && code == other.code;
+        }
+    }
+}
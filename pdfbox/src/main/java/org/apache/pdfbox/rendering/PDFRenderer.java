@@ -21,9 +21,22 @@ import java.awt.DisplayMode;
 import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.logging.Log;
@@ -63,12 +76,14 @@ public class PDFRenderer
 
     private RenderingHints renderingHints = null;
 
-    private BufferedImage pageImage;
-
     private static boolean kcmsLogged = false;
 
     private float imageDownscalingOptimizationThreshold = 0.5f;
 
+    private GlyphOutlineCache glyphOutlineCache = new GlyphOutlineCache();
+
+    private GlyphBitmapCache glyphBitmapCache = null;
+
     /**
      * Creates a new PDFRenderer.
      * @param document the document to render
@@ -195,6 +210,51 @@ public class PDFRenderer
         this.imageDownscalingOptimizationThreshold = imageDownscalingOptimizationThreshold;
     }
 
+    /**
+     * Returns the glyph outline cache shared by all pages rendered by this renderer.
+     *
+     * @return the glyph outline cache or null if glyph outlines aren't shared between pages.
+     */
+    public GlyphOutlineCache getGlyphOutlineCache()
+    {
+        return glyphOutlineCache;
+    }
+
+    /**
+     * Set the glyph outline cache shared by all pages rendered by this renderer. A cache may also
+     * be shared by several renderers of the same document. Pass null to cache glyph outlines only
+     * while rendering a single page.
+     *
+     * @param glyphOutlineCache the glyph outline cache or null
+     */
+    public void setGlyphOutlineCache(GlyphOutlineCache glyphOutlineCache)
+    {
+        this.glyphOutlineCache = glyphOutlineCache;
+    }
+
+    /**
+     * Returns the cache of rasterized glyphs used when rendering pages to images.
+     *
+     * @return the glyph bitmap cache or null if glyphs aren't cached as bitmaps.
+     */
+    public GlyphBitmapCache getGlyphBitmapCache()
+    {
+        return glyphBitmapCache;
+    }
+
+    /**
+     * Set the cache of rasterized glyphs used when rendering pages to images. This speeds up
+     * rendering of small text at low resolutions, e.g. for thumbnails, but glyphs may be placed
+     * up to a quarter pixel differently. The memory used is limited by the cache. The default is
+     * null, i.e. glyphs are always filled from their outlines.
+     *
+     * @param glyphBitmapCache the glyph bitmap cache or null
+     */
+    public void setGlyphBitmapCache(GlyphBitmapCache glyphBitmapCache)
+    {
+        this.glyphBitmapCache = glyphBitmapCache;
+    }
+
     /**
      * Returns the given page as an RGB image at 72 DPI
      * @param pageIndex the zero-based index of the page to be converted.
@@ -272,8 +332,264 @@ public class PDFRenderer
     public BufferedImage renderImage(int pageIndex, float scale, ImageType imageType, RenderDestination destination)
             throws IOException
     {
+        return renderImage(document.getPage(pageIndex), scale, imageType, destination);
+    }
+
+    /**
+     * Renders the pages of the given range in parallel using the given executor. The rendered
+     * images are passed to the consumer on the calling thread as soon as they are completed, so
+     * that the order of the pages isn't guaranteed. At most <code>maxPagesInFlight</code> pages
+     * are rendered or waiting to be consumed at the same time, further pages are submitted when the
+     * consumer has taken the previous ones. Pages rejected by the executor are rendered on the
+     * calling thread.
+     * <p>
+     * All workers share the document and thus the fonts, images and color spaces held by its
+     * resource cache. Objects are dereferenced by several threads at the same time, so that the
+     * document should be loaded by a parser with concurrent object resolution enabled, see
+     * {@link org.apache.pdfbox.pdfparser.COSParser#setConcurrentObjectResolution(boolean)}, and a
+     * custom {@link org.apache.pdfbox.pdmodel.ResourceCache} has to be thread-safe.
+     *
+     * @param fromPageIndex the zero-based index of the first page to be rendered (inclusive)
+     * @param toPageIndex the zero-based index of the last page to be rendered (exclusive)
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to return
+     * @param executor the executor used to render the pages
+     * @param maxPagesInFlight the maximum number of pages being rendered or waiting to be consumed
+     * @param consumer the consumer of the rendered pages
+     * @throws IOException if a page cannot be rendered or consumed
+     */
+    public void renderPages(int fromPageIndex, int toPageIndex, float dpi, ImageType imageType,
+            Executor executor, int maxPagesInFlight, RenderedPageConsumer consumer)
+            throws IOException
+    {
+        if (fromPageIndex < 0 || toPageIndex > document.getNumberOfPages()
+                || fromPageIndex > toPageIndex)
+        {
+            throw new IllegalArgumentException("Invalid page range " + fromPageIndex + " - "
+                    + toPageIndex);
+        }
+        if (maxPagesInFlight < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of pages in flight "
+                    + maxPagesInFlight);
+        }
+        float scale = dpi / 72f;
+        RenderDestination destination =
+                defaultDestination == null ? RenderDestination.EXPORT : defaultDestination;
+        CompletionService<RenderedPage> completionService =
+                new ExecutorCompletionService<>(command ->
+                {
+                    try
+                    {
+                        executor.execute(command);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        // e.g. a bounded or shut down executor, render the page on this thread
+                        command.run();
+                    }
+                });
+        Set<Future<RenderedPage>> pendingPages = new HashSet<>();
+        int nextPageIndex = fromPageIndex;
+        try
+        {
+            while (nextPageIndex < toPageIndex || !pendingPages.isEmpty())
+            {
+                while (nextPageIndex < toPageIndex && pendingPages.size() < maxPagesInFlight)
+                {
+                    // the page tree is only accessed by the calling thread
+                    final int pageIndex = nextPageIndex++;
+                    final PDPage page = document.getPage(pageIndex);
+                    pendingPages.add(completionService.submit(() -> new RenderedPage(pageIndex,
+                            renderImage(page, scale, imageType, destination))));
+                }
+                Future<RenderedPage> future = completionService.take();
+                pendingPages.remove(future);
+                RenderedPage renderedPage = future.get();
+                consumer.accept(renderedPage.pageIndex, renderedPage.image);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering of pages was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            throw unwrapExecutionException(e);
+        }
+        finally
+        {
+            pendingPages.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Renders the given page in tiles of the given size, without creating an image of the whole
+     * page. This allows to render huge pages at a high resolution, e.g. engineering drawings, and
+     * to pass the tiles to an image writer one by one. The tiles are rendered on the calling thread.
+     * <p>
+     * Read {@link #renderTiles(int, float, ImageType, int, int, Executor, int, TileSink)} before
+     * using this.
+     *
+     * @param pageIndex the zero-based index of the page to be rendered
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of the tile images
+     * @param tileWidth the width of the tiles in pixels
+     * @param tileHeight the height of the tiles in pixels
+     * @param sink the consumer of the rendered tiles
+     * @throws IOException if the page cannot be rendered or a tile cannot be consumed
+     */
+    public void renderTiles(int pageIndex, float dpi, ImageType imageType, int tileWidth,
+            int tileHeight, TileSink sink) throws IOException
+    {
+        renderTiles(pageIndex, dpi, imageType, tileWidth, tileHeight, Runnable::run, 1, sink);
+    }
+
+    /**
+     * Renders the given page in tiles of the given size using the given executor, without creating
+     * an image of the whole page. The tiles are passed to the sink on the calling thread in row
+     * major order, i.e. from left to right and from top to bottom. The tiles at the right and the
+     * bottom edge of the page are smaller if the page size isn't a multiple of the tile size. At
+     * most <code>maxTilesInFlight</code> tiles are rendered or waiting to be consumed at the same
+     * time, so that the memory used is bounded by the tile size. Tiles rejected by the executor are
+     * rendered on the calling thread.
+     * <p>
+     * Each tile is rendered by drawing the whole page clipped to the tile, so that the content
+     * stream of the page is processed once per tile. Non-isolated transparency groups with blend
+     * modes are rendered without the page as backdrop, like in
+     * {@link #renderPageToGraphics(int, Graphics2D, float, float, RenderDestination)}. When
+     * rendering tiles in parallel, the restrictions of
+     * {@link #renderPages(int, int, float, ImageType, Executor, int, RenderedPageConsumer)} apply.
+     *
+     * @param pageIndex the zero-based index of the page to be rendered
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of the tile images
+     * @param tileWidth the width of the tiles in pixels
+     * @param tileHeight the height of the tiles in pixels
+     * @param executor the executor used to render the tiles
+     * @param maxTilesInFlight the maximum number of tiles being rendered or waiting to be consumed
+     * @param sink the consumer of the rendered tiles
+     * @throws IOException if the page cannot be rendered or a tile cannot be consumed
+     */
+    public void renderTiles(int pageIndex, float dpi, ImageType imageType, int tileWidth,
+            int tileHeight, Executor executor, int maxTilesInFlight, TileSink sink)
+            throws IOException
+    {
+        if (tileWidth < 1 || tileHeight < 1)
+        {
+            throw new IllegalArgumentException("Invalid tile size " + tileWidth + " x "
+                    + tileHeight);
+        }
+        if (maxTilesInFlight < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of tiles in flight "
+                    + maxTilesInFlight);
+        }
+        float scale = dpi / 72f;
+        RenderDestination destination =
+                defaultDestination == null ? RenderDestination.EXPORT : defaultDestination;
         PDPage page = document.getPage(pageIndex);
+        Rectangle imageBounds = getImageBounds(page, scale);
+        sink.start(imageBounds.width, imageBounds.height);
+
+        // futures of the tiles in row major order
+        Deque<FutureTask<BufferedImage>> pendingTiles = new ArrayDeque<>();
+        int numTilesX = (imageBounds.width + tileWidth - 1) / tileWidth;
+        int numTiles = numTilesX * ((imageBounds.height + tileHeight - 1) / tileHeight);
+        int nextTile = 0;
+        int consumedTiles = 0;
+        try
+        {
+            while (nextTile < numTiles || !pendingTiles.isEmpty())
+            {
+                while (nextTile < numTiles && pendingTiles.size() < maxTilesInFlight)
+                {
+                    int x = nextTile % numTilesX * tileWidth;
+                    int y = nextTile / numTilesX * tileHeight;
+                    nextTile++;
+                    Rectangle region = new Rectangle(x, y,
+                            Math.min(tileWidth, imageBounds.width - x),
+                            Math.min(tileHeight, imageBounds.height - y));
+                    FutureTask<BufferedImage> tile = new FutureTask<>(() -> renderRegion(page,
+                            scale, imageType, destination, region, false));
+                    pendingTiles.add(tile);
+                    try
+                    {
+                        executor.execute(tile);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        // e.g. a bounded or shut down executor, render the tile on this thread
+                        tile.run();
+                    }
+                }
+                BufferedImage image = pendingTiles.peek().get();
+                pendingTiles.remove();
+                sink.accept(consumedTiles % numTilesX * tileWidth,
+                        consumedTiles / numTilesX * tileHeight, image);
+                consumedTiles++;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering of tiles was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            throw unwrapExecutionException(e);
+        }
+        finally
+        {
+            pendingTiles.forEach(future -> future.cancel(true));
+        }
+    }
 
+    /**
+     * Returns the cause of the given exception if it is an IOException, rethrows it if it is
+     * unchecked and wraps it otherwise.
+     */
+    private static IOException unwrapExecutionException(ExecutionException e)
+    {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException)
+        {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException)
+        {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error)
+        {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private BufferedImage renderImage(PDPage page, float scale, ImageType imageType,
+            RenderDestination destination) throws IOException
+    {
+        Rectangle imageBounds = getImageBounds(page, scale);
+
+        // PDFBOX-4518 the maximum size (w*h) of a buffered image is limited to Integer.MAX_VALUE
+        if ((long) imageBounds.width * (long) imageBounds.height > Integer.MAX_VALUE)
+        {
+            PDRectangle cropBox = page.getCropBox();
+            throw new IOException("Maximum size of image exceeded (w * h * scale ^ 2) = "//
+                    + cropBox.getWidth() + " * " + cropBox.getHeight() + " * " + scale + " ^ 2 > "
+                    + Integer.MAX_VALUE);
+        }
+        return renderRegion(page, scale, imageType, destination, imageBounds, true);
+    }
+
+    /**
+     * Returns the bounds of the image of the given page, i.e. the size of the rotated crop box in
+     * pixels.
+     */
+    private static Rectangle getImageBounds(PDPage page, float scale)
+    {
         PDRectangle cropbBox = page.getCropBox();
         float widthPt = cropbBox.getWidth();
         float heightPt = cropbBox.getHeight();
@@ -282,15 +598,26 @@ public class PDFRenderer
         int widthPx = (int) Math.max(Math.floor(widthPt * scale), 1);
         int heightPx = (int) Math.max(Math.floor(heightPt * scale), 1);
 
-        // PDFBOX-4518 the maximum size (w*h) of a buffered image is limited to Integer.MAX_VALUE
-        if ((long) widthPx * (long) heightPx > Integer.MAX_VALUE)
+        // swap width and height
+        int rotationAngle = page.getRotation();
+        if (rotationAngle == 90 || rotationAngle == 270)
         {
-            throw new IOException("Maximum size of image exceeded (w * h * scale ^ 2) = "//
-                    + widthPt + " * " + heightPt + " * " + scale + " ^ 2 > " + Integer.MAX_VALUE);
+            return new Rectangle(heightPx, widthPx);
         }
+        return new Rectangle(widthPx, heightPx);
+    }
 
-        int rotationAngle = page.getRotation();
-
+    /**
+     * Renders the given region of the page image.
+     *
+     * @param region the region in pixels of the whole page image
+     * @param isWholePage true if the region is the whole page image, which is then available as
+     * backdrop of transparency groups.
+     */
+    private BufferedImage renderRegion(PDPage page, float scale, ImageType imageType,
+            RenderDestination destination, Rectangle region, boolean isWholePage)
+            throws IOException
+    {
         int bimType = imageType.toBufferedImageType();
         if (imageType != ImageType.ARGB && hasBlendMode(page))
         {
@@ -301,18 +628,7 @@ public class PDFRenderer
             bimType = BufferedImage.TYPE_INT_ARGB;
         }
 
-        // swap width and height
-        BufferedImage image;
-        if (rotationAngle == 90 || rotationAngle == 270)
-        {
-            image = new BufferedImage(heightPx, widthPx, bimType);
-        }
-        else
-        {
-            image = new BufferedImage(widthPx, heightPx, bimType);
-        }
-
-        pageImage = image;
+        BufferedImage image = new BufferedImage(region.width, region.height, bimType);
 
         // use a transparent background if the image type supports alpha
         Graphics2D g = image.createGraphics();
@@ -325,7 +641,12 @@ public class PDFRenderer
             g.setBackground(Color.WHITE);
         }
         g.clearRect(0, 0, image.getWidth(), image.getHeight());
-        
+
+        if (!isWholePage)
+        {
+            g.clipRect(0, 0, region.width, region.height);
+            g.translate(-region.x, -region.y);
+        }
         transform(g, page, scale, scale);
 
         // the end-user may provide a custom PageDrawer
@@ -333,7 +654,8 @@ public class PDFRenderer
                 renderingHints == null ? createDefaultRenderingHints(g) : renderingHints;
         PageDrawerParameters parameters =
                 new PageDrawerParameters(this, page, subsamplingAllowed, destination,
-                        actualRenderingHints, imageDownscalingOptimizationThreshold);
+                        actualRenderingHints, imageDownscalingOptimizationThreshold,
+                        isWholePage ? image : null);
         PageDrawer drawer = createPageDrawer(parameters);
         drawer.drawPage(g, page.getCropBox());       
         
@@ -444,7 +766,7 @@ public class PDFRenderer
                 renderingHints == null ? createDefaultRenderingHints(graphics) : renderingHints;
         PageDrawerParameters parameters =
                 new PageDrawerParameters(this, page, subsamplingAllowed, destination,
-                        actualRenderingHints, imageDownscalingOptimizationThreshold);
+                        actualRenderingHints, imageDownscalingOptimizationThreshold, null);
         PageDrawer drawer = createPageDrawer(parameters);
         drawer.drawPage(graphics, cropBox);
     }
@@ -561,16 +883,6 @@ public class PDFRenderer
         return false;
     }
 
-    /**
-     * Returns the image to which the current page is being rendered.
-     * May be null if the page is rendered to a Graphics2D object
-     * instead of a BufferedImage.
-     */
-    BufferedImage getPageImage()
-    {
-        return pageImage;
-    }
-
     private static void suggestKCMS()
     {
         String cmmProperty = System.getProperty("sun.java2d.cmm");
@@ -602,6 +914,21 @@ public class PDFRenderer
         }
     }
 
+    /**
+     * A rendered page and its index.
+     */
+    private static final class RenderedPage
+    {
+        private final int pageIndex;
+        private final BufferedImage image;
+
+        private RenderedPage(int pageIndex, BufferedImage image)
+        {
+            this.pageIndex = pageIndex;
+            this.image = image;
+        }
+    }
+
     private static boolean isGoodVersion(String version, String regex, int min)
     {
         Matcher matcher = Pattern.compile(regex).matcher(version);
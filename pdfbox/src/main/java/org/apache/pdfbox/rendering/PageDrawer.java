@@ -121,6 +121,9 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
     // parent document renderer - note: this is needed for not-yet-implemented resource caching
     private final PDFRenderer renderer;
+
+    // the image to which the page is being rendered, may be null
+    private final BufferedImage pageImage;
     
     private final boolean subsamplingAllowed;
     
@@ -151,6 +154,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     // glyph caches
     private final Map<PDFont, GlyphCache> glyphCaches = new HashMap<>();
 
+    // glyph outlines shared by all pages of the renderer, may be null
+    private final GlyphOutlineCache glyphOutlineCache;
+
+    // rasterized glyphs shared by all pages of the renderer, may be null
+    private final GlyphBitmapCache glyphBitmapCache;
+
     private final TilingPaintFactory tilingPaintFactory = new TilingPaintFactory(this);
     
     private final Deque<TransparencyGroup> transparencyGroupStack = new ArrayDeque<>();
@@ -179,6 +188,9 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     {
         super(parameters.getPage());
         this.renderer = parameters.getRenderer();
+        this.glyphOutlineCache = renderer.getGlyphOutlineCache();
+        this.glyphBitmapCache = renderer.getGlyphBitmapCache();
+        this.pageImage = parameters.getPageImage();
         this.subsamplingAllowed = parameters.isSubsamplingAllowed();
         this.destination = parameters.getDestination();
         this.renderingHints = parameters.getRenderingHints();
@@ -464,7 +476,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             glyphCaches.put(font, cache);
         }
 
-        GeneralPath path = cache.getPathForCharacterCode(code);
+        GeneralPath path;
+        if (glyphOutlineCache != null)
+        {
+            path = glyphOutlineCache.getPath(font, code, cache::getPathForCharacterCode);
+        }
+        else
+        {
+            path = cache.getPathForCharacterCode(code);
+        }
         drawGlyph(path, font, code, displacement, at);
     }
 
@@ -505,9 +525,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             if (renderingMode.isFill())
             {
                 graphics.setComposite(state.getNonStrokingJavaComposite());
-                graphics.setPaint(getNonStrokingPaint());
+                Paint paint = getNonStrokingPaint();
+                graphics.setPaint(paint);
                 setClip();
-                if (isContentRendered())
+                if (isContentRendered() && (renderingMode != RenderingMode.FILL
+                        || !drawGlyphBitmap(path, font, code, at, paint)))
                 {
                     graphics.fill(glyph);
                 }
@@ -532,6 +554,37 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
+    /**
+     * Draws a filled glyph using the glyph bitmap cache. This is only done when rendering to an
+     * image and the glyph is filled with a plain color.
+     *
+     * @return true if the glyph was drawn, false if it has to be filled from its outline
+     */
+    private boolean drawGlyphBitmap(GeneralPath path, PDFont font, int code, AffineTransform at,
+            Paint paint)
+    {
+        if (glyphBitmapCache == null || pageImage == null || !(paint instanceof Color))
+        {
+            return false;
+        }
+        AffineTransform deviceTransform = graphics.getTransform();
+        deviceTransform.concatenate(at);
+        GlyphBitmapCache.GlyphBitmap bitmap = glyphBitmapCache.getBitmap(font, code, path,
+                deviceTransform, (Color) paint, graphics.getRenderingHints());
+        if (bitmap == null)
+        {
+            return false;
+        }
+        if (bitmap.getImage() != null)
+        {
+            AffineTransform savedTransform = graphics.getTransform();
+            graphics.setTransform(new AffineTransform());
+            graphics.drawImage(bitmap.getImage(), bitmap.getX(), bitmap.getY(), null);
+            graphics.setTransform(savedTransform);
+        }
+        return true;
+    }
+
     @Override
     protected void showType3Glyph(Matrix textRenderingMatrix, PDType3Font font, int code,
             Vector displacement) throws IOException
@@ -1646,7 +1699,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                 if (transparencyGroupStack.isEmpty())
                 {
                     // Use the current page as the parent group.
-                    backdropImage = renderer.getPageImage();
+                    backdropImage = pageImage;
                     needsBackdrop = backdropImage != null;
                     backdropX = minX;
                     backdropY = (backdropImage != null) ? (backdropImage.getHeight() - maxY) : 0;
@@ -18,6 +18,7 @@
 package org.apache.pdfbox.rendering;
 
 import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 
 import org.apache.pdfbox.pdmodel.PDPage;
 
@@ -36,14 +37,16 @@ public final class PageDrawerParameters
     private final RenderDestination destination; 
     private final RenderingHints renderingHints;
     private final float imageDownscalingOptimizationThreshold;
+    private final BufferedImage pageImage;
 
     /**
      * Package-private constructor.
      */
     PageDrawerParameters(PDFRenderer renderer, PDPage page, boolean subsamplingAllowed,
                          RenderDestination destination, RenderingHints renderingHints,
-                         float imageDownscalingOptimizationThreshold)
+                         float imageDownscalingOptimizationThreshold, BufferedImage pageImage)
     {
+        this.pageImage = pageImage;
         this.renderer = renderer;
         this.page = page;
         this.subsamplingAllowed = subsamplingAllowed;
@@ -68,6 +71,15 @@ public final class PageDrawerParameters
         return renderer;
     }
 
+    /**
+     * Returns the image to which the page is being rendered. May be null if the page is rendered
+     * to a Graphics2D object instead of a BufferedImage.
+     */
+    BufferedImage getPageImage()
+    {
+        return pageImage;
+    }
+
     /**
      * Returns whether to allow subsampling of images.
      */
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Consumer of the tiles rendered by
+ * {@link PDFRenderer#renderTiles(int, float, ImageType, int, int, java.util.concurrent.Executor, int, TileSink)},
+ * e.g. a writer of a tiled image file.
+ */
+@FunctionalInterface
+public interface TileSink
+{
+    /**
+     * Called once before the first tile is passed to the sink.
+     *
+     * @param imageWidth the width of the whole page image in pixels
+     * @param imageHeight the height of the whole page image in pixels
+     * @throws IOException if the image could not be started
+     */
+    default void start(int imageWidth, int imageHeight) throws IOException
+    {
+    }
+
+    /**
+     * Called for each rendered tile.
+     *
+     * @param x the horizontal position of the tile within the page image in pixels
+     * @param y the vertical position of the tile within the page image in pixels
+     * @param tile the rendered tile
+     * @throws IOException if the tile could not be processed
+     */
+    void accept(int x, int y, BufferedImage tile) throws IOException;
+}
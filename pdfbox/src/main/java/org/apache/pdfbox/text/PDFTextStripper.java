@@ -20,22 +20,24 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.text.Bidi;
 import java.text.Normalizer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.StringTokenizer;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
@@ -46,7 +48,6 @@ import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.apache.pdfbox.pdmodel.interactive.pagenavigation.PDThreadBead;
-import org.apache.pdfbox.util.QuickSort;
 
 /**
  * This class will take a pdf document and strip out all of the text and ignore the formatting and such. Please note; it
@@ -138,6 +139,7 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
     private boolean shouldSeparateByBeads = true;
     private boolean sortByPosition = false;
     private boolean addMoreFormatting = false;
+    private boolean streaming = false;
 
     private float indentThreshold = defaultIndentThreshold;
     private float dropThreshold = defaultDropThreshold;
@@ -164,7 +166,19 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      */
     protected ArrayList<List<TextPosition>> charactersByArticle = new ArrayList<>();
 
-    private final Map<String, TreeMap<Float, TreeSet<Float>>> characterListMapping = new HashMap<>();
+    private final TextPositionGrid characterGrid = new TextPositionGrid();
+
+    /**
+     * Writes the text of the current page while it is processed if streaming is enabled, null otherwise.
+     */
+    private PageTextWriter streamingWriter;
+
+    /**
+     * The maximum y coordinate of the streamed text positions which are waiting to be sorted, and the number of those
+     * positions which have been taken into account.
+     */
+    private float streamingMaxY;
+    private int streamingCheckedCount;
 
     protected PDDocument document;
     protected Writer output;
@@ -208,7 +222,8 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
         currentPageNo = 0;
         document = null;
         charactersByArticle.clear();
-        characterListMapping.clear();
+        characterGrid.clear();
+        streamingWriter = null;
     }
 
     /**
@@ -220,6 +235,149 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      * @throws IOException If the doc is in an invalid state.
      */
     public void writeText(PDDocument doc, Writer outputStream) throws IOException
+    {
+        prepareWriteText(doc, outputStream);
+        startDocument(document);
+        processPages(document.getPages());
+        endDocument(document);
+    }
+
+    /**
+     * This will take a PDDocument and write the text of that document to the print writer, extracting the text of
+     * several pages at the same time using the given executor. The text of the pages is written in page order on the
+     * calling thread. At most <code>maxPagesInFlight</code> pages are extracted or waiting to be written at the same
+     * time.
+     * <p>
+     * The text of each page is extracted by its own stripper created by {@link #createPageStripper()}, which gets the
+     * settings of this stripper, including the page range, the bookmark range and the handling of article beads. The
+     * methods of this stripper which write the text, e.g. {@link #writeString(String, List)}, are called on the page
+     * strippers. {@link #startDocument(PDDocument)} and {@link #endDocument(PDDocument)} are called on this stripper. If
+     * {@link #createPageStripper()} returns null, e.g. for a subclass which doesn't override it, the text is extracted
+     * sequentially as by {@link #writeText(PDDocument, Writer)}.
+     * <p>
+     * All page strippers share the document and thus the fonts held by its resource cache. Objects are dereferenced by
+     * several threads at the same time, so that the document should be loaded by a parser with concurrent object
+     * resolution enabled, see {@link org.apache.pdfbox.pdfparser.COSParser#setConcurrentObjectResolution(boolean)},
+     * and a custom {@link org.apache.pdfbox.pdmodel.ResourceCache} has to be thread-safe.
+     *
+     * @param doc The document to get the data from.
+     * @param outputStream The location to put the text.
+     * @param executor the executor used to extract the text of the pages
+     * @param maxPagesInFlight the maximum number of pages being extracted or waiting to be written
+     *
+     * @throws IOException If the doc is in an invalid state or the text of a page could not be extracted.
+     */
+    public void writeText(PDDocument doc, Writer outputStream, Executor executor, int maxPagesInFlight)
+            throws IOException
+    {
+        if (maxPagesInFlight < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of pages in flight " + maxPagesInFlight);
+        }
+        PDFTextStripper nextPageStripper = createPageStripper();
+        if (nextPageStripper == null)
+        {
+            writeText(doc, outputStream);
+            return;
+        }
+        prepareWriteText(doc, outputStream);
+        startDocument(document);
+        PDPageTree pages = document.getPages();
+        resolveBookmarkPageNumbers(pages);
+        // initialize the shared list item patterns before the page strippers use them
+        getListItemPatterns();
+
+        Deque<FutureTask<String>> pendingPages = new ArrayDeque<>();
+        // the article lists of a stripper are reused by the following pages, so that a page stripper gets as many
+        // lists as the sequential extraction would have at that page
+        int numberOfArticleLists = 0;
+        try
+        {
+            for (PDPage page : pages)
+            {
+                currentPageNo++;
+                if (!page.hasContents() || !isCurrentPageInRange())
+                {
+                    continue;
+                }
+                if (pendingPages.size() == maxPagesInFlight)
+                {
+                    output.write(pendingPages.remove().get());
+                }
+                int numberOfArticleSections = 1;
+                if (shouldSeparateByBeads)
+                {
+                    numberOfArticleSections += page.getThreadBeads().size() * 2;
+                }
+                numberOfArticleLists = Math.max(numberOfArticleLists, numberOfArticleSections);
+                PDFTextStripper pageStripper = nextPageStripper != null ? nextPageStripper
+                        : createPageStripper();
+                nextPageStripper = null;
+                copySettingsTo(pageStripper);
+                for (int i = 0; i < numberOfArticleLists; i++)
+                {
+                    pageStripper.charactersByArticle.add(new ArrayList<>());
+                }
+                FutureTask<String> pageText = new FutureTask<>(() ->
+                {
+                    StringWriter pageOutput = new StringWriter();
+                    pageStripper.output = pageOutput;
+                    pageStripper.processPage(page);
+                    return pageOutput.toString();
+                });
+                pendingPages.add(pageText);
+                executor.execute(pageText);
+            }
+            while (!pendingPages.isEmpty())
+            {
+                output.write(pendingPages.remove().get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Text extraction was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            pendingPages.forEach(future -> future.cancel(true));
+        }
+        endDocument(document);
+    }
+
+    /**
+     * Creates the stripper extracting the text of a single page in
+     * {@link #writeText(PDDocument, Writer, Executor, int)}. The settings of this stripper are copied to the page
+     * stripper. Subclasses have to override this method to return a new instance of their own class, otherwise the text
+     * is extracted sequentially.
+     *
+     * @return a new stripper or null if the text can't be extracted in parallel
+     * @throws IOException If the stripper could not be created.
+     */
+    protected PDFTextStripper createPageStripper() throws IOException
+    {
+        // a plain stripper would lose the overridden methods of a subclass
+        return getClass() == PDFTextStripper.class ? new PDFTextStripper() : null;
+    }
+
+    private void prepareWriteText(PDDocument doc, Writer outputStream)
     {
         resetEngine();
         document = doc;
@@ -231,9 +389,36 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             articleStart = lineSeparator;
             articleEnd = lineSeparator;
         }
-        startDocument(document);
-        processPages(document.getPages());
-        endDocument(document);
+    }
+
+    /**
+     * Copies the settings and the current page number to the given page stripper.
+     */
+    private void copySettingsTo(PDFTextStripper pageStripper)
+    {
+        pageStripper.document = document;
+        pageStripper.currentPageNo = currentPageNo;
+        pageStripper.lineSeparator = lineSeparator;
+        pageStripper.wordSeparator = wordSeparator;
+        pageStripper.paragraphStart = paragraphStart;
+        pageStripper.paragraphEnd = paragraphEnd;
+        pageStripper.pageStart = pageStart;
+        pageStripper.pageEnd = pageEnd;
+        pageStripper.articleStart = articleStart;
+        pageStripper.articleEnd = articleEnd;
+        pageStripper.startPage = startPage;
+        pageStripper.endPage = endPage;
+        pageStripper.startBookmarkPageNumber = startBookmarkPageNumber;
+        pageStripper.endBookmarkPageNumber = endBookmarkPageNumber;
+        pageStripper.suppressDuplicateOverlappingText = suppressDuplicateOverlappingText;
+        pageStripper.shouldSeparateByBeads = shouldSeparateByBeads;
+        pageStripper.sortByPosition = sortByPosition;
+        pageStripper.streaming = streaming;
+        pageStripper.indentThreshold = indentThreshold;
+        pageStripper.dropThreshold = dropThreshold;
+        pageStripper.spacingTolerance = spacingTolerance;
+        pageStripper.averageCharTolerance = averageCharTolerance;
+        pageStripper.listOfPatterns = listOfPatterns;
     }
 
     /**
@@ -244,6 +429,19 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      * @throws IOException If there is an error parsing the text.
      */
     protected void processPages(PDPageTree pages) throws IOException
+    {
+        resolveBookmarkPageNumbers(pages);
+        for (PDPage page : pages)
+        {
+            currentPageNo++;
+            if (page.hasContents())
+            {
+                processPage(page);
+            }
+        }
+    }
+
+    private void resolveBookmarkPageNumbers(PDPageTree pages) throws IOException
     {
         PDPage startBookmarkPage = startBookmark == null ? null
                 : startBookmark.findDestinationPage(document);
@@ -279,15 +477,6 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             startBookmarkPageNumber = 0;
             endBookmarkPageNumber = 0;
         }
-
-        for (PDPage page : pages)
-        {
-            currentPageNo++;
-            if (page.hasContents())
-            {
-                processPage(page);
-            }
-        }
     }
 
     /**
@@ -323,9 +512,7 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
     @Override
     public void processPage(PDPage page) throws IOException
     {
-        if (currentPageNo >= startPage && currentPageNo <= endPage
-                && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
-                && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber))
+        if (isCurrentPageInRange())
         {
             startPage(page);
 
@@ -358,13 +545,37 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
                     }
                 }
             }
-            characterListMapping.clear();
-            super.processPage(page);
+            characterGrid.clear();
+            streamingWriter = null;
+            if (streaming && charactersByArticle.size() == 1)
+            {
+                writePageStart();
+                streamingWriter = new PageTextWriter();
+                streamingWriter.startArticle();
+                streamingMaxY = -Float.MAX_VALUE;
+                streamingCheckedCount = 0;
+            }
+            try
+            {
+                super.processPage(page);
+            }
+            catch (UncheckedIOException e)
+            {
+                // thrown by processTextPosition() when writing streamed text
+                throw e.getCause();
+            }
             writePage();
             endPage(page);
         }
     }
 
+    private boolean isCurrentPageInRange()
+    {
+        return currentPageNo >= startPage && currentPageNo <= endPage
+                && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
+                && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber);
+    }
+
     private void fillBeadRectangles(PDPage page)
     {
         beadRectangles = new ArrayList<>();
@@ -476,16 +687,27 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      */
     protected void writePage() throws IOException
     {
-        float maxYForLine = MAX_Y_FOR_LINE_RESET_VALUE;
-        float minYTopForLine = MIN_Y_TOP_FOR_LINE_RESET_VALUE;
-        float endOfLastTextX = END_OF_LAST_TEXT_X_RESET_VALUE;
-        float lastWordSpacing = LAST_WORD_SPACING_RESET_VALUE;
-        float maxHeightForLine = MAX_HEIGHT_FOR_LINE_RESET_VALUE;
-        PositionWrapper lastPosition = null;
-        PositionWrapper lastLineStartPosition = null;
+        if (streamingWriter != null)
+        {
+            // write the remaining text of the page in streaming mode
+            PageTextWriter pageTextWriter = streamingWriter;
+            streamingWriter = null;
+            List<TextPosition> textList = charactersByArticle.get(0);
+            if (getSortByPosition())
+            {
+                TextPositionLineSorter.sort(textList);
+            }
+            for (TextPosition position : textList)
+            {
+                pageTextWriter.writeTextPosition(position);
+            }
+            textList.clear();
+            pageTextWriter.endArticle();
+            writePageEnd();
+            return;
+        }
 
-        boolean startOfPage = true; // flag to indicate start of page
-        boolean startOfArticle;
+        PageTextWriter pageTextWriter = new PageTextWriter();
         if (charactersByArticle.size() > 0)
         {
             writePageStart();
@@ -495,205 +717,234 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
         {
             if (getSortByPosition())
             {
-                TextPositionComparator comparator = new TextPositionComparator();
+                // the TextPositionComparator is not transitive, thus the positions are
+                // grouped into lines first, which are then sorted by x
+                TextPositionLineSorter.sort(textList);
+            }
 
-                // because the TextPositionComparator is not transitive, but
-                // JDK7+ enforces transitivity on comparators, we need to use
-                // a custom quicksort implementation (which is slower, unfortunately).
-                QuickSort.sort(textList, comparator);
+            pageTextWriter.startArticle();
+            for (TextPosition position : textList)
+            {
+                pageTextWriter.writeTextPosition(position);
             }
+            pageTextWriter.endArticle();
+        }
+        writePageEnd();
+    }
+
+    /**
+     * Writes the text positions of a page one by one. It estimates, based on the coordinates of the text, where
+     * newlines and word spacings should be placed. Only the current line is held in memory.
+     */
+    private final class PageTextWriter
+    {
+        private float maxYForLine = MAX_Y_FOR_LINE_RESET_VALUE;
+        private float minYTopForLine = MIN_Y_TOP_FOR_LINE_RESET_VALUE;
+        private float endOfLastTextX = END_OF_LAST_TEXT_X_RESET_VALUE;
+        private float lastWordSpacing = LAST_WORD_SPACING_RESET_VALUE;
+        private float maxHeightForLine = MAX_HEIGHT_FOR_LINE_RESET_VALUE;
+        private PositionWrapper lastPosition = null;
+        private PositionWrapper lastLineStartPosition = null;
+
+        private boolean startOfPage = true; // flag to indicate start of page
+        private boolean startOfArticle;
 
-            startArticle();
+        // We queue up a line at a time before we print so that we can convert
+        // the line from presentation form to logical form (if needed).
+        private final List<LineItem> line = new ArrayList<>();
+
+        // PDF files don't always store spaces. We will need to guess where we should add
+        // spaces based on the distances between TextPositions. Historically, this was done
+        // based on the size of the space character provided by the font. In general, this
+        // worked but there were cases where it did not work. Calculating the average character
+        // width and using that as a metric works better in some cases but fails in some cases
+        // where the spacing worked. So we use both. NOTE: Adobe reader also fails on some of
+        // these examples.
+
+        // Keeps track of the previous average character width
+        private float previousAveCharWidth = -1;
+
+        void startArticle() throws IOException
+        {
+            PDFTextStripper.this.startArticle();
             startOfArticle = true;
+            line.clear();
+            previousAveCharWidth = -1;
+        }
 
-            // Now cycle through to print the text.
-            // We queue up a line at a time before we print so that we can convert
-            // the line from presentation form to logical form (if needed).
-            List<LineItem> line = new ArrayList<>();
-
-            Iterator<TextPosition> textIter = textList.iterator();
-            // PDF files don't always store spaces. We will need to guess where we should add
-            // spaces based on the distances between TextPositions. Historically, this was done
-            // based on the size of the space character provided by the font. In general, this
-            // worked but there were cases where it did not work. Calculating the average character
-            // width and using that as a metric works better in some cases but fails in some cases
-            // where the spacing worked. So we use both. NOTE: Adobe reader also fails on some of
-            // these examples.
-
-            // Keeps track of the previous average character width
-            float previousAveCharWidth = -1;
-            while (textIter.hasNext())
-            {
-                TextPosition position = textIter.next();
-                PositionWrapper current = new PositionWrapper(position);
-                String characterValue = position.getUnicode();
-
-                // Resets the average character width when we see a change in font
-                // or a change in the font size
-                if (lastPosition != null &&
-                    (position.getFont() != lastPosition.getTextPosition().getFont() || 
-                     Float.compare(position.getFontSize(),lastPosition.getTextPosition().getFontSize()) != 0))
-                {
-                    previousAveCharWidth = -1;
-                }
+        void writeTextPosition(TextPosition position) throws IOException
+        {
+            PositionWrapper current = new PositionWrapper(position);
+            String characterValue = position.getUnicode();
+
+            // Resets the average character width when we see a change in font
+            // or a change in the font size
+            if (lastPosition != null &&
+                (position.getFont() != lastPosition.getTextPosition().getFont() || 
+                 Float.compare(position.getFontSize(),lastPosition.getTextPosition().getFontSize()) != 0))
+            {
+                previousAveCharWidth = -1;
+            }
 
-                float positionX;
-                float positionY;
-                float positionWidth;
-                float positionHeight;
+            float positionX;
+            float positionY;
+            float positionWidth;
+            float positionHeight;
 
-                // If we are sorting, then we need to use the text direction
-                // adjusted coordinates, because they were used in the sorting.
-                if (getSortByPosition())
-                {
-                    positionX = position.getXDirAdj();
-                    positionY = position.getYDirAdj();
-                    positionWidth = position.getWidthDirAdj();
-                    positionHeight = position.getHeightDir();
-                }
-                else
-                {
-                    positionX = position.getX();
-                    positionY = position.getY();
-                    positionWidth = position.getWidth();
-                    positionHeight = position.getHeight();
-                }
+            // If we are sorting, then we need to use the text direction
+            // adjusted coordinates, because they were used in the sorting.
+            if (getSortByPosition())
+            {
+                positionX = position.getXDirAdj();
+                positionY = position.getYDirAdj();
+                positionWidth = position.getWidthDirAdj();
+                positionHeight = position.getHeightDir();
+            }
+            else
+            {
+                positionX = position.getX();
+                positionY = position.getY();
+                positionWidth = position.getWidth();
+                positionHeight = position.getHeight();
+            }
 
-                // The current amount of characters in a word
-                int wordCharCount = position.getIndividualWidths().length;
+            // The current amount of characters in a word
+            int wordCharCount = position.getIndividualWidths().length;
 
-                // Estimate the expected width of the space based on the
-                // space character with some margin.
-                float wordSpacing = position.getWidthOfSpace();
-                float deltaSpace;
-                if (Float.compare(wordSpacing, 0) == 0 || Float.isNaN(wordSpacing))
+            // Estimate the expected width of the space based on the
+            // space character with some margin.
+            float wordSpacing = position.getWidthOfSpace();
+            float deltaSpace;
+            if (Float.compare(wordSpacing, 0) == 0 || Float.isNaN(wordSpacing))
+            {
+                deltaSpace = Float.MAX_VALUE;
+            }
+            else
+            {
+                if (lastWordSpacing < 0)
                 {
-                    deltaSpace = Float.MAX_VALUE;
+                    deltaSpace = wordSpacing * getSpacingTolerance();
                 }
                 else
                 {
-                    if (lastWordSpacing < 0)
-                    {
-                        deltaSpace = wordSpacing * getSpacingTolerance();
-                    }
-                    else
-                    {
-                        deltaSpace = (wordSpacing + lastWordSpacing) / 2f * getSpacingTolerance();
-                    }
+                    deltaSpace = (wordSpacing + lastWordSpacing) / 2f * getSpacingTolerance();
                 }
+            }
 
-                // Estimate the expected width of the space based on the average character width
-                // with some margin. This calculation does not make a true average (average of
-                // averages) but we found that it gave the best results after numerous experiments.
-                // Based on experiments we also found that .3 worked well.
-                float averageCharWidth;
-                if (previousAveCharWidth < 0)
-                {
-                    averageCharWidth = positionWidth / wordCharCount;
-                }
-                else
-                {
-                    averageCharWidth = (previousAveCharWidth + positionWidth / wordCharCount) / 2f;
-                }
-                float deltaCharWidth = averageCharWidth * getAverageCharTolerance();
+            // Estimate the expected width of the space based on the average character width
+            // with some margin. This calculation does not make a true average (average of
+            // averages) but we found that it gave the best results after numerous experiments.
+            // Based on experiments we also found that .3 worked well.
+            float averageCharWidth;
+            if (previousAveCharWidth < 0)
+            {
+                averageCharWidth = positionWidth / wordCharCount;
+            }
+            else
+            {
+                averageCharWidth = (previousAveCharWidth + positionWidth / wordCharCount) / 2f;
+            }
+            float deltaCharWidth = averageCharWidth * getAverageCharTolerance();
 
-                // Compares the values obtained by the average method and the wordSpacing method
-                // and picks the smaller number.
-                float expectedStartOfNextWordX = EXPECTED_START_OF_NEXT_WORD_X_RESET_VALUE;
-                if (Float.compare(endOfLastTextX, END_OF_LAST_TEXT_X_RESET_VALUE) != 0)
+            // Compares the values obtained by the average method and the wordSpacing method
+            // and picks the smaller number.
+            float expectedStartOfNextWordX = EXPECTED_START_OF_NEXT_WORD_X_RESET_VALUE;
+            if (Float.compare(endOfLastTextX, END_OF_LAST_TEXT_X_RESET_VALUE) != 0)
+            {
+                expectedStartOfNextWordX = endOfLastTextX + Math.min(deltaSpace, deltaCharWidth);
+            }
+
+            if (lastPosition != null)
+            {
+                if (startOfArticle)
                 {
-                    expectedStartOfNextWordX = endOfLastTextX + Math.min(deltaSpace, deltaCharWidth);
+                    lastPosition.setArticleStart();
+                    startOfArticle = false;
                 }
-
-                if (lastPosition != null)
+                // RDD - Here we determine whether this text object is on the current
+                // line. We use the lastBaselineFontSize to handle the superscript
+                // case, and the size of the current font to handle the subscript case.
+                // Text must overlap with the last rendered baseline text by at least
+                // a small amount in order to be considered as being on the same line.
+
+                // XXX BC: In theory, this check should really check if the next char is in
+                // full range seen in this line. This is what I tried to do with minYTopForLine,
+                // but this caused a lot of regression test failures. So, I'm leaving it be for
+                // now
+                if (!overlap(positionY, positionHeight, maxYForLine, maxHeightForLine))
                 {
-                    if (startOfArticle)
-                    {
-                        lastPosition.setArticleStart();
-                        startOfArticle = false;
-                    }
-                    // RDD - Here we determine whether this text object is on the current
-                    // line. We use the lastBaselineFontSize to handle the superscript
-                    // case, and the size of the current font to handle the subscript case.
-                    // Text must overlap with the last rendered baseline text by at least
-                    // a small amount in order to be considered as being on the same line.
-
-                    // XXX BC: In theory, this check should really check if the next char is in
-                    // full range seen in this line. This is what I tried to do with minYTopForLine,
-                    // but this caused a lot of regression test failures. So, I'm leaving it be for
-                    // now
-                    if (!overlap(positionY, positionHeight, maxYForLine, maxHeightForLine))
-                    {
-                        writeLine(normalize(line));
-                        line.clear();
-                        lastLineStartPosition = handleLineSeparation(current, lastPosition,
-                                lastLineStartPosition, maxHeightForLine);
-                        expectedStartOfNextWordX = EXPECTED_START_OF_NEXT_WORD_X_RESET_VALUE;
-                        maxYForLine = MAX_Y_FOR_LINE_RESET_VALUE;
-                        maxHeightForLine = MAX_HEIGHT_FOR_LINE_RESET_VALUE;
-                        minYTopForLine = MIN_Y_TOP_FOR_LINE_RESET_VALUE;
-                    }
-                    // test if our TextPosition starts after a new word would be expected to start
-                    if (Float.compare(expectedStartOfNextWordX, EXPECTED_START_OF_NEXT_WORD_X_RESET_VALUE) != 0
-                            && expectedStartOfNextWordX < positionX
-                            // only bother adding a word separator if the last character was not a word separator
-                            && (wordSeparator.isEmpty() || //
-                                    (lastPosition.getTextPosition().getUnicode() != null
-                                            && !lastPosition.getTextPosition().getUnicode()
-                                                    .endsWith(wordSeparator))))
-                    {
-                        line.add(LineItem.getWordSeparator());
-                    }
-                    // if there is at least the equivalent of one space
-                    // between the last character and the current one,
-                    // reset the max line height as the font size may have completely changed.
-                    if (Math.abs(position.getX()
-                            - lastPosition.getTextPosition().getX()) > (wordSpacing + deltaSpace))
-                    {
-                        maxYForLine = MAX_Y_FOR_LINE_RESET_VALUE;
-                        maxHeightForLine = MAX_HEIGHT_FOR_LINE_RESET_VALUE;
-                        minYTopForLine = MIN_Y_TOP_FOR_LINE_RESET_VALUE;
-                    }
+                    writeLine(normalize(line));
+                    line.clear();
+                    lastLineStartPosition = handleLineSeparation(current, lastPosition,
+                            lastLineStartPosition, maxHeightForLine);
+                    expectedStartOfNextWordX = EXPECTED_START_OF_NEXT_WORD_X_RESET_VALUE;
+                    maxYForLine = MAX_Y_FOR_LINE_RESET_VALUE;
+                    maxHeightForLine = MAX_HEIGHT_FOR_LINE_RESET_VALUE;
+                    minYTopForLine = MIN_Y_TOP_FOR_LINE_RESET_VALUE;
                 }
-                if (positionY >= maxYForLine)
+                // test if our TextPosition starts after a new word would be expected to start
+                if (Float.compare(expectedStartOfNextWordX, EXPECTED_START_OF_NEXT_WORD_X_RESET_VALUE) != 0
+                        && expectedStartOfNextWordX < positionX
+                        // only bother adding a word separator if the last character was not a word separator
+                        && (wordSeparator.isEmpty() || //
+                                (lastPosition.getTextPosition().getUnicode() != null
+                                        && !lastPosition.getTextPosition().getUnicode()
+                                                .endsWith(wordSeparator))))
                 {
-                    maxYForLine = positionY;
+                    line.add(LineItem.getWordSeparator());
                 }
-                // RDD - endX is what PDF considers to be the x coordinate of the
-                // end position of the text. We use it in computing our metrics below.
-                endOfLastTextX = positionX + positionWidth;
-
-                // add it to the list
-                if (characterValue != null)
+                // if there is at least the equivalent of one space
+                // between the last character and the current one,
+                // reset the max line height as the font size may have completely changed.
+                if (Math.abs(position.getX()
+                        - lastPosition.getTextPosition().getX()) > (wordSpacing + deltaSpace))
                 {
-                    if (startOfPage && lastPosition == null)
-                    {
-                        writeParagraphStart();// not sure this is correct for RTL?
-                    }
-                    line.add(new LineItem(position));
+                    maxYForLine = MAX_Y_FOR_LINE_RESET_VALUE;
+                    maxHeightForLine = MAX_HEIGHT_FOR_LINE_RESET_VALUE;
+                    minYTopForLine = MIN_Y_TOP_FOR_LINE_RESET_VALUE;
                 }
-                maxHeightForLine = Math.max(maxHeightForLine, positionHeight);
-                minYTopForLine = Math.min(minYTopForLine, positionY - positionHeight);
-                lastPosition = current;
-                if (startOfPage)
+            }
+            if (positionY >= maxYForLine)
+            {
+                maxYForLine = positionY;
+            }
+            // RDD - endX is what PDF considers to be the x coordinate of the
+            // end position of the text. We use it in computing our metrics below.
+            endOfLastTextX = positionX + positionWidth;
+
+            // add it to the list
+            if (characterValue != null)
+            {
+                if (startOfPage && lastPosition == null)
                 {
-                    lastPosition.setParagraphStart();
-                    lastPosition.setLineStart();
-                    lastLineStartPosition = lastPosition;
-                    startOfPage = false;
+                    writeParagraphStart();// not sure this is correct for RTL?
                 }
-                lastWordSpacing = wordSpacing;
-                previousAveCharWidth = averageCharWidth;
+                line.add(new LineItem(position));
             }
+            maxHeightForLine = Math.max(maxHeightForLine, positionHeight);
+            minYTopForLine = Math.min(minYTopForLine, positionY - positionHeight);
+            lastPosition = current;
+            if (startOfPage)
+            {
+                lastPosition.setParagraphStart();
+                lastPosition.setLineStart();
+                lastLineStartPosition = lastPosition;
+                startOfPage = false;
+            }
+            lastWordSpacing = wordSpacing;
+            previousAveCharWidth = averageCharWidth;
+        }
+
+        void endArticle() throws IOException
+        {
             // print the final line
             if (line.size() > 0)
             {
                 writeLine(normalize(line));
                 writeParagraphEnd();
             }
-            endArticle();
+            PDFTextStripper.this.endArticle();
         }
-        writePageEnd();
     }
 
     private boolean overlap(float y1, float height1, float y2, float height2)
@@ -785,13 +1036,6 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             String textCharacter = text.getUnicode();
             float textX = text.getX();
             float textY = text.getY();
-            TreeMap<Float, TreeSet<Float>> sameTextCharacters = characterListMapping
-                    .get(textCharacter);
-            if (sameTextCharacters == null)
-            {
-                sameTextCharacters = new TreeMap<>();
-                characterListMapping.put(textCharacter, sameTextCharacters);
-            }
             // RDD - Here we compute the value that represents the end of the rendered
             // text. This value is used to determine whether subsequent text rendered
             // on the same line overwrites the current text.
@@ -802,29 +1046,10 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             // the TJ just backs up to compensate after each character). Also, we subtract
             // an amount to allow for kerning (a percentage of the width of the last
             // character).
-            boolean suppressCharacter = false;
             float tolerance = text.getWidth() / textCharacter.length() / 3.0f;
-
-            SortedMap<Float, TreeSet<Float>> xMatches = sameTextCharacters.subMap(textX - tolerance,
-                    textX + tolerance);
-            for (TreeSet<Float> xMatch : xMatches.values())
+            if (!characterGrid.containsNear(textCharacter, textX, textY, tolerance))
             {
-                SortedSet<Float> yMatches = xMatch.subSet(textY - tolerance, textY + tolerance);
-                if (!yMatches.isEmpty())
-                {
-                    suppressCharacter = true;
-                    break;
-                }
-            }
-            if (!suppressCharacter)
-            {
-                TreeSet<Float> ySet = sameTextCharacters.get(textX);
-                if (ySet == null)
-                {
-                    ySet = new TreeSet<>();
-                    sameTextCharacters.put(textX, ySet);
-                }
-                ySet.add(textY);
+                characterGrid.add(textCharacter, textX, textY);
                 showCharacter = true;
             }
         }
@@ -931,7 +1156,56 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
                     textList.add(text);
                 }
             }
+            if (streamingWriter != null)
+            {
+                try
+                {
+                    writeStreamedText(textList);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the text positions of the page which are complete in streaming mode. The last text position is kept, as a
+     * following diacritic may be merged into it. When sorting by position, the text positions are only written when a
+     * text position starts below all of them, i.e. the text flow is monotone and a new line has been started.
+     *
+     * @param textList the text positions of the page which haven't been written yet
+     * @throws IOException if the text could not be written
+     */
+    private void writeStreamedText(List<TextPosition> textList) throws IOException
+    {
+        int lastIndex = textList.size() - 1;
+        if (lastIndex < 1)
+        {
+            return;
+        }
+        List<TextPosition> completedText = textList.subList(0, lastIndex);
+        if (getSortByPosition())
+        {
+            for (; streamingCheckedCount < lastIndex; streamingCheckedCount++)
+            {
+                streamingMaxY = Math.max(streamingMaxY, textList.get(streamingCheckedCount).getYDirAdj());
+            }
+            TextPosition lastPosition = textList.get(lastIndex);
+            if (lastPosition.getYDirAdj() - lastPosition.getHeightDir() <= streamingMaxY)
+            {
+                return;
+            }
+            TextPositionLineSorter.sort(completedText);
+            streamingMaxY = -Float.MAX_VALUE;
+            streamingCheckedCount = 0;
+        }
+        for (TextPosition position : completedText)
+        {
+            streamingWriter.writeTextPosition(position);
         }
+        completedText.clear();
     }
 
     /**
@@ -1179,6 +1453,36 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
         sortByPosition = newSortByPosition;
     }
 
+    /**
+     * This will tell if the text is written while a page is processed.
+     *
+     * @return true if the text is written while a page is processed.
+     */
+    public boolean getStreaming()
+    {
+        return streaming;
+    }
+
+    /**
+     * Enables the streaming mode, in which the text of a page is written while the page is processed, so that only a
+     * window of text positions is held in memory instead of all text positions of the page. This reduces the memory
+     * used by pages with a huge number of characters, e.g. maps or charts.
+     * <p>
+     * Without sorting, the text is the same as without streaming. When sorting by position, the text positions are
+     * sorted and written each time a text position starts below all text positions held in memory, so that the text
+     * is only the same as without streaming if the text of the page appears from top to bottom in the content stream.
+     * <p>
+     * Streaming is only used for pages without article beads, see {@link #setShouldSeparateByBeads(boolean)}. The text
+     * positions of a streamed page aren't available in {@link #getCharactersByArticle()} when {@link #writePage()} is
+     * called.
+     *
+     * @param streaming true if the text shall be written while a page is processed.
+     */
+    public void setStreaming(boolean streaming)
+    {
+        this.streaming = streaming;
+    }
+
     /**
      * Get the current space width-based tolerance value that is being used to estimate where spaces in text should be
      * added. Note that the default value for this has been determined from trial and error.
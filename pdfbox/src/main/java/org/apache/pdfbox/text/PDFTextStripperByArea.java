@@ -58,6 +58,17 @@ public class PDFTextStripperByArea extends PDFTextStripper
     {
     }
 
+    /**
+     * This method does nothing in this derived class, because the text of all regions is collected before it is
+     * written. Streaming is not supported when stripping by area.
+     *
+     * @param streaming The new streaming mode.
+     */
+    @Override
+    public final void setStreaming(boolean streaming)
+    {
+    }
+
    /**
      * Add a new region to group text by.
      *
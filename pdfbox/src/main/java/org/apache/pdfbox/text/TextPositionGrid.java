@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A spatial index of the positions of the characters shown on a page, used to find duplicate overlapping text. The
+ * positions are kept in primitive arrays of grid cells, so that the memory used per character is small.
+ */
+final class TextPositionGrid
+{
+    private static final float CELL_SIZE = 8;
+
+    // scan all cells if a query covers more cells than this
+    private static final long MAX_QUERY_CELLS = 64;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    /**
+     * Tests whether a character with the given text was added at a position within the given tolerance, i.e. whose x
+     * coordinate is within [x - tolerance, x + tolerance) and whose y coordinate is within [y - tolerance, y +
+     * tolerance).
+     *
+     * @param text the text of the character
+     * @param x the x coordinate of the character
+     * @param y the y coordinate of the character
+     * @param tolerance the tolerance
+     * @return true if a matching character was found
+     */
+    boolean containsNear(String text, float x, float y, float tolerance)
+    {
+        float minX = x - tolerance;
+        float maxX = x + tolerance;
+        float minY = y - tolerance;
+        float maxY = y + tolerance;
+        if (!(minX < maxX) || !(minY < maxY))
+        {
+            // empty range or NaN
+            return false;
+        }
+        if (Float.isInfinite(tolerance) || Float.isInfinite(x) || Float.isInfinite(y))
+        {
+            return containsNear(cells.values(), text, minX, maxX, minY, maxY);
+        }
+        int minCellX = cellIndex(minX);
+        int maxCellX = cellIndex(maxX);
+        int minCellY = cellIndex(minY);
+        int maxCellY = cellIndex(maxY);
+        if (((long) maxCellX - minCellX + 1) * ((long) maxCellY - minCellY + 1) > MAX_QUERY_CELLS)
+        {
+            return containsNear(cells.values(), text, minX, maxX, minY, maxY);
+        }
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+        {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++)
+            {
+                Cell cell = cells.get(cellKey(cellX, cellY));
+                if (cell != null && cell.containsNear(text, minX, maxX, minY, maxY))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsNear(Iterable<Cell> cells, String text, float minX, float maxX,
+            float minY, float maxY)
+    {
+        for (Cell cell : cells)
+        {
+            if (cell.containsNear(text, minX, maxX, minY, maxY))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a character at the given position.
+     *
+     * @param text the text of the character
+     * @param x the x coordinate of the character
+     * @param y the y coordinate of the character
+     */
+    void add(String text, float x, float y)
+    {
+        cells.computeIfAbsent(cellKey(cellIndex(x), cellIndex(y)), k -> new Cell()).add(text, x, y);
+    }
+
+    /**
+     * Removes all characters.
+     */
+    void clear()
+    {
+        cells.clear();
+    }
+
+    private static int cellIndex(float coordinate)
+    {
+        // the cast saturates for huge and infinite values and maps NaN to 0
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static Long cellKey(int cellX, int cellY)
+    {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    /**
+     * The characters of a single grid cell.
+     */
+    private static final class Cell
+    {
+        private String[] texts = new String[4];
+        private float[] xs = new float[4];
+        private float[] ys = new float[4];
+        private int size;
+
+        void add(String text, float x, float y)
+        {
+            if (size == texts.length)
+            {
+                texts = Arrays.copyOf(texts, size * 2);
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            texts[size] = text;
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        boolean containsNear(String text, float minX, float maxX, float minY, float maxY)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                float x = xs[i];
+                float y = ys[i];
+                if (x >= minX && x < maxX && y >= minY && y < maxY && text.equals(texts[i]))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.text;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorts text positions by text direction, line and x coordinate, like {@link TextPositionComparator}.
+ *
+ * The comparator isn't transitive, so that it can't be used with the JDK sort. This class uses transitive keys
+ * instead: the text positions of each direction are sorted by their baseline and grouped into lines, a text position
+ * starting a new line if its top is below the baseline of the first text position of the current line. Text positions
+ * which overlap both lines, e.g. in table cells spanning two lines, are assigned to the line which keeps the order of
+ * the comparator, i.e. to the new line if they are right of its start. Then each line is sorted by x. All sorts use
+ * primitive keys and run in O(n log n).
+ */
+final class TextPositionLineSorter
+{
+    private TextPositionLineSorter()
+    {
+    }
+
+    /**
+     * Sorts the given text positions.
+     *
+     * @param textList the text positions to be sorted
+     */
+    static void sort(List<TextPosition> textList)
+    {
+        int size = textList.size();
+        if (size < 2)
+        {
+            return;
+        }
+        TextPosition[] positions = textList.toArray(new TextPosition[size]);
+        float[] x = new float[size];
+        float[] yBottom = new float[size];
+        float[] yTop = new float[size];
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++)
+        {
+            TextPosition position = positions[i];
+            x[i] = position.getXDirAdj();
+            yBottom[i] = position.getYDirAdj();
+            // note that the coordinates have been adjusted so 0,0 is in upper left
+            yTop[i] = yBottom[i] - position.getHeightDir();
+            keys[i] = key(position.getDir(), i);
+        }
+        // group the text positions by direction
+        Arrays.sort(keys);
+
+        Line line = new Line(size);
+        Line nextLine = new Line(size);
+        int sorted = 0;
+        int directionStart = 0;
+        while (directionStart < size)
+        {
+            float dir = positions[index(keys[directionStart])].getDir();
+            int directionEnd = directionStart + 1;
+            while (directionEnd < size
+                    && Float.compare(positions[index(keys[directionEnd])].getDir(), dir) == 0)
+            {
+                directionEnd++;
+            }
+
+            // sort the text positions of the direction by baseline
+            for (int i = directionStart; i < directionEnd; i++)
+            {
+                int index = index(keys[i]);
+                keys[i] = key(yBottom[index], index);
+            }
+            Arrays.sort(keys, directionStart, directionEnd);
+
+            // walk through the clusters of text positions with the same baseline
+            line.clear();
+            int clusterStart = directionStart;
+            while (clusterStart < directionEnd)
+            {
+                float clusterY = yBottom[index(keys[clusterStart])];
+                float clusterTop = Float.MAX_VALUE;
+                float clusterMinX = Float.MAX_VALUE;
+                int clusterEnd = clusterStart;
+                while (clusterEnd < directionEnd
+                        && Math.abs(yBottom[index(keys[clusterEnd])] - clusterY) < .1)
+                {
+                    int index = index(keys[clusterEnd]);
+                    clusterTop = Math.min(clusterTop, yTop[index]);
+                    clusterMinX = Math.min(clusterMinX, x[index]);
+                    clusterEnd++;
+                }
+
+                if (line.size > 0 && line.y < clusterTop)
+                {
+                    // the cluster doesn't overlap the first cluster of the line, thus it starts a
+                    // new line. Text positions at the end of the line which overlap the new line
+                    // and are right of its start belong to the new line as well.
+                    nextLine.clear();
+                    int kept = 0;
+                    for (int i = 0; i < line.size; i++)
+                    {
+                        int index = line.indexes[i];
+                        if (yBottom[index] > line.y && yBottom[index] >= clusterTop
+                                && x[index] > clusterMinX)
+                        {
+                            nextLine.add(index, yBottom[index]);
+                        }
+                        else
+                        {
+                            line.indexes[kept++] = index;
+                        }
+                    }
+                    line.size = kept;
+                    sorted = line.sortAndWrite(textList, positions, x, sorted);
+                    Line tmp = line;
+                    line = nextLine;
+                    nextLine = tmp;
+                }
+                for (int i = clusterStart; i < clusterEnd; i++)
+                {
+                    line.add(index(keys[i]), clusterY);
+                }
+                clusterStart = clusterEnd;
+            }
+            sorted = line.sortAndWrite(textList, positions, x, sorted);
+            directionStart = directionEnd;
+        }
+    }
+
+    /**
+     * The text positions of a line.
+     */
+    private static final class Line
+    {
+        private final int[] indexes;
+        private final long[] keys;
+        private int size;
+        // the baseline of the first cluster of the line
+        private float y;
+
+        private Line(int capacity)
+        {
+            indexes = new int[capacity];
+            keys = new long[capacity];
+        }
+
+        private void clear()
+        {
+            size = 0;
+        }
+
+        private void add(int index, float baseline)
+        {
+            if (size == 0 || baseline < y)
+            {
+                y = baseline;
+            }
+            indexes[size++] = index;
+        }
+
+        /**
+         * Sorts the text positions of the line by x and writes them to the given list.
+         *
+         * @return the number of sorted text positions in the list
+         */
+        private int sortAndWrite(List<TextPosition> textList, TextPosition[] positions, float[] x,
+                int sorted)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                keys[i] = key(x[indexes[i]], indexes[i]);
+            }
+            Arrays.sort(keys, 0, size);
+            for (int i = 0; i < size; i++)
+            {
+                textList.set(sorted++, positions[index(keys[i])]);
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Returns a key ordered like {@link Float#compare(float, float)} for the value and then by the index.
+     */
+    private static long key(float value, int index)
+    {
+        int bits = Float.floatToIntBits(value);
+        // flip the value bits of negative numbers, so that the ints are ordered like the floats
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | index;
+    }
+
+    private static int index(long key)
+    {
+        return (int) key;
+    }
+}
@@ -17,10 +17,13 @@
 package org.apache.pdfbox.cos;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -55,4 +58,37 @@ class TestCOSName
             assertEquals(special, catalogDict.getString(special));
         }
     }
+
+    /**
+     * Check that document specific names are interned, but removed when they aren't used anymore.
+     * The JVM doesn't have to collect the name when asked to, the test is skipped in that case.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    void testDocumentNameInterning() throws InterruptedException
+    {
+        assertSame(COSName.TYPE, COSName.getPDFName("Type"));
+
+        long created = COSName.getCreatedDocumentNameCount();
+        String string = "PDFBoxTestName" + System.nanoTime();
+        COSName name = COSName.getPDFName(string);
+        assertSame(name, COSName.getPDFName(new String(string)));
+        assertTrue(COSName.getCreatedDocumentNameCount() > created);
+
+        // all weak references to the name are cleared at the same time
+        WeakReference<COSName> reference = new WeakReference<>(name);
+        name = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assumeTrue(reference.get() == null, "the name wasn't garbage collected");
+
+        // the name isn't found anymore and is created again
+        created = COSName.getCreatedDocumentNameCount();
+        assertEquals(string, COSName.getPDFName(string).getName());
+        assertTrue(COSName.getCreatedDocumentNameCount() > created);
+    }
 }
@@ -16,6 +16,7 @@
  */
 package org.apache.pdfbox.cos;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -29,6 +30,10 @@ import java.util.Arrays;
 import org.apache.pdfbox.filter.Filter;
 import org.apache.pdfbox.filter.FilterFactory;
 import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.ScratchFile;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -180,6 +185,61 @@ class TestCOSStream
         }
     }
 
+    /**
+     * Tests that large decoded streams are written to the scratch file instead of the heap.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testCreateViewSpillsToScratchFile() throws IOException
+    {
+        byte[] small = new byte[1000];
+        byte[] large = new byte[3 * 1024 * 1024];
+        for (int i = 0; i < large.length; i++)
+        {
+            large[i] = (byte) (i % 251);
+        }
+        System.arraycopy(large, 0, small, 0, small.length);
+        try (ScratchFile scratchFile = new ScratchFile(MemoryUsageSetting.setupMixed(64 * 1024)))
+        {
+            try (COSStream stream = new COSStream(scratchFile))
+            {
+                try (OutputStream output = stream.createOutputStream(COSName.FLATE_DECODE))
+                {
+                    output.write(small);
+                }
+                try (RandomAccessRead view = stream.createView())
+                {
+                    assertTrue(view instanceof RandomAccessReadBuffer);
+                    assertArrayEquals(small, readFully(view));
+                }
+            }
+            try (COSStream stream = new COSStream(scratchFile))
+            {
+                try (OutputStream output = stream.createOutputStream(COSName.FLATE_DECODE))
+                {
+                    output.write(large);
+                }
+                try (RandomAccessRead view = stream.createView())
+                {
+                    assertFalse(view instanceof RandomAccessReadBuffer);
+                    assertArrayEquals(large, readFully(view));
+                }
+            }
+        }
+    }
+
+    private byte[] readFully(RandomAccessRead view) throws IOException
+    {
+        byte[] data = new byte[(int) view.length()];
+        int offset = 0;
+        while (offset < data.length)
+        {
+            offset += view.read(data, offset, data.length - offset);
+        }
+        return data;
+    }
+
     private byte[] encodeData(byte[] original, COSName filter) throws IOException
     {
         Filter encodingFilter = FilterFactory.INSTANCE.getFilter(filter);
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TestXrefTable
+{
+    @Test
+    void testPrimitiveAccess()
+    {
+        XrefTable table = new XrefTable();
+        assertEquals(XrefTable.NOT_FOUND, table.put(1, 0, 15));
+        assertEquals(XrefTable.NOT_FOUND, table.put(2, 0, -7));
+        assertEquals(15, table.put(1, 0, 20));
+        assertEquals(20, table.getOffset(1, 0));
+        assertEquals(-7, table.getOffset(new COSObjectKey(2, 0)));
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(1, 1));
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(3, 0));
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(-1, 0));
+        assertEquals(2, table.size());
+
+        // entries which don't fit into the array
+        table.put(1, 1, 30);
+        table.put(Integer.MAX_VALUE + 10L, 0, 40);
+        table.put(4, 70000, 50);
+        table.put(5, 0, 1L << 50);
+        assertEquals(20, table.getOffset(1, 0));
+        assertEquals(30, table.getOffset(1, 1));
+        assertEquals(40, table.getOffset(Integer.MAX_VALUE + 10L, 0));
+        assertEquals(50, table.getOffset(4, 70000));
+        assertEquals(1L << 50, table.getOffset(5, 0));
+        assertEquals(6, table.size());
+
+        assertEquals(20, table.remove(1, 0));
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(1, 0));
+        assertEquals(30, table.getOffset(1, 1));
+        // the generation stored in the map is moved into the array
+        assertEquals(30, table.put(1, 1, 35));
+        assertEquals(35, table.getOffset(1, 1));
+        assertEquals(5, table.size());
+        assertEquals(XrefTable.NOT_FOUND, table.remove(1, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> table.put(1, 0, XrefTable.NOT_FOUND));
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(2, 0));
+    }
+
+    @Test
+    void testMapContract()
+    {
+        Map<COSObjectKey, Long> expected = new HashMap<>();
+        XrefTable table = new XrefTable();
+        Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++)
+        {
+            long number = random.nextInt(20) == 0 ? random.nextInt(Integer.MAX_VALUE)
+                    : random.nextInt(5000);
+            int generation = random.nextInt(10) == 0 ? random.nextInt(3) : 0;
+            long offset = random.nextBoolean() ? random.nextInt(1000000) : -random.nextInt(5000);
+            COSObjectKey key = new COSObjectKey(number, generation);
+            assertEquals(expected.put(key, offset), table.put(key, offset));
+        }
+        assertEquals(expected, table);
+        assertEquals(table, expected);
+        assertEquals(expected.hashCode(), table.hashCode());
+        assertEquals(expected, new XrefTable(table));
+
+        Map<COSObjectKey, Long> forEachResult = new HashMap<>();
+        table.forEach(forEachResult::put);
+        assertEquals(expected, forEachResult);
+
+        // remove every other entry using the iterator
+        Iterator<Map.Entry<COSObjectKey, Long>> iterator = table.entrySet().iterator();
+        boolean remove = false;
+        while (iterator.hasNext())
+        {
+            Map.Entry<COSObjectKey, Long> entry = iterator.next();
+            if (remove)
+            {
+                iterator.remove();
+                expected.remove(entry.getKey());
+            }
+            remove = !remove;
+        }
+        assertEquals(expected, table);
+        for (COSObjectKey key : expected.keySet())
+        {
+            assertTrue(table.containsKey(key));
+            assertEquals(expected.get(key), table.remove(key));
+            assertFalse(table.containsKey(key));
+        }
+        assertTrue(table.isEmpty());
+        assertNull(table.get("1 0 R"));
+    }
+}
@@ -22,11 +22,14 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
 import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
 
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.io.IOUtils;
 import org.junit.jupiter.api.Test;
@@ -176,6 +179,49 @@ class TestFilters
         checkEncodeDecode(rleFilter, input8);
     }
 
+    /**
+     * Test that decoding a stream with PNG predictors on the fly gives the same result as decoding
+     * it at once, including a truncated last row.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testStreamingPredictor() throws IOException
+    {
+        Random random = new Random(4711);
+        int columns = 37;
+        int colors = 3;
+        int rowLength = columns * colors + 1;
+        byte[] predicted = new byte[rowLength * 200 + rowLength / 2];
+        random.nextBytes(predicted);
+        for (int i = 0; i < predicted.length; i += rowLength)
+        {
+            // PNG predictor of the row
+            predicted[i] = (byte) random.nextInt(5);
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(encoded))
+        {
+            out.write(predicted);
+        }
+
+        COSDictionary decodeParams = new COSDictionary();
+        decodeParams.setItem(COSName.PREDICTOR, COSInteger.get(15));
+        decodeParams.setItem(COSName.COLUMNS, COSInteger.get(columns));
+        decodeParams.setItem(COSName.COLORS, COSInteger.get(colors));
+        COSDictionary parameters = new COSDictionary();
+        parameters.setItem(COSName.DECODE_PARMS, decodeParams);
+
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        filter.decode(new ByteArrayInputStream(encoded.toByteArray()), decoded, parameters, 0);
+        try (InputStream decodingInput = filter.createDecodingInputStream(
+                new ByteArrayInputStream(encoded.toByteArray()), parameters, 0, DecodeOptions.DEFAULT))
+        {
+            assertArrayEquals(decoded.toByteArray(), IOUtils.toByteArray(decodingInput));
+        }
+    }
+
     private void checkEncodeDecode(Filter filter, byte[] original) throws IOException
     {
         ByteArrayOutputStream encoded = new ByteArrayOutputStream();
@@ -187,5 +233,18 @@ class TestFilters
         assertArrayEquals(original, decoded.toByteArray(),
                 "Data that is encoded and then decoded through " + filter.getClass()
                         + " does not match the original data");
+
+        InputStream decodingInput = filter.createDecodingInputStream(
+                new ByteArrayInputStream(encoded.toByteArray()), new COSDictionary(), 0,
+                DecodeOptions.DEFAULT);
+        if (decodingInput != null)
+        {
+            try (InputStream in = decodingInput)
+            {
+                assertArrayEquals(original, IOUtils.toByteArray(in),
+                        "Data that is encoded and then decoded on the fly through "
+                                + filter.getClass() + " does not match the original data");
+            }
+        }
     }
 }
@@ -203,4 +203,74 @@ class RandomAccessReadMemoryMappedFileTest
             assertEquals(3, view.getPosition());
         }
     }
+
+    @Test
+    void testSegmentedRead() throws IOException, URISyntaxException
+    {
+        File file = new File(getClass().getResource("RandomAccessReadFile1.txt").toURI());
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadMemoryMappedFile(file, 7))
+        {
+            assertEquals(file.length(), randomAccessSource.length());
+            for (int i = 0; i < 20; i++)
+            {
+                assertEquals('0' + i % 10, randomAccessSource.read());
+            }
+            assertEquals(20, randomAccessSource.getPosition());
+
+            // read across several segment boundaries
+            randomAccessSource.seek(5);
+            byte[] buffer = new byte[17];
+            assertEquals(buffer.length, randomAccessSource.read(buffer));
+            for (int i = 0; i < buffer.length; i++)
+            {
+                assertEquals('0' + (i + 5) % 10, buffer[i]);
+            }
+            assertEquals(22, randomAccessSource.getPosition());
+
+            // backwards across a segment boundary
+            randomAccessSource.rewind(2);
+            assertEquals('0', randomAccessSource.peek());
+            randomAccessSource.seek(6);
+            assertEquals('6', randomAccessSource.read());
+            assertEquals('7', randomAccessSource.read());
+
+            // read the remaining bytes up to the end of the file
+            randomAccessSource.seek(file.length() - 3);
+            assertEquals(3, randomAccessSource.read(new byte[10]));
+            assertTrue(randomAccessSource.isEOF());
+        }
+    }
+
+    @Test
+    void testSegmentedView() throws IOException, URISyntaxException
+    {
+        RandomAccessRead randomAccessSource = new RandomAccessReadMemoryMappedFile(
+                new File(getClass().getResource("RandomAccessReadFile1.txt").toURI()), 4);
+        RandomAccessReadView view = randomAccessSource.createView(3, 10);
+        assertEquals('3', view.read());
+        byte[] buffer = new byte[5];
+        assertEquals(buffer.length, view.read(buffer));
+        assertEquals('4', buffer[0]);
+        assertEquals('8', buffer[4]);
+        assertEquals(6, view.getPosition());
+
+        // the position of the parent isn't affected by the view
+        assertEquals(0, randomAccessSource.getPosition());
+        assertEquals('0', randomAccessSource.read());
+
+        // closing the parent unmaps the shared segments and closes the view as well
+        randomAccessSource.close();
+        assertTrue(view.isClosed());
+        Assertions.assertThrows(IOException.class, () -> view.read(),
+                "checkClosed should have thrown an IOException");
+        view.close();
+    }
+
+    @Test
+    void testInvalidSegmentSize() throws URISyntaxException
+    {
+        File file = new File(getClass().getResource("RandomAccessReadFile1.txt").toURI());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new RandomAccessReadMemoryMappedFile(file, 0));
+    }
 }
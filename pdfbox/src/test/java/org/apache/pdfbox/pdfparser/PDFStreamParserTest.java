@@ -16,13 +16,18 @@
 package org.apache.pdfbox.pdfparser;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorName;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * Tests for PDFStreamParser.
@@ -89,6 +94,35 @@ class PDFStreamParserTest
         testInlineImage2ops("ID\n12EI5EI          Q   ", "12EI5", "Q");
     }
 
+    /**
+     * Tests that numbers and names are parsed correctly from the bytes of the stream.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testNumbersAndNames() throws IOException
+    {
+        List<Object> tokens = parseTokenString("0 -12 +7 --3 1-2 3.5 -.5 123456789012345678 "
+                + "-9223372036854775808 9223372036854775807 /Name /A#20B /Ab#zz /caf\u00e9 /Name");
+        assertEquals(15, tokens.size());
+        assertEquals(COSInteger.ZERO, tokens.get(0));
+        assertEquals(COSInteger.get(-12), tokens.get(1));
+        assertEquals(COSInteger.get(7), tokens.get(2));
+        assertEquals(COSInteger.get(-3), tokens.get(3));
+        assertEquals(COSInteger.get(12), tokens.get(4));
+        assertEquals(new COSFloat(3.5f), tokens.get(5));
+        assertEquals(new COSFloat(-0.5f), tokens.get(6));
+        assertEquals(COSInteger.get(123456789012345678L), tokens.get(7));
+        assertEquals(COSInteger.get(Long.MIN_VALUE), tokens.get(8));
+        assertEquals(COSInteger.get(Long.MAX_VALUE), tokens.get(9));
+        assertSame(COSName.getPDFName("Name"), tokens.get(10));
+        assertSame(COSName.getPDFName("A B"), tokens.get(11));
+        assertSame(COSName.getPDFName("Ab#zz"), tokens.get(12));
+        // not UTF-8, see PDFBOX-3347
+        assertSame(COSName.getPDFName("caf\u00e9"), tokens.get(13));
+        assertSame(tokens.get(10), tokens.get(14));
+    }
+
     // checks whether there are two operators, one inline image and the named operator
     private void testInlineImage2ops(String s, String imageDataString, String opName) throws IOException
     {
@@ -118,7 +152,8 @@ class PDFStreamParserTest
     // parse string and return list of tokens
     private List<Object> parseTokenString(String s) throws IOException
     {
-        PDFStreamParser pdfStreamParser = new PDFStreamParser(s.getBytes());
+        PDFStreamParser pdfStreamParser = new PDFStreamParser(
+                s.getBytes(StandardCharsets.ISO_8859_1));
         return pdfStreamParser.parse();
     }
 
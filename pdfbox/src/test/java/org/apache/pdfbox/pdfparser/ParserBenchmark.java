@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the lexer of the parsers, i.e. reading numbers, names and operators. The content streams of
+ * representative documents are tokenized by {@link PDFStreamParser}, and all objects of the documents are parsed by
+ * {@link PDFParser}. It isn't run with the unit tests, run {@link #main(String[])} using the test class path instead,
+ * e.g. from an IDE, or <code>java -cp &lt;test class path&gt; org.openjdk.jmh.Main ParserBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark
+{
+    /**
+     * Text with many glyph positioning numbers, a document with vector graphics, a document using many fonts and a
+     * document with article threads.
+     */
+    @Param({ "cweb.pdf", "eu-001.pdf", "sample_fonts_solidconvertor.pdf",
+            "PDFBOX-3110-poems-beads.pdf" })
+    public String fileName;
+
+    private byte[] pdf;
+    private final List<byte[]> contentStreams = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        try (InputStream input = ParserBenchmark.class.getResourceAsStream("/input/" + fileName))
+        {
+            pdf = IOUtils.toByteArray(input);
+        }
+        contentStreams.clear();
+        try (PDDocument document = Loader.loadPDF(pdf))
+        {
+            for (PDPage page : document.getPages())
+            {
+                try (InputStream contents = page.getContents())
+                {
+                    contentStreams.add(IOUtils.toByteArray(contents));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseContentStreams(Blackhole blackhole) throws IOException
+    {
+        for (byte[] contentStream : contentStreams)
+        {
+            PDFStreamParser parser = new PDFStreamParser(contentStream);
+            Object token;
+            while ((token = parser.parseNextToken()) != null)
+            {
+                blackhole.consume(token);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseAllObjects(Blackhole blackhole) throws IOException
+    {
+        try (PDDocument document = Loader.loadPDF(pdf))
+        {
+            COSDocument cosDocument = document.getDocument();
+            for (COSObjectKey key : new ArrayList<>(cosDocument.getXrefTable().keySet()))
+            {
+                blackhole.consume(cosDocument.getObjectFromPool(key).getObject());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(ParserBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
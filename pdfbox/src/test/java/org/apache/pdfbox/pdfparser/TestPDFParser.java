@@ -18,15 +18,51 @@
 package org.apache.pdfbox.pdfparser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.XrefTable;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadSharedFile;
+import org.apache.pdfbox.io.RandomAccessReadView;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.apache.pdfbox.rendering.PDFRenderer;
@@ -37,6 +73,9 @@ class TestPDFParser
 {
     private static final File TARGETPDFDIR = new File("target/pdfs");
 
+    // the modification time set on an index to detect if it was rewritten
+    private static final long INDEX_TIME = 946684800000L;
+
     @Test
     void testPDFParserMissingCatalog() throws URISyntaxException
     {
@@ -348,4 +387,712 @@ class TestPDFParser
         }
     }
 
+
+    /**
+     * Test the concurrent resolution of objects, each object has to be resolved exactly once, regardless of the
+     * number of threads requesting it.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testConcurrentObjectResolution() throws Exception
+    {
+        File file = new File(TestPDFParser.class
+                .getResource("/org/apache/pdfbox/pdmodel/interactive/form/AcroFormsBasicFields.pdf")
+                .toURI());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (PDDocument expectedDoc = Loader.loadPDF(file))
+        {
+            PDFParser parser = new PDFParser(new RandomAccessReadSharedFile(file));
+            parser.setConcurrentObjectResolution(true);
+            try (PDDocument doc = parser.parse())
+            {
+                assertTrue(parser.isConcurrentDereferencingSupported());
+                COSDocument expectedCOSDoc = expectedDoc.getDocument();
+                COSDocument cosDoc = doc.getDocument();
+                List<COSObjectKey> keys = new ArrayList<>(cosDoc.getXrefTable().keySet());
+                assertTrue(keys.size() > 20);
+
+                List<Future<Map<COSObjectKey, COSBase>>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++)
+                {
+                    List<COSObjectKey> shuffledKeys = new ArrayList<>(keys);
+                    Collections.shuffle(shuffledKeys);
+                    results.add(executor.submit(() ->
+                    {
+                        Map<COSObjectKey, COSBase> objects = new HashMap<>();
+                        for (COSObjectKey key : shuffledKeys)
+                        {
+                            objects.put(key, cosDoc.getObjectFromPool(key).getObject());
+                        }
+                        return objects;
+                    }));
+                }
+                Map<COSObjectKey, COSBase> firstResult = results.get(0).get();
+                for (Future<Map<COSObjectKey, COSBase>> result : results)
+                {
+                    Map<COSObjectKey, COSBase> objects = result.get();
+                    for (COSObjectKey key : keys)
+                    {
+                        // all threads see the same instance
+                        assertTrue(firstResult.get(key) == objects.get(key));
+                    }
+                }
+                for (COSObjectKey key : keys)
+                {
+                    COSBase expected = expectedCOSDoc.getObjectFromPool(key).getObject();
+                    COSBase actual = firstResult.get(key);
+                    assertEquals(expected == null ? null : expected.getClass(),
+                            actual == null ? null : actual.getClass());
+                }
+                assertEquals(expectedDoc.getNumberOfPages(), doc.getNumberOfPages());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A source which copies the data for each view and can't create views concurrently is read sequentially, even if
+     * the concurrent resolution of objects is enabled.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testConcurrentObjectResolutionUnsupportedSource() throws Exception
+    {
+        File file = new File(TestPDFParser.class
+                .getResource("/org/apache/pdfbox/pdmodel/interactive/form/AcroFormsBasicFields.pdf")
+                .toURI());
+        RandomAccessReadBufferedFile source = new RandomAccessReadBufferedFile(file);
+        assertFalse(source.isConcurrentViewSupported());
+        PDFParser parser = new PDFParser(source);
+        parser.setConcurrentObjectResolution(true);
+        try (PDDocument doc = parser.parse())
+        {
+            assertFalse(parser.isConcurrentDereferencingSupported());
+            assertTrue(doc.getNumberOfPages() > 0);
+            assertNotNull(doc.getDocumentCatalog().getAcroForm());
+        }
+    }
+
+    /**
+     * The length of an object stream refers to an object compressed in the object stream itself. Dereferencing the
+     * objects of the object stream concurrently must fail like it does sequentially instead of blocking forever, while
+     * a compressed length of a content stream is still resolved.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testConcurrentObjectResolutionCompressedLength() throws Exception
+    {
+        byte[] pdf = createDocumentWithCompressedLengths();
+        Map<COSObjectKey, Class<?>> expected = getObjectClasses(pdf);
+        assertNull(expected.get(new COSObjectKey(6, 0)));
+        assertNull(expected.get(new COSObjectKey(7, 0)));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            assertTimeoutPreemptively(Duration.ofSeconds(60), () ->
+            {
+                for (int i = 0; i < 50; i++)
+                {
+                    PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+                    parser.setConcurrentObjectResolution(true);
+                    try (PDDocument doc = parser.parse())
+                    {
+                        assertTrue(parser.isConcurrentDereferencingSupported());
+                        COSDocument cosDoc = doc.getDocument();
+                        List<Future<Class<?>>> results = new ArrayList<>();
+                        for (long number : new long[] { 7, 5, 6 })
+                        {
+                            results.add(executor.submit(() -> getObjectClass(cosDoc,
+                                    new COSObjectKey(number, 0))));
+                        }
+                        for (Future<Class<?>> result : results)
+                        {
+                            result.get();
+                        }
+                        for (Map.Entry<COSObjectKey, Class<?>> entry : expected.entrySet())
+                        {
+                            assertEquals(entry.getValue(), getObjectClass(cosDoc, entry.getKey()),
+                                    entry.getKey().toString());
+                        }
+                        byte[] contents = IOUtils.toByteArray(doc.getPage(0).getContents());
+                        assertEquals("0 0 m 100 100 l S",
+                                new String(contents, StandardCharsets.US_ASCII));
+                    }
+                }
+            });
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testObjectStreamCache() throws IOException
+    {
+        byte[] pdf = createDocumentWithObjectStreams();
+        Map<COSObjectKey, Class<?>> expectedClasses = getObjectClasses(pdf);
+
+        // each object stream is decoded only once
+        PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        ObjectStreamCache cache = parser.getObjectStreamCache();
+        try (PDDocument doc = parser.parse())
+        {
+            Map<COSObjectKey, Long> xrefTable = doc.getDocument().getXrefTable();
+            long compressedObjects = xrefTable.values().stream().filter(v -> v < 0).count();
+            long objectStreams = xrefTable.values().stream().filter(v -> v < 0).distinct().count();
+            assertTrue(objectStreams > 1);
+            for (COSObjectKey key : xrefTable.keySet())
+            {
+                assertEquals(expectedClasses.get(key), getObjectClass(doc.getDocument(), key));
+            }
+            assertEquals(objectStreams, cache.getMissCount());
+            assertEquals(compressedObjects, cache.getHitCount() + cache.getMissCount());
+            assertEquals(objectStreams, cache.size());
+            assertEquals(0, cache.getEvictionCount());
+        }
+
+        // a small cache holds a single object stream
+        parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        cache = new ObjectStreamCache(1);
+        parser.setObjectStreamCache(cache);
+        try (PDDocument doc = parser.parse())
+        {
+            List<COSObjectKey> keys = new ArrayList<>(doc.getDocument().getXrefTable().keySet());
+            Collections.shuffle(keys, new Random(1));
+            for (COSObjectKey key : keys)
+            {
+                assertEquals(expectedClasses.get(key), getObjectClass(doc.getDocument(), key));
+            }
+            assertTrue(cache.getEvictionCount() > 0);
+            assertEquals(1, cache.size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ObjectStreamCache(0));
+    }
+
+    @Test
+    void testEagerObjectStreamLoading() throws Exception
+    {
+        byte[] pdf = createDocumentWithObjectStreams();
+        Map<COSObjectKey, Class<?>> expectedClasses = getObjectClasses(pdf);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            for (Executor objectStreamLoadingExecutor : new Executor[] { null, executor })
+            {
+                PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+                parser.setEagerObjectStreamLoading(true);
+                parser.setObjectStreamLoadingExecutor(objectStreamLoadingExecutor);
+                try (PDDocument doc = parser.parse())
+                {
+                    // the compressed objects are put into the object pool
+                    for (Map.Entry<COSObjectKey, Long> entry : doc.getDocument().getXrefTable()
+                            .entrySet())
+                    {
+                        if (entry.getValue() < 0)
+                        {
+                            assertFalse(doc.getDocument().getObjectFromPool(entry.getKey())
+                                    .isObjectNull());
+                        }
+                    }
+                    for (COSObjectKey key : doc.getDocument().getXrefTable().keySet())
+                    {
+                        assertEquals(expectedClasses.get(key),
+                                getObjectClass(doc.getDocument(), key));
+                    }
+                    assertEquals(100, doc.getNumberOfPages());
+                    // all compressed objects were parsed in advance
+                    assertEquals(0, parser.getObjectStreamCache().getMissCount());
+                    assertThrows(IllegalArgumentException.class,
+                            () -> parser.setEagerObjectStreamLoading(false));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBruteForceScanner() throws Exception
+    {
+        // three segments, with markers crossing the segment and block boundaries
+        int blockSize = 1024 * 1024;
+        int segmentSize = 16 * blockSize;
+        byte[] data = new byte[2 * segmentSize + 1000];
+        Arrays.fill(data, (byte) 'a');
+        long[] eofMarkers = { 100, segmentSize - 2 };
+        long[] objectMarkers = { 200, 2L * segmentSize - 1 };
+        long[] trailerMarkers = { segmentSize + blockSize - 3 };
+        long[] xrefTableMarkers = { segmentSize + 10, 2L * segmentSize + 500 };
+        long[] xrefStreamMarkers = { 3L * blockSize - 2 };
+        long[] objectStreamMarkers = { 5L * blockSize - 3 };
+        long[] endObjectMarkers = { segmentSize + 100, data.length - 4 };
+        putMarkers(data, eofMarkers, "%%EOF");
+        putMarkers(data, objectMarkers, " obj");
+        putMarkers(data, trailerMarkers, "trailer");
+        putMarkers(data, xrefTableMarkers, "xref");
+        putMarkers(data, xrefStreamMarkers, "/XRef");
+        putMarkers(data, objectStreamMarkers, "/ObjStm");
+        putMarkers(data, new long[] { endObjectMarkers[0] }, "endobj");
+        // cut off in the middle of the keyword
+        putMarkers(data, new long[] { endObjectMarkers[1] }, "endo");
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (RandomAccessRead source = new RandomAccessReadBuffer(data))
+        {
+            for (Executor scanExecutor : new Executor[] { null, executor })
+            {
+                BruteForceScanner scanner = BruteForceScanner.scan(source, 6, scanExecutor);
+                assertEquals(toList(eofMarkers), scanner.getEOFMarkers());
+                assertEquals(toList(objectMarkers), scanner.getObjectMarkers());
+                assertEquals(toList(trailerMarkers), scanner.getTrailerMarkers());
+                assertEquals(toList(xrefTableMarkers), scanner.getXRefTableMarkers());
+                assertEquals(toList(xrefStreamMarkers), scanner.getXRefStreamMarkers());
+                assertEquals(toList(objectStreamMarkers), scanner.getObjectStreamMarkers());
+                assertEquals(toList(endObjectMarkers), scanner.getEndObjectMarkers());
+            }
+
+            // a source without concurrent views is scanned on the calling thread
+            try (RandomAccessRead view = new RandomAccessReadView(source, 0, data.length))
+            {
+                BruteForceScanner scanner = BruteForceScanner.scan(view, 6,
+                        command -> fail("the executor must not be used"));
+                assertEquals(toList(objectMarkers), scanner.getObjectMarkers());
+                assertEquals(toList(endObjectMarkers), scanner.getEndObjectMarkers());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBruteForceSearch() throws Exception
+    {
+        byte[] pdf = createDamagedDocument();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            for (Executor scanExecutor : new Executor[] { null, executor })
+            {
+                PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+                parser.setBruteForceSearchExecutor(scanExecutor);
+                try (PDDocument doc = parser.parse())
+                {
+                    assertTrue(parser.bruteForceSearchTriggered);
+                    assertEquals(20, doc.getNumberOfPages());
+                    assertThrows(IllegalArgumentException.class,
+                            () -> parser.setBruteForceSearchExecutor(null));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testXrefIndex() throws Exception
+    {
+        File outDir = new File("target/test-output");
+        outDir.mkdirs();
+        File indexFile = new File(outDir, "xrefindex.idx");
+        indexFile.delete();
+
+        byte[] pdf = createDocumentWithObjectStreams();
+        Map<COSObjectKey, Long> xrefTable;
+        // the first parse writes the index
+        PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        parser.setXrefIndexFile(indexFile);
+        try (PDDocument doc = parser.parse())
+        {
+            assertTrue(indexFile.isFile());
+            xrefTable = new HashMap<>(doc.getDocument().getXrefTable());
+        }
+        // the second one uses it instead of parsing the xref streams, a used index isn't rewritten
+        assertTrue(indexFile.setLastModified(INDEX_TIME));
+        PDFParser indexParser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        indexParser.setXrefIndexFile(indexFile);
+        try (PDDocument doc = indexParser.parse())
+        {
+            assertEquals(INDEX_TIME, indexFile.lastModified());
+            assertEquals(xrefTable, doc.getDocument().getXrefTable());
+            assertTrue(doc.getDocument().isXRefStream());
+            assertEquals(100, doc.getNumberOfPages());
+            assertThrows(IllegalArgumentException.class, () -> indexParser.setXrefIndexFile(null));
+        }
+
+        // the index doesn't belong to a modified file
+        byte[] modified = Arrays.copyOf(pdf, pdf.length + 1);
+        modified[pdf.length] = '\n';
+        parser = new PDFParser(new RandomAccessReadBuffer(modified));
+        parser.setXrefIndexFile(indexFile);
+        try (PDDocument doc = parser.parse())
+        {
+            assertNotEquals(INDEX_TIME, indexFile.lastModified());
+            assertEquals(100, doc.getNumberOfPages());
+        }
+
+        // a damaged file doesn't need another brute force search
+        byte[] damaged = createDamagedDocument();
+        parser = new PDFParser(new RandomAccessReadBuffer(damaged));
+        parser.setXrefIndexFile(indexFile);
+        try (PDDocument doc = parser.parse())
+        {
+            assertTrue(parser.bruteForceSearchTriggered);
+        }
+        assertTrue(indexFile.setLastModified(INDEX_TIME));
+        parser = new PDFParser(new RandomAccessReadBuffer(damaged));
+        parser.setXrefIndexFile(indexFile);
+        try (PDDocument doc = parser.parse())
+        {
+            assertEquals(INDEX_TIME, indexFile.lastModified());
+            assertFalse(parser.bruteForceSearchTriggered);
+            assertEquals(20, doc.getNumberOfPages());
+        }
+
+        // real numbers keep their precision
+        COSDictionary trailer = new COSDictionary();
+        trailer.setItem(COSName.getPDFName("Real"), new COSFloat("0.123456789"));
+        new XrefIndex(0, false, 0, false, trailer, new XrefTable()).write(indexFile, 1,
+                new byte[1]);
+        try (COSDocument document = new COSDocument())
+        {
+            XrefIndex index = XrefIndex.read(indexFile, 1, new byte[1], document);
+            assertEquals("COSFloat{0.123456789}",
+                    index.getTrailer().getItem(COSName.getPDFName("Real")).toString());
+        }
+        indexFile.delete();
+    }
+
+    /**
+     * Creates a document with a destroyed xref table, so that the objects have to be found by a brute force search.
+     */
+    private static byte[] createDamagedDocument() throws IOException
+    {
+        byte[] pdf;
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                document.addPage(new PDPage());
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos, CompressParameters.NO_COMPRESSION);
+            pdf = baos.toByteArray();
+        }
+        String string = new String(pdf, StandardCharsets.ISO_8859_1);
+        int xrefOffset = string.lastIndexOf("\nxref") + 1;
+        pdf[xrefOffset] = 'X';
+        return pdf;
+    }
+
+    @Test
+    void testLinearizedFirstPageOpen() throws IOException
+    {
+        byte[] pdf = createLinearizedDocument();
+        String string = new String(pdf, StandardCharsets.ISO_8859_1);
+        int firstPageEnd = string.indexOf("%padding");
+
+        ReadTrackingBuffer source = new ReadTrackingBuffer(pdf);
+        PDFParser firstPageParser = new PDFParser(source);
+        firstPageParser.setLinearizedFirstPageOpen(true);
+        try (PDDocument doc = firstPageParser.parse())
+        {
+            assertEquals(12, firstPageParser.getLinearizationDictionary().getLong(COSName.O));
+            assertTrue(firstPageParser.isXrefTableDeferred());
+            PDPage firstPage = firstPageParser.getFirstPage();
+            assertEquals(200, firstPage.getMediaBox().getWidth());
+            byte[] contents = IOUtils.toByteArray(firstPage.getContents());
+            assertEquals("0 0 m 100 100 l S", new String(contents, StandardCharsets.US_ASCII));
+            // neither the page tree nor the main xref section were read
+            assertTrue(firstPageParser.isXrefTableDeferred());
+            assertTrue(source.maxPosition <= firstPageEnd,
+                    "read up to " + source.maxPosition + " instead of " + firstPageEnd);
+
+            // the remaining objects are available as well
+            assertEquals(2, doc.getNumberOfPages());
+            assertFalse(firstPageParser.isXrefTableDeferred());
+            assertEquals(7, doc.getDocument().getXrefTable().size());
+            assertEquals(13, doc.getDocument().getHighestXRefObjectNumber());
+            assertThrows(IllegalArgumentException.class,
+                    () -> firstPageParser.setLinearizedFirstPageOpen(false));
+        }
+
+        // the whole xref table is requested
+        PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        parser.setLinearizedFirstPageOpen(true);
+        try (PDDocument doc = parser.parse())
+        {
+            int firstPageEntries = doc.getDocument().getXrefTable().size();
+            assertTrue(firstPageEntries < 7);
+            assertTrue(parser.isXrefTableDeferred());
+            doc.getDocument().resolveDeferredXrefTable();
+            assertEquals(7, doc.getDocument().getXrefTable().size());
+            assertFalse(parser.isXrefTableDeferred());
+        }
+
+        // searching objects by type resolves the deferred xref table as well
+        parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        parser.setLinearizedFirstPageOpen(true);
+        try (PDDocument doc = parser.parse())
+        {
+            assertTrue(parser.isXrefTableDeferred());
+            assertEquals(2, doc.getDocument().getObjectsByType(COSName.PAGE).size());
+            assertFalse(parser.isXrefTableDeferred());
+        }
+
+        // a damaged main xref section isn't ignored by a strict parser
+        byte[] damaged = pdf.clone();
+        damaged[string.lastIndexOf("\nxref") + 1] = 'X';
+        parser = new PDFParser(new RandomAccessReadBuffer(damaged));
+        parser.setLinearizedFirstPageOpen(true);
+        try (PDDocument doc = parser.parse(false))
+        {
+            assertThrows(IOException.class, () -> doc.getDocument().resolveDeferredXrefTable());
+        }
+
+        // an updated file is parsed as usual
+        byte[] updated = Arrays.copyOf(pdf, pdf.length + 1);
+        updated[pdf.length] = '\n';
+        parser = new PDFParser(new RandomAccessReadBuffer(updated));
+        parser.setLinearizedFirstPageOpen(true);
+        try (PDDocument doc = parser.parse())
+        {
+            assertNull(parser.getLinearizationDictionary());
+            assertNull(parser.getFirstPage());
+            assertFalse(parser.isXrefTableDeferred());
+            assertEquals(2, doc.getNumberOfPages());
+        }
+
+        // the default mode parses the whole xref
+        parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        try (PDDocument doc = parser.parse())
+        {
+            assertNull(parser.getLinearizationDictionary());
+            assertEquals(7, doc.getDocument().getXrefTable().size());
+            assertEquals(2, doc.getNumberOfPages());
+        }
+    }
+
+    /**
+     * Creates a linearized document with two pages. The first-page section is followed by a padding comment, the
+     * page tree, the second page and the main xref section.
+     */
+    private static byte[] createLinearizedDocument()
+    {
+        String content = "0 0 m 100 100 l S";
+        // all numbers have a fixed width, so that the second pass can use the offsets of the first one
+        long[] offsets = new long[14];
+        long[] linearization = new long[3];
+        long mainXref = 0;
+        String pdf = null;
+        for (int pass = 0; pass < 2; pass++)
+        {
+            StringBuilder sb = new StringBuilder("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+            offsets[10] = sb.length();
+            sb.append(String.format("10 0 obj\n<< /Linearized 1 /L %010d /H [ 0 0 ] /O 12 /E %010d"
+                    + " /N 2 /T %010d >>\nendobj\n", linearization[0], linearization[1],
+                    linearization[2]));
+            long firstPageXref = sb.length();
+            sb.append("xref\n10 4\n");
+            for (int i = 10; i < 14; i++)
+            {
+                sb.append(String.format("%010d 00000 n\r\n", offsets[i]));
+            }
+            sb.append(String.format("trailer\n<< /Size 14 /Root 11 0 R /Prev %010d >>\n", mainXref));
+            sb.append("startxref\n0\n%%EOF\n");
+            offsets[11] = sb.length();
+            sb.append("11 0 obj\n<< /Type /Catalog /Pages 1 0 R >>\nendobj\n");
+            offsets[12] = sb.length();
+            sb.append("12 0 obj\n<< /Type /Page /Parent 1 0 R /MediaBox [0 0 200 200]"
+                    + " /Contents 13 0 R >>\nendobj\n");
+            offsets[13] = sb.length();
+            sb.append("13 0 obj\n<< /Length " + content.length() + " >>\nstream\n" + content
+                    + "\nendstream\nendobj\n");
+            long firstPageEnd = sb.length();
+            sb.append("%padding");
+            for (int i = 0; i < 10000; i++)
+            {
+                sb.append("          ");
+            }
+            sb.append('\n');
+            offsets[1] = sb.length();
+            sb.append("1 0 obj\n<< /Type /Pages /Kids [12 0 R 2 0 R] /Count 2 >>\nendobj\n");
+            offsets[2] = sb.length();
+            sb.append("2 0 obj\n<< /Type /Page /Parent 1 0 R /MediaBox [0 0 300 300]"
+                    + " /Contents 3 0 R >>\nendobj\n");
+            offsets[3] = sb.length();
+            sb.append("3 0 obj\n<< /Length " + content.length() + " >>\nstream\n" + content
+                    + "\nendstream\nendobj\n");
+            mainXref = sb.length();
+            sb.append("xref\n0 4\n0000000000 65535 f\r\n");
+            long firstMainEntry = sb.length();
+            for (int i = 1; i < 4; i++)
+            {
+                sb.append(String.format("%010d 00000 n\r\n", offsets[i]));
+            }
+            sb.append("trailer\n<< /Size 14 >>\nstartxref\n" + firstPageXref + "\n%%EOF\n");
+            pdf = sb.toString();
+            linearization = new long[] { pdf.length(), firstPageEnd, firstMainEntry };
+        }
+        return pdf.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * A buffer which records the highest position read so far.
+     */
+    private static class ReadTrackingBuffer extends RandomAccessReadBuffer
+    {
+        private long maxPosition;
+
+        ReadTrackingBuffer(byte[] input)
+        {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            maxPosition = Math.max(maxPosition, getPosition());
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int offset, int length) throws IOException
+        {
+            int read = super.read(b, offset, length);
+            maxPosition = Math.max(maxPosition, getPosition());
+            return read;
+        }
+
+        @Override
+        public RandomAccessReadView createView(long startPosition, long streamLength)
+                throws IOException
+        {
+            maxPosition = Math.max(maxPosition, startPosition + streamLength);
+            return super.createView(startPosition, streamLength);
+        }
+    }
+
+    private static void putMarkers(byte[] data, long[] positions, String marker)
+    {
+        byte[] bytes = marker.getBytes(StandardCharsets.US_ASCII);
+        for (long position : positions)
+        {
+            System.arraycopy(bytes, 0, data, (int) position, bytes.length);
+        }
+    }
+
+    private static List<Long> toList(long[] values)
+    {
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values)
+        {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static byte[] createDocumentWithObjectStreams() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < 100; i++)
+            {
+                document.addPage(new PDPage());
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos, new CompressParameters(20));
+            return baos.toByteArray();
+        }
+    }
+
+    /**
+     * Creates a document with a crossreference stream and two object streams. The length of the content stream is
+     * compressed in a valid object stream, the length of the other object stream is compressed in itself.
+     */
+    private static byte[] createDocumentWithCompressedLengths() throws IOException
+    {
+        String content = "0 0 m 100 100 l S";
+        long[] offsets = new long[11];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StringBuilder sb = new StringBuilder("%PDF-1.5\n");
+        offsets[1] = sb.length();
+        sb.append("1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+        offsets[2] = sb.length();
+        sb.append("2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n");
+        offsets[3] = sb.length();
+        sb.append("3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 200 200]"
+                + " /Contents 4 0 R >>\nendobj\n");
+        offsets[4] = sb.length();
+        sb.append("4 0 obj\n<< /Length 8 0 R >>\nstream\n" + content + "\nendstream\nendobj\n");
+        String objects = "6 0 7 3 10 << /Foo 1 >>";
+        offsets[5] = sb.length();
+        sb.append("5 0 obj\n<< /Type /ObjStm /N 2 /First 8 /Length 6 0 R >>\nstream\n" + objects
+                + "\nendstream\nendobj\n");
+        objects = "8 0 " + content.length();
+        offsets[9] = sb.length();
+        sb.append("9 0 obj\n<< /Type /ObjStm /N 1 /First 4 /Length " + objects.length()
+                + " >>\nstream\n" + objects + "\nendstream\nendobj\n");
+        offsets[10] = sb.length();
+        baos.write(sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        // type, offset or object stream number, generation or index
+        long[][] entries = { { 0, 0, 65535 }, { 1, offsets[1], 0 }, { 1, offsets[2], 0 },
+                { 1, offsets[3], 0 }, { 1, offsets[4], 0 }, { 1, offsets[5], 0 }, { 2, 5, 0 },
+                { 2, 5, 1 }, { 2, 9, 0 }, { 1, offsets[9], 0 }, { 1, offsets[10], 0 } };
+        ByteArrayOutputStream xref = new ByteArrayOutputStream();
+        for (long[] entry : entries)
+        {
+            xref.write((int) entry[0]);
+            for (int shift = 24; shift >= 0; shift -= 8)
+            {
+                xref.write((int) (entry[1] >> shift));
+            }
+            xref.write((int) (entry[2] >> 8));
+            xref.write((int) entry[2]);
+        }
+        baos.write(("10 0 obj\n<< /Type /XRef /Size 11 /W [1 4 2] /Root 1 0 R /Length "
+                + xref.size() + " >>\nstream\n").getBytes(StandardCharsets.ISO_8859_1));
+        xref.writeTo(baos);
+        baos.write(("\nendstream\nendobj\nstartxref\n" + offsets[10] + "\n%%EOF\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        return baos.toByteArray();
+    }
+
+    /**
+     * Returns the classes of all objects of the given document, parsed without any caching.
+     */
+    private static Map<COSObjectKey, Class<?>> getObjectClasses(byte[] pdf) throws IOException
+    {
+        Map<COSObjectKey, Class<?>> classes = new HashMap<>();
+        PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        parser.setObjectStreamCache(null);
+        try (PDDocument doc = parser.parse())
+        {
+            for (COSObjectKey key : doc.getDocument().getXrefTable().keySet())
+            {
+                classes.put(key, getObjectClass(doc.getDocument(), key));
+            }
+        }
+        return classes;
+    }
+
+    private static Class<?> getObjectClass(COSDocument document, COSObjectKey key)
+    {
+        COSBase object = document.getObjectFromPool(key).getObject();
+        return object == null ? null : object.getClass();
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser.xref;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+import org.junit.jupiter.api.Test;
+
+class PackedXReferenceEntriesTest
+{
+    @Test
+    void testSortedEntries() throws IOException
+    {
+        try (ScratchFile scratchFile = ScratchFile.getMainMemoryOnlyInstance();
+                PackedXReferenceEntries entries = new PackedXReferenceEntries(scratchFile))
+        {
+            assertTrue(entries.isEmpty());
+            assertEquals(-1, entries.getHighestNumber());
+            assertFalse(entries.cursor().next());
+
+            entries.add(new NormalXReference(15, new COSObjectKey(1, 0), null));
+            entries.add(new NormalXReference(120, new COSObjectKey(2, 3), null));
+            entries.add(new ObjectStreamXReference(7, new COSObjectKey(3, 0), null,
+                    new COSObjectKey(2, 0)));
+            entries.add(new FreeXReference(new COSObjectKey(5, 65535), 0));
+            assertFalse(entries.isEmpty());
+            assertEquals(5, entries.getHighestNumber());
+
+            List<String> visited = new ArrayList<>();
+            entries.forEach((type, number, second, third) ->
+                    visited.add(type + " " + number + " " + second + " " + third));
+            assertEquals(Arrays.asList("NORMAL 1 15 0", "NORMAL 2 120 3",
+                    "OBJECT_STREAM_ENTRY 3 2 7", "FREE 5 0 65535"), visited);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> entries.add(XReferenceType.NORMAL, -1, 0, 0));
+            assertThrows(IllegalArgumentException.class,
+                    () -> entries.add(XReferenceType.OBJECT_STREAM_ENTRY, 1, 0, 1L << 40));
+        }
+    }
+
+    /**
+     * Adds entries in random order to a buffer in a temporary file, so that several merge passes are needed. The
+     * first entry of an object number has to win.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testUnsortedEntries() throws IOException
+    {
+        Map<Long, long[]> expected = new TreeMap<>();
+        Random random = new Random(4711);
+        try (ScratchFile scratchFile = new ScratchFile(MemoryUsageSetting.setupTempFileOnly());
+                PackedXReferenceEntries entries = new PackedXReferenceEntries(scratchFile))
+        {
+            for (int i = 0; i < 50000; i++)
+            {
+                // mostly ascending runs of various lengths
+                long number = random.nextInt(10) == 0 ? random.nextInt(30000) : i;
+                int type = random.nextInt(3);
+                long second = random.nextInt(Integer.MAX_VALUE) * 1000L;
+                long third = random.nextInt(65536);
+                entries.add(XReferenceType.values()[type], number, second, third);
+                expected.putIfAbsent(number, new long[] { type, second, third });
+            }
+            assertEquals(49999, entries.getHighestNumber());
+            for (int pass = 0; pass < 2; pass++)
+            {
+                PackedXReferenceEntries.Cursor cursor = entries.cursor();
+                for (Map.Entry<Long, long[]> entry : expected.entrySet())
+                {
+                    assertTrue(cursor.next());
+                    assertEquals(entry.getKey(), cursor.getNumber());
+                    assertEquals(entry.getValue()[0], cursor.getType().getNumericValue());
+                    assertEquals(entry.getValue()[1], cursor.getSecondColumnValue());
+                    assertEquals(entry.getValue()[2], cursor.getThirdColumnValue());
+                }
+                assertFalse(cursor.next());
+            }
+
+            // entries added after sorting are merged as well
+            entries.add(XReferenceType.FREE, 0, 1, 65535);
+            entries.add(XReferenceType.NORMAL, 1, 2, 0);
+            PackedXReferenceEntries.Cursor cursor = entries.cursor();
+            assertTrue(cursor.next());
+            assertEquals(0, cursor.getNumber());
+            assertTrue(cursor.next());
+            assertEquals(1, cursor.getNumber());
+            assertEquals(expected.get(1L)[1], cursor.getSecondColumnValue());
+        }
+    }
+}
@@ -16,11 +16,33 @@
  */
 package org.apache.pdfbox.pdfwriter;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.junit.jupiter.api.Test;
 
 class COSWriterTest
@@ -48,4 +70,197 @@ class COSWriterTest
             }));
         }
     }
+
+    /**
+     * Saves a synthetic document with many indirect objects. Each one has to be written as an
+     * object of its own.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testSaveManyObjects() throws IOException
+    {
+        int objectCount = 80000;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = createSyntheticDocument(objectCount))
+        {
+            doc.save(baos, CompressParameters.NO_COMPRESSION);
+        }
+        try (PDDocument doc = Loader.loadPDF(baos.toByteArray()))
+        {
+            COSArray array = doc.getDocumentCatalog().getCOSObject()
+                    .getCOSArray(COSName.getPDFName("Objects"));
+            assertEquals(objectCount, array.size());
+            for (int i = 0; i < objectCount; i++)
+            {
+                COSDictionary dict = (COSDictionary) array.getObject(i);
+                assertEquals(COSInteger.get(i), dict.getItem(COSName.N));
+                assertEquals("Object " + i, dict.getString(COSName.T));
+            }
+            // the catalog, the page tree, the page and the objects
+            assertEquals(objectCount + 3, doc.getDocument().getXrefTable().size());
+        }
+    }
+
+    private static PDDocument createSyntheticDocument(int objectCount)
+    {
+        PDDocument doc = new PDDocument();
+        doc.setDocumentId(4711L);
+        doc.addPage(new PDPage());
+        COSArray array = new COSArray();
+        for (int i = 0; i < objectCount; i++)
+        {
+            COSDictionary dict = new COSDictionary();
+            dict.setInt(COSName.N, i);
+            dict.setString(COSName.T, "Object " + i);
+            array.add(dict);
+        }
+        doc.getDocumentCatalog().getCOSObject().setItem(COSName.getPDFName("Objects"), array);
+        return doc;
+    }
+
+    /**
+     * Saves a document with object streams, which are serialized and compressed in parallel. The
+     * result has to be the same as without an executor.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testParallelObjectStreams() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            byte[] sequential = saveSyntheticDocument(new CompressParameters());
+            byte[] parallel = saveSyntheticDocument(new CompressParameters(
+                    CompressParameters.DEFAULT_OBJECT_STREAM_SIZE, executor,
+                    CompressParameters.DEFAULT_MAX_PENDING_ENCODING_BYTES));
+            assertArrayEquals(sequential, parallel);
+
+            byte[] stored = saveSyntheticDocument(new CompressParameters(
+                    CompressParameters.DEFAULT_OBJECT_STREAM_SIZE, executor,
+                    CompressParameters.DEFAULT_MAX_PENDING_ENCODING_BYTES,
+                    Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY));
+            byte[] best = saveSyntheticDocument(new CompressParameters(
+                    CompressParameters.DEFAULT_OBJECT_STREAM_SIZE, null,
+                    CompressParameters.DEFAULT_MAX_PENDING_ENCODING_BYTES,
+                    Deflater.BEST_COMPRESSION, Deflater.FILTERED));
+            assertTrue(best.length < stored.length);
+
+            for (byte[] pdf : new byte[][] { parallel, stored, best })
+            {
+                try (PDDocument doc = Loader.loadPDF(pdf))
+                {
+                    COSArray array = doc.getDocumentCatalog().getCOSObject()
+                            .getCOSArray(COSName.getPDFName("Objects"));
+                    assertEquals(5000, array.size());
+                    assertEquals("Object 4999",
+                            ((COSDictionary) array.getObject(4999)).getString(COSName.T));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CompressParameters(200, null,
+                CompressParameters.DEFAULT_MAX_PENDING_ENCODING_BYTES, 10,
+                Deflater.DEFAULT_STRATEGY));
+        assertThrows(IllegalArgumentException.class, () -> new CompressParameters(200, null,
+                CompressParameters.DEFAULT_MAX_PENDING_ENCODING_BYTES,
+                Deflater.DEFAULT_COMPRESSION, 5));
+    }
+
+    private static byte[] saveSyntheticDocument(CompressParameters compressParameters)
+            throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = createSyntheticDocument(5000))
+        {
+            doc.save(baos, compressParameters);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Saves documents with uncompressed content streams while encoding the streams in parallel. The
+     * result has to be the same as with encoding the streams on the writer thread.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testParallelStreamEncoding() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (int objectStreamSize : new int[] { 0, CompressParameters.DEFAULT_OBJECT_STREAM_SIZE })
+            {
+                // a limit which allows only a few streams to be pending at a time
+                byte[] parallel = saveUncompressedDocument(
+                        new CompressParameters(objectStreamSize, executor, 5000));
+                byte[] sequential = saveUncompressedDocument(
+                        new CompressParameters(objectStreamSize, Runnable::run, 1000000));
+                assertArrayEquals(sequential, parallel);
+                // a limit which is exceeded by each stream on its own
+                assertArrayEquals(sequential, saveUncompressedDocument(
+                        new CompressParameters(objectStreamSize, executor, 100)));
+
+                try (PDDocument doc = Loader.loadPDF(parallel))
+                {
+                    assertEquals(50, doc.getNumberOfPages());
+                    for (int i = 0; i < doc.getNumberOfPages(); i++)
+                    {
+                        COSStream contents = doc.getPage(i).getCOSObject()
+                                .getCOSStream(COSName.CONTENTS);
+                        assertEquals(COSName.FLATE_DECODE, contents.getFilters());
+                        try (InputStream input = contents.createInputStream())
+                        {
+                            String text = new String(IOUtils.toByteArray(input),
+                                    StandardCharsets.ISO_8859_1);
+                            assertTrue(text.contains("(Page " + i + ") Tj"), text);
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] saveUncompressedDocument(CompressParameters compressParameters)
+            throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument())
+        {
+            doc.setDocumentId(4711L);
+            for (int i = 0; i < 50; i++)
+            {
+                PDPage page = new PDPage();
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page,
+                        PDPageContentStream.AppendMode.OVERWRITE, false))
+                {
+                    for (int j = 0; j < 40; j++)
+                    {
+                        cs.beginText();
+                        cs.setFont(PDType1Font.HELVETICA, 12);
+                        cs.newLineAtOffset(50, 700 - j * 15);
+                        cs.showText("Page " + i);
+                        cs.endText();
+                    }
+                }
+            }
+            doc.save(baos, compressParameters);
+            // the streams of the document aren't replaced by the encoded ones
+            for (PDPage page : doc.getPages())
+            {
+                assertNull(page.getCOSObject().getCOSStream(COSName.CONTENTS).getFilters());
+            }
+        }
+        return baos.toByteArray();
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationLink;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageFitDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+class StreamingPDFWriterTest
+{
+    /**
+     * Writes a document page by page, using a shared image, a standard font and a font which is
+     * subset.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testWritePages() throws IOException
+    {
+        int pageCount = 5000;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument();
+                StreamingPDFWriter writer = new StreamingPDFWriter(doc, baos))
+        {
+            doc.getDocumentInformation().setTitle("Streaming");
+            PDImageXObject image = LosslessFactory.createFromImage(doc,
+                    new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+            PDFont font;
+            try (InputStream input = PDDocument.class.getResourceAsStream(
+                    "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf"))
+            {
+                font = PDType0Font.load(doc, input);
+            }
+            for (int i = 1; i <= pageCount; i++)
+            {
+                PDPage page = new PDPage();
+                try (PDPageContentStream contents = new PDPageContentStream(doc, page))
+                {
+                    contents.drawImage(image, 50, 50);
+                    contents.beginText();
+                    contents.setFont(PDType1Font.HELVETICA, 12);
+                    contents.newLineAtOffset(50, 700);
+                    contents.showText("Page " + i);
+                    contents.setFont(font, 12);
+                    contents.newLineAtOffset(0, -20);
+                    contents.showText("Subset " + i);
+                    contents.endText();
+                }
+                writer.writePage(page);
+
+                // the content stream is released after writing
+                COSStream contents = page.getCOSObject().getCOSStream(COSName.CONTENTS);
+                assertFalse(contents.hasData());
+            }
+        }
+
+        try (PDDocument doc = Loader.loadPDF(baos.toByteArray()))
+        {
+            assertEquals(pageCount, doc.getNumberOfPages());
+            assertEquals("Streaming", doc.getDocumentInformation().getTitle());
+            assertEquals(pageCount,
+                    doc.getDocumentCatalog().getPages().indexOf(doc.getPage(pageCount - 1)) + 1);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int i : new int[] { 1, 64, 65, 4097, pageCount })
+            {
+                stripper.setStartPage(i);
+                stripper.setEndPage(i);
+                String text = stripper.getText(doc);
+                assertTrue(text.contains("Page " + i), text);
+                assertTrue(text.contains("Subset " + i), text);
+            }
+
+            // the image and the fonts are written once
+            PDPage first = doc.getPage(0);
+            PDPage last = doc.getPage(pageCount - 1);
+            COSName imageName = first.getResources().getXObjectNames().iterator().next();
+            assertSame(first.getResources().getXObject(imageName).getCOSObject(),
+                    last.getResources().getXObject(imageName).getCOSObject());
+            for (COSName fontName : first.getResources().getFontNames())
+            {
+                PDFont font = first.getResources().getFont(fontName);
+                assertSame(font.getCOSObject(), last.getResources().getFont(fontName).getCOSObject());
+                if (font instanceof PDType0Font)
+                {
+                    assertTrue(font.getName().matches("[A-Z]{6}\\+LiberationSans"), font.getName());
+                    assertNotNull(((PDType0Font) font).getDescendantFont().getFontDescriptor()
+                            .getFontFile2());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a link to a page which is written later and an outline referencing written pages.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testPageReferences() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument();
+                StreamingPDFWriter writer = new StreamingPDFWriter(doc, baos))
+        {
+            PDPage first = new PDPage();
+            PDPage second = new PDPage();
+            PDAnnotationLink link = new PDAnnotationLink();
+            PDPageFitDestination linkDestination = new PDPageFitDestination();
+            linkDestination.setPage(second);
+            link.setDestination(linkDestination);
+            first.getAnnotations().add(link);
+            writer.writePage(first);
+            writer.writePage(second);
+
+            // a page can't be written twice
+            assertThrows(IllegalArgumentException.class, () -> writer.writePage(first));
+            try (PDDocument other = new PDDocument())
+            {
+                PDPage otherPage = new PDPage();
+                other.addPage(otherPage);
+                assertThrows(IllegalArgumentException.class, () -> writer.writePage(otherPage));
+            }
+
+            PDDocumentOutline outline = new PDDocumentOutline();
+            PDOutlineItem item = new PDOutlineItem();
+            item.setTitle("first");
+            PDPageFitDestination itemDestination = new PDPageFitDestination();
+            itemDestination.setPage(first);
+            item.setDestination(itemDestination);
+            outline.addLast(item);
+            doc.getDocumentCatalog().setDocumentOutline(outline);
+        }
+
+        try (PDDocument doc = Loader.loadPDF(baos.toByteArray()))
+        {
+            assertEquals(2, doc.getNumberOfPages());
+            PDAnnotationLink link = (PDAnnotationLink) doc.getPage(0).getAnnotations().get(0);
+            assertSame(doc.getPage(1).getCOSObject(),
+                    ((PDPageDestination) link.getDestination()).getPage().getCOSObject());
+            PDOutlineItem item = doc.getDocumentCatalog().getDocumentOutline().getFirstChild();
+            assertSame(doc.getPage(0).getCOSObject(),
+                    ((PDPageDestination) item.getDestination()).getPage().getCOSObject());
+        }
+
+        // a referenced page has to be written
+        try (PDDocument doc = new PDDocument())
+        {
+            StreamingPDFWriter writer = new StreamingPDFWriter(doc, new ByteArrayOutputStream());
+            PDPage page = new PDPage();
+            PDAnnotationLink link = new PDAnnotationLink();
+            PDPageFitDestination destination = new PDPageFitDestination();
+            destination.setPage(new PDPage());
+            link.setDestination(destination);
+            page.getAnnotations().add(link);
+            writer.writePage(page);
+            assertThrows(IOException.class, writer::close);
+        }
+    }
+
+    @Test
+    void testDocumentWithPages() throws IOException
+    {
+        try (PDDocument doc = new PDDocument())
+        {
+            doc.addPage(new PDPage());
+            assertThrows(IllegalArgumentException.class,
+                    () -> new StreamingPDFWriter(doc, new ByteArrayOutputStream()));
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the rendering of several pages using {@link PDFRenderer}.
+ */
+class PDFRendererTest
+{
+    private static final int NUMBER_OF_PAGES = 7;
+
+    @Test
+    void testRenderPages() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        PDFParser parser = new PDFParser(new RandomAccessReadBuffer(createDocument()));
+        parser.setConcurrentObjectResolution(true);
+        try (PDDocument document = parser.parse())
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            Map<Integer, BufferedImage> images = new HashMap<>();
+            renderer.renderPages(1, NUMBER_OF_PAGES, 36, ImageType.RGB, executor, 2,
+                    (pageIndex, image) -> images.put(pageIndex, image));
+            assertEquals(NUMBER_OF_PAGES - 1, images.size());
+            for (int i = 1; i < NUMBER_OF_PAGES; i++)
+            {
+                BufferedImage expected = renderer.renderImageWithDPI(i, 36, ImageType.RGB);
+                assertImageEquals(expected, images.get(i));
+            }
+
+            // pages rejected by the executor are rendered on the calling thread
+            images.clear();
+            renderer.renderPages(0, NUMBER_OF_PAGES, 36, ImageType.RGB, command ->
+            {
+                throw new RejectedExecutionException();
+            }, 2, (pageIndex, image) -> images.put(pageIndex, image));
+            assertEquals(NUMBER_OF_PAGES, images.size());
+            for (int i = 0; i < NUMBER_OF_PAGES; i++)
+            {
+                BufferedImage expected = renderer.renderImageWithDPI(i, 36, ImageType.RGB);
+                assertImageEquals(expected, images.get(i));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testRenderPagesConsumerException() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (PDDocument document = Loader.loadPDF(createDocument()))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            assertThrows(IOException.class,
+                    () -> renderer.renderPages(0, NUMBER_OF_PAGES, 36, ImageType.GRAY, executor,
+                            2, (pageIndex, image) ->
+                            {
+                                throw new IOException("consumer failed");
+                            }));
+            assertThrows(IllegalArgumentException.class,
+                    () -> renderer.renderPages(0, NUMBER_OF_PAGES + 1, 36, ImageType.GRAY,
+                            executor, 2, (pageIndex, image) -> {}));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testGlyphOutlineCache() throws IOException
+    {
+        try (PDDocument document = Loader.loadPDF(createDocument()))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            GlyphOutlineCache cache = renderer.getGlyphOutlineCache();
+            BufferedImage[] images = new BufferedImage[NUMBER_OF_PAGES];
+            for (int i = 0; i < NUMBER_OF_PAGES; i++)
+            {
+                images[i] = renderer.renderImageWithDPI(i, 36, ImageType.RGB);
+            }
+            // "Page " is drawn on every page with one of two fonts
+            assertTrue(cache.getHitCount() > 0);
+            assertTrue(cache.getMissCount() > 0);
+            assertEquals(cache.getMissCount(), cache.size());
+
+            // rendering without a shared cache gives the same result
+            renderer.setGlyphOutlineCache(null);
+            for (int i = 0; i < NUMBER_OF_PAGES; i++)
+            {
+                BufferedImage image = renderer.renderImageWithDPI(i, 36, ImageType.RGB);
+                assertArrayEquals(
+                        images[i].getRGB(0, 0, images[i].getWidth(), images[i].getHeight(), null,
+                                0, images[i].getWidth()),
+                        image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+                                image.getWidth()));
+            }
+
+            cache.clear();
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getHitCount());
+            assertEquals(0, cache.getMissCount());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new GlyphOutlineCache(0));
+    }
+
+    @Test
+    void testGlyphBitmapCache() throws IOException
+    {
+        try (PDDocument document = Loader.loadPDF(createDocument()))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            assertNull(renderer.getGlyphBitmapCache());
+            BufferedImage[] expectedImages = new BufferedImage[NUMBER_OF_PAGES];
+            for (int i = 0; i < NUMBER_OF_PAGES; i++)
+            {
+                expectedImages[i] = renderer.renderImageWithDPI(i, 72, ImageType.RGB);
+            }
+
+            GlyphBitmapCache cache = new GlyphBitmapCache(64 * 1024);
+            renderer.setGlyphBitmapCache(cache);
+            for (int i = 0; i < NUMBER_OF_PAGES; i++)
+            {
+                BufferedImage expected = expectedImages[i];
+                BufferedImage actual = renderer.renderImageWithDPI(i, 72, ImageType.RGB);
+                // glyphs may be shifted by a quarter pixel at most
+                long difference = 0;
+                for (int y = 0; y < expected.getHeight(); y++)
+                {
+                    for (int x = 0; x < expected.getWidth(); x++)
+                    {
+                        difference += Math.abs((expected.getRGB(x, y) & 0xff)
+                                - (actual.getRGB(x, y) & 0xff));
+                    }
+                }
+                assertTrue(difference < 255 * 20, "difference " + difference + " on page " + i);
+            }
+            // "Page " is drawn on every page with one of two fonts
+            assertTrue(cache.getHitCount() > 0);
+            assertTrue(cache.getMissCount() > 0);
+            assertTrue(cache.getMemoryUsage() > 0);
+            assertTrue(cache.getMemoryUsage() <= 64 * 1024);
+
+            cache.clear();
+            assertEquals(0, cache.getMemoryUsage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new GlyphBitmapCache(0));
+    }
+
+    @Test
+    void testRenderTiles() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (PDDocument document = Loader.loadPDF(createDocument()))
+        {
+            document.getPage(1).setRotation(90);
+            PDFRenderer renderer = new PDFRenderer(document);
+            for (int pageIndex = 0; pageIndex < 2; pageIndex++)
+            {
+                BufferedImage expected = renderer.renderImageWithDPI(pageIndex, 100, ImageType.RGB);
+                BufferedImage actual = new BufferedImage(expected.getWidth(),
+                        expected.getHeight(), BufferedImage.TYPE_INT_RGB);
+                TileSink sink = new TileSink()
+                {
+                    private int nextX = 0;
+                    private int nextY = 0;
+
+                    @Override
+                    public void start(int imageWidth, int imageHeight)
+                    {
+                        assertEquals(expected.getWidth(), imageWidth);
+                        assertEquals(expected.getHeight(), imageHeight);
+                    }
+
+                    @Override
+                    public void accept(int x, int y, BufferedImage tile)
+                    {
+                        // tiles are passed in row major order
+                        assertEquals(nextX, x);
+                        assertEquals(nextY, y);
+                        assertTrue(tile.getWidth() <= 64);
+                        assertTrue(tile.getHeight() <= 50);
+                        actual.getGraphics().drawImage(tile, x, y, null);
+                        nextX = x + tile.getWidth();
+                        if (nextX == expected.getWidth())
+                        {
+                            nextX = 0;
+                            nextY = y + tile.getHeight();
+                        }
+                    }
+                };
+                renderer.renderTiles(pageIndex, 100, ImageType.RGB, 64, 50, sink);
+                assertImageEquals(expected, actual);
+
+                actual.getGraphics().clearRect(0, 0, actual.getWidth(), actual.getHeight());
+                renderer.renderTiles(pageIndex, 100, ImageType.RGB, 64, 50, executor, 4,
+                        (x, y, tile) -> actual.getGraphics().drawImage(tile, x, y, null));
+                assertImageEquals(expected, actual);
+
+                // tiles rejected by the executor are rendered on the calling thread
+                actual.getGraphics().clearRect(0, 0, actual.getWidth(), actual.getHeight());
+                renderer.renderTiles(pageIndex, 100, ImageType.RGB, 64, 50, command ->
+                {
+                    throw new RejectedExecutionException();
+                }, 4, (x, y, tile) -> actual.getGraphics().drawImage(tile, x, y, null));
+                assertImageEquals(expected, actual);
+            }
+            assertThrows(IllegalArgumentException.class, () -> renderer.renderTiles(0, 100,
+                    ImageType.RGB, 0, 50, (x, y, tile) -> {}));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertImageEquals(BufferedImage expected, BufferedImage actual)
+    {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertArrayEquals(
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0,
+                        expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0,
+                        actual.getWidth()));
+    }
+
+    private static byte[] createDocument() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < NUMBER_OF_PAGES; i++)
+            {
+                PDPage page = new PDPage(PDRectangle.A6);
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page))
+                {
+                    contentStream.setNonStrokingColor(new Color(20 * i, 100, 200));
+                    contentStream.addRect(10 + 5 * i, 10, 100, 50 + 10 * i);
+                    contentStream.fill();
+                    contentStream.setNonStrokingColor(Color.BLACK);
+                    contentStream.beginText();
+                    contentStream.setFont(
+                            i % 2 == 0 ? PDType1Font.HELVETICA : PDType1Font.TIMES_BOLD, 14);
+                    contentStream.newLineAtOffset(20, 250);
+                    contentStream.showText("Page " + (i + 1));
+                    contentStream.endText();
+                }
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos);
+            return baos.toByteArray();
+        }
+    }
+}
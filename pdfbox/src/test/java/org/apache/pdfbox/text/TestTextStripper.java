@@ -39,23 +39,35 @@ import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.util.BoundingBox;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.PDType3Font;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageDestination;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.util.Matrix;
+import org.apache.pdfbox.util.QuickSort;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -589,6 +601,171 @@ class TestTextStripper
             }
     }
 
+    /**
+     * Test that the streaming mode gives the same text as the default mode.
+     *
+     * @throws IOException when there is an exception
+     */
+    @Test
+    void testStreaming() throws IOException
+    {
+        File inDir = new File("src/test/resources/input");
+        File[] testFiles = inDir.listFiles((File dir, String name) -> name.endsWith(".pdf"));
+        for (File testFile : testFiles)
+        {
+            try (PDDocument document = Loader.loadPDF(testFile))
+            {
+                PDFTextStripper textStripper = new PDFTextStripper();
+                String expected = textStripper.getText(document);
+                textStripper.setStreaming(true);
+                assertEquals(expected, textStripper.getText(document), testFile.getName());
+            }
+        }
+
+        // text drawn from top to bottom is the same when sorted
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page))
+            {
+                contentStream.beginText();
+                contentStream.setFont(PDType1Font.HELVETICA, 12);
+                contentStream.newLineAtOffset(50, 700);
+                for (int i = 0; i < 20; i++)
+                {
+                    // draw the end of the line before its start
+                    contentStream.newLineAtOffset(100, 0);
+                    contentStream.showText("line end " + i);
+                    contentStream.newLineAtOffset(-100, 0);
+                    contentStream.showText("start " + i);
+                    contentStream.newLineAtOffset(0, -20);
+                }
+                contentStream.endText();
+            }
+            PDFTextStripper textStripper = new PDFTextStripper();
+            textStripper.setSortByPosition(true);
+            String expected = textStripper.getText(document);
+            assertTrue(expected.contains("start 7 line end 7"));
+            textStripper.setStreaming(true);
+            assertEquals(expected, textStripper.getText(document));
+        }
+    }
+
+    /**
+     * Test that the parallel extraction gives the same text as the sequential extraction.
+     *
+     * @throws Exception when there is an exception
+     */
+    @Test
+    void testWriteTextParallel() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            File inDir = new File("src/test/resources/input");
+            File[] testFiles = inDir.listFiles((File dir, String name) -> name.endsWith(".pdf"));
+            for (File testFile : testFiles)
+            {
+                try (PDDocument document = Loader.loadPDF(testFile))
+                {
+                    assertWriteTextParallel(document, executor, false);
+                    assertWriteTextParallel(document, executor, true);
+                }
+            }
+
+            // page and bookmark ranges
+            try (PDDocument document = Loader.loadPDF(
+                    new File(this.getClass().getResource("../pdmodel/with_outline.pdf").toURI())))
+            {
+                PDFTextStripper textStripper = new PDFTextStripper();
+                textStripper.setStartPage(2);
+                textStripper.setEndPage(4);
+                String expected = textStripper.getText(document);
+                StringWriter writer = new StringWriter();
+                textStripper.writeText(document, writer, executor, 2);
+                assertEquals(expected, writer.toString());
+
+                Iterator<PDOutlineItem> it = document.getDocumentCatalog().getDocumentOutline()
+                        .children().iterator();
+                it.next();
+                textStripper = new PDFTextStripper();
+                textStripper.setStartBookmark(it.next());
+                textStripper.setEndBookmark(it.next());
+                expected = textStripper.getText(document);
+                assertFalse(expected.isEmpty());
+                writer = new StringWriter();
+                textStripper.writeText(document, writer, executor, 2);
+                assertEquals(expected, writer.toString());
+            }
+
+            // subclasses without their own page strippers are extracted sequentially
+            try (PDDocument document = Loader.loadPDF(
+                    new File(this.getClass().getResource("../pdmodel/with_outline.pdf").toURI())))
+            {
+                List<String> writtenStrings = new ArrayList<>();
+                PDFTextStripper subclassStripper = new PDFTextStripper()
+                {
+                    @Override
+                    protected void writeString(String text, List<TextPosition> textPositions)
+                            throws IOException
+                    {
+                        writtenStrings.add(text);
+                        super.writeString(text, textPositions);
+                    }
+                };
+                String expected = subclassStripper.getText(document);
+                int expectedStrings = writtenStrings.size();
+                assertTrue(expectedStrings > 0);
+                StringWriter writer = new StringWriter();
+                subclassStripper.writeText(document, writer, executor, 2);
+                assertEquals(expected, writer.toString());
+                assertEquals(2 * expectedStrings, writtenStrings.size());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertWriteTextParallel(PDDocument document, Executor executor,
+            boolean sort) throws IOException
+    {
+        PDFTextStripper textStripper = new PDFTextStripper();
+        textStripper.setSortByPosition(sort);
+        textStripper.setAddMoreFormatting(true);
+        String expected = textStripper.getText(document);
+        StringWriter writer = new StringWriter();
+        textStripper.writeText(document, writer, executor, 2);
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test
+    void testSortByLines()
+    {
+        // lines of text with distinct random x positions and different font heights
+        Random random = new Random(5);
+        List<TextPosition> textList = new ArrayList<>();
+        for (int line = 0; line < 20; line++)
+        {
+            float y = 50 + line * 30;
+            for (int i = 0; i < 40; i++)
+            {
+                float x = i * 12 + random.nextInt(10);
+                float height = 8 + random.nextInt(10);
+                Matrix textMatrix = new Matrix(height, 0, 0, height, x, y);
+                textList.add(new TextPosition(0, 600, 800, textMatrix, x + 5, y, height, 5, 3,
+                        "x", new int[] { 'x' }, null, height, (int) height));
+            }
+        }
+        Collections.shuffle(textList, random);
+        List<TextPosition> expected = new ArrayList<>(textList);
+        QuickSort.sort(expected, new TextPositionComparator());
+        TextPositionLineSorter.sort(textList);
+        assertEquals(expected, textList);
+    }
+
     @Test
     void testTabula() throws IOException
     {